@@ -0,0 +1,38 @@
+/*
+ * Copyright 2011-2024 Lime Mojito Pty Ltd
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.limemojito.trading.model.benchmark;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication
+public class CacheBenchmark {
+    /**
+     * Literal copy of DirectDukascopyNoCache.PROP_PERMITS.  Reading that constant would load the class and fix the
+     * rate limit before it could be raised for the local stub.
+     */
+    static final String PROP_PERMITS = "com.limemojito.trading.model.tick.dukascopy.cache.permits";
+    private static final String LOCAL_PERMITS_PER_SECOND = "100000";
+
+    public static void main(String[] args) {
+        if (System.getProperty(PROP_PERMITS) == null) {
+            System.setProperty(PROP_PERMITS, LOCAL_PERMITS_PER_SECOND);
+        }
+        SpringApplication.run(CacheBenchmark.class, args);
+    }
+}
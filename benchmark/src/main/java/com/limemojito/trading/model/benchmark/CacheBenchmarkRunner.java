@@ -0,0 +1,241 @@
+/*
+ * Copyright 2011-2024 Lime Mojito Pty Ltd
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.limemojito.trading.model.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.limemojito.trading.model.TradingInputStream;
+import com.limemojito.trading.model.bar.Bar;
+import com.limemojito.trading.model.bar.Bar.Period;
+import com.limemojito.trading.model.benchmark.ScenarioResult.Scenario;
+import com.limemojito.trading.model.testsupport.StubDukascopyServer;
+import com.limemojito.trading.model.testsupport.SyntheticTickGenerator;
+import com.limemojito.trading.model.tick.Tick;
+import com.limemojito.trading.model.tick.dukascopy.DukascopyPathGenerator;
+import com.limemojito.trading.model.tick.dukascopy.DukascopySearch;
+import com.limemojito.trading.model.tick.dukascopy.cache.DirectDukascopyNoCache;
+import com.limemojito.trading.model.tick.dukascopy.cache.LocalDukascopyCache;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Reproduces the "Empty Cache" and "Repeat Query" timings of the Readme against a synthetic local feed.  A bi5 tree
+ * is generated for the symbols and longest range, served by a stub Dukascopy server, and each scenario is measured
+ * for every symbol, period and range length after unrecorded warm up queries.  Results are written as JSON.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CacheBenchmarkRunner implements ApplicationRunner {
+    private final ObjectMapper mapper;
+    private final Validator validator;
+    private final DukascopyPathGenerator pathGenerator = new DukascopyPathGenerator();
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        final List<String> symbols = getValues(args, "symbol", List.of("EURUSD", "AUDUSD"), Function.identity());
+        final List<Period> periods = getValues(args, "period", List.of(Period.M5, Period.H1), Period::valueOf);
+        final List<Integer> rangeDays = getValues(args, "days", List.of(1, 4), Integer::valueOf);
+        final int warmup = getValue(args, "warmup", 3, Integer::valueOf);
+        final int iterations = getValue(args, "iterations", 20, Integer::valueOf);
+        if (warmup < 0 || iterations < 1) {
+            throw new IllegalArgumentException(String.format("Warmup %d must not be negative and iterations %d must be positive",
+                                                             warmup,
+                                                             iterations));
+        }
+        final Instant start = getValue(args, "start", Instant.parse("2019-05-06T00:00:00Z"), Instant::parse);
+        final int ticksPerHour = getValue(args, "ticks-per-hour", 2000, Integer::valueOf);
+        final long seed = getValue(args, "seed", 1L, Long::valueOf);
+        final Duration latency = Duration.ofMillis(getValue(args, "latency-ms", 0L, Long::valueOf));
+        final File output = new File(getValue(args, "output", "benchmark-results.json", Function.identity()));
+        final Map<String, Object> configuration = new LinkedHashMap<>();
+        configuration.put("symbols", symbols);
+        configuration.put("periods", periods);
+        configuration.put("rangeDays", rangeDays);
+        configuration.put("warmup", warmup);
+        configuration.put("iterations", iterations);
+        configuration.put("start", start);
+        configuration.put("ticksPerHour", ticksPerHour);
+        configuration.put("seed", seed);
+        configuration.put("latencyMs", latency.toMillis());
+        log.info("Benchmarking with {}", configuration);
+
+        final Instant startedAt = Instant.now();
+        final List<ScenarioResult> results = new ArrayList<>();
+        final Path work = Files.createTempDirectory("trading-benchmark");
+        try {
+            final Path feed = work.resolve("feed");
+            final int maxDays = rangeDays.stream().max(Integer::compare).orElseThrow();
+            new SyntheticTickGenerator(seed, ticksPerHour).writeTree(feed, symbols, start, endOf(start, maxDays));
+            try (StubDukascopyServer server = StubDukascopyServer.forDirectory(feed)) {
+                server.setLatency(latency);
+                for (Scenario scenario : Scenario.values()) {
+                    for (String symbol : symbols) {
+                        for (Period period : periods) {
+                            for (int days : rangeDays) {
+                                results.add(measure(scenario,
+                                                    server.getBaseUrl(),
+                                                    work,
+                                                    symbol,
+                                                    period,
+                                                    start,
+                                                    days,
+                                                    warmup,
+                                                    iterations));
+                            }
+                        }
+                    }
+                }
+            }
+        } finally {
+            delete(work);
+        }
+        mapper.writerWithDefaultPrettyPrinter()
+              .writeValue(output, new BenchmarkReport(startedAt,
+                                                      System.getProperty("java.version"),
+                                                      Runtime.getRuntime().availableProcessors(),
+                                                      configuration,
+                                                      results));
+        log.info("Wrote {} results to file://{}", results.size(), output.getAbsolutePath());
+    }
+
+    private ScenarioResult measure(Scenario scenario,
+                                   String baseUrl,
+                                   Path work,
+                                   String symbol,
+                                   Period period,
+                                   Instant start,
+                                   int days,
+                                   int warmup,
+                                   int iterations) throws IOException {
+        final Instant end = endOf(start, days);
+        final Measurements measurements = new Measurements(iterations);
+        final LocalDukascopyCache warmCache = scenario == Scenario.WARM_BAR_CACHE ? newCache(work, baseUrl) : null;
+        if (warmCache != null) {
+            aggregate(new DukascopySearch(validator, warmCache, pathGenerator), symbol, period, start, end);
+        }
+        long bars = 0;
+        String cacheStats = "";
+        for (int i = 0; i < warmup + iterations; i++) {
+            final boolean recorded = i >= warmup;
+            final LocalDukascopyCache cache = warmCache != null ? warmCache : newCache(work, baseUrl);
+            final DukascopySearch search = new DukascopySearch(validator, cache, pathGenerator);
+            if (scenario == Scenario.WARM_LOCAL_TICKS) {
+                try (TradingInputStream<Tick> ticks = search.search(symbol, start, end)) {
+                    ticks.stream().count();
+                }
+            }
+            if (recorded) {
+                measurements.start();
+            }
+            bars = aggregate(search, symbol, period, start, end);
+            if (recorded) {
+                measurements.stop();
+                cacheStats = search.cacheStats();
+            }
+            if (cache != warmCache) {
+                cache.removeCache();
+            }
+        }
+        if (warmCache != null) {
+            warmCache.removeCache();
+        }
+        final ScenarioResult result = measurements.toResult(bars)
+                                                  .scenario(scenario)
+                                                  .symbol(symbol)
+                                                  .period(period)
+                                                  .days(days)
+                                                  .cacheStats(cacheStats)
+                                                  .build();
+        log.info("{} {} {} {}d: mean {}ms p50 {}ms max {}ms {} bars/s {} bytes/query",
+                 scenario,
+                 symbol,
+                 period,
+                 days,
+                 String.format("%.2f", result.getMeanMs()),
+                 String.format("%.2f", result.getP50Ms()),
+                 String.format("%.2f", result.getMaxMs()),
+                 String.format("%.0f", result.getBarsPerSecond()),
+                 result.getAllocatedBytesPerQuery());
+        return result;
+    }
+
+    private LocalDukascopyCache newCache(Path work, String baseUrl) throws IOException {
+        return new LocalDukascopyCache(mapper,
+                                       new DirectDukascopyNoCache(baseUrl),
+                                       Files.createTempDirectory(work, "cache"));
+    }
+
+    private static long aggregate(DukascopySearch search,
+                                  String symbol,
+                                  Period period,
+                                  Instant start,
+                                  Instant end) throws IOException {
+        try (TradingInputStream<Bar> bars = search.aggregateFromTicks(symbol, period, start, end)) {
+            return bars.stream().count();
+        }
+    }
+
+    private static Instant endOf(Instant start, int days) {
+        return start.plus(Duration.ofDays(days)).minusSeconds(1);
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> walk = Files.walk(directory)) {
+            //noinspection ResultOfMethodCallIgnored
+            walk.sorted(Comparator.reverseOrder())
+                .map(Path::toFile)
+                .forEach(File::delete);
+        }
+    }
+
+    private static <T> T getValue(ApplicationArguments args, String name, T defaultValue, Function<String, T> parser) {
+        return getValues(args, name, List.of(defaultValue), parser).get(0);
+    }
+
+    private static <T> List<T> getValues(ApplicationArguments args,
+                                         String name,
+                                         List<T> defaultValues,
+                                         Function<String, T> parser) {
+        if (!args.containsOption(name)) {
+            return defaultValues;
+        }
+        final List<String> optionValues = args.getOptionValues(name);
+        if (optionValues.isEmpty()) {
+            throw new IllegalArgumentException("No value for command line argument --" + name + " Are you missing = ?");
+        }
+        return optionValues.stream().map(parser).toList();
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2011-2024 Lime Mojito Pty Ltd
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.limemojito.trading.model.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+/**
+ * Collects the elapsed time and bytes allocated by the measuring thread for each query of a scenario.  Nearest rank
+ * percentiles are only reported when there are enough samples for them to differ from the maximum.
+ */
+class Measurements {
+    private static final double NANOS_PER_MILLISECOND = 1_000_000.0;
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+    private static final double PERCENT = 100.0;
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final long[] elapsedNanos;
+    private final long[] allocatedBytes;
+    private int count;
+    private long startNanos;
+    private long startAllocated;
+
+    Measurements(int iterations) {
+        this.elapsedNanos = new long[iterations];
+        this.allocatedBytes = new long[iterations];
+    }
+
+    void start() {
+        startAllocated = threads.getCurrentThreadAllocatedBytes();
+        startNanos = System.nanoTime();
+    }
+
+    void stop() {
+        elapsedNanos[count] = System.nanoTime() - startNanos;
+        allocatedBytes[count] = threads.getCurrentThreadAllocatedBytes() - startAllocated;
+        count++;
+    }
+
+    ScenarioResult.ScenarioResultBuilder toResult(long barsPerQuery) {
+        final long[] sorted = Arrays.copyOf(elapsedNanos, count);
+        Arrays.sort(sorted);
+        final long totalNanos = Arrays.stream(sorted).sum();
+        return ScenarioResult.builder()
+                             .iterations(count)
+                             .barsPerQuery(barsPerQuery)
+                             .meanMs(totalNanos / NANOS_PER_MILLISECOND / count)
+                             .p50Ms(percentile(sorted, 50) / NANOS_PER_MILLISECOND)
+                             .p90Ms(supportedPercentileMs(sorted, 90))
+                             .p99Ms(supportedPercentileMs(sorted, 99))
+                             .maxMs(sorted[count - 1] / NANOS_PER_MILLISECOND)
+                             .barsPerSecond(barsPerQuery * count / (totalNanos / NANOS_PER_SECOND))
+                             .allocatedBytesPerQuery(Arrays.stream(allocatedBytes, 0, count).sum() / count);
+    }
+
+    private static Double supportedPercentileMs(long[] sorted, int percentile) {
+        if (sorted.length * (PERCENT - percentile) < PERCENT) {
+            return null;
+        }
+        return percentile(sorted, percentile) / NANOS_PER_MILLISECOND;
+    }
+
+    /**
+     * Nearest rank percentile.
+     */
+    private static long percentile(long[] sorted, int percentile) {
+        final int rank = (int) Math.ceil(percentile / PERCENT * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+}
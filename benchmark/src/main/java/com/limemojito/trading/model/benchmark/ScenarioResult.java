@@ -0,0 +1,65 @@
+/*
+ * Copyright 2011-2024 Lime Mojito Pty Ltd
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.limemojito.trading.model.benchmark;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.limemojito.trading.model.bar.Bar.Period;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Measurements of one scenario for one symbol, period and range length.  Times are in milliseconds.  p90 needs at
+ * least 10 iterations and p99 at least 100, otherwise they are omitted.
+ */
+@Value
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Builder
+public class ScenarioResult {
+    Scenario scenario;
+    String symbol;
+    Period period;
+    int days;
+    int iterations;
+    long barsPerQuery;
+    double meanMs;
+    double p50Ms;
+    Double p90Ms;
+    Double p99Ms;
+    double maxMs;
+    double barsPerSecond;
+    long allocatedBytesPerQuery;
+    String cacheStats;
+
+    /**
+     * Cache states measured, matching the columns of the timing table in the Readme.
+     */
+    public enum Scenario {
+        /**
+         * Empty local cache, every hour is fetched from the feed.
+         */
+        COLD_CHAIN,
+        /**
+         * Ticks are in the local cache but bars have not been aggregated before.
+         */
+        WARM_LOCAL_TICKS,
+        /**
+         * A repeat query answered from the bar cache.
+         */
+        WARM_BAR_CACHE
+    }
+}
@@ -30,6 +30,7 @@ import org.springframework.stereotype.Component;
 
 import java.io.File;
 import java.io.FileWriter;
+import java.io.IOException;
 import java.time.Instant;
 import java.util.List;
 
@@ -39,9 +40,14 @@ import java.util.List;
 public class DataStreamRunner implements ApplicationRunner {
 
     private final TradingSearch tradingSearch;
+    private final PartitionedExport partitionedExport;
 
     @Override
     public void run(ApplicationArguments args) throws Exception {
+        if (args.containsOption("partition")) {
+            runPartitioned(args);
+            return;
+        }
         String symbol = getRequiredValue(args, "symbol");
         Period period = Period.valueOf(getRequiredValue(args, "period"));
         Instant start = getRequiredValueInstant(args, "start");
@@ -56,11 +62,40 @@ public class DataStreamRunner implements ApplicationRunner {
         log.info(tradingSearch.cacheStats());
     }
 
+    private void runPartitioned(ApplicationArguments args) throws IOException {
+        List<String> symbols = getRequiredValues(args, "symbol");
+        List<Period> periods = getRequiredValues(args, "period").stream().map(Period::valueOf).toList();
+        Instant start = getRequiredValueInstant(args, "start");
+        Instant end = getRequiredValueInstant(args, "end");
+        PartitionedExport.Partition partition = PartitionedExport.Partition.valueOf(getRequiredValue(args, "partition"));
+        File outputDirectory = new File(getRequiredValue(args, "output"));
+        int threads = args.containsOption("threads")
+                      ? Integer.parseInt(getRequiredValue(args, "threads"))
+                      : Runtime.getRuntime().availableProcessors();
+        if (threads < 1) {
+            throw new IllegalArgumentException("Command line argument --threads must be at least 1 but was " + threads);
+        }
+        log.info("Performing partitioned bar export on {} {} {} -> {} by {} => {}",
+                 symbols,
+                 periods,
+                 start,
+                 end,
+                 partition,
+                 outputDirectory);
+        File manifest = partitionedExport.export(symbols, periods, start, end, partition, outputDirectory, threads);
+        log.info("Wrote manifest to file://{}", manifest);
+        log.info(tradingSearch.cacheStats());
+    }
+
     private Instant getRequiredValueInstant(ApplicationArguments args, String name) {
         return Instant.parse(getRequiredValue(args, name));
     }
 
     private static String getRequiredValue(ApplicationArguments args, String name) {
+        return getRequiredValues(args, name).get(0);
+    }
+
+    private static List<String> getRequiredValues(ApplicationArguments args, String name) {
         if (!args.containsOption(name)) {
             throw new IllegalArgumentException("Missing command line argument --" + name + "=????");
         }
@@ -68,6 +103,6 @@ public class DataStreamRunner implements ApplicationRunner {
         if (optionValues.isEmpty()) {
             throw new IllegalArgumentException("No value for command line argument --" + name + " Are you missing = ?");
         }
-        return optionValues.get(0);
+        return optionValues;
     }
 }
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2011-2024 Lime Mojito Pty Ltd
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.limemojito.trading.model.example;
+
+import com.limemojito.trading.model.TradingInputStream;
+import com.limemojito.trading.model.TradingSearch;
+import com.limemojito.trading.model.bar.Bar;
+import com.limemojito.trading.model.bar.Bar.Period;
+import com.limemojito.trading.model.bar.BarInputStreamToCsv;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Exports bars as one CSV file per symbol, period and day or month.  Partitions are aggregated concurrently from the
+ * same search, and a manifest listing each file and its row count is written once all partitions complete.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PartitionedExport {
+    public static final String MANIFEST_NAME = "manifest.csv";
+
+    private final TradingSearch tradingSearch;
+
+    /**
+     * Size of each partition.
+     */
+    public enum Partition {
+        DAY(DateTimeFormatter.ISO_LOCAL_DATE),
+        MONTH(DateTimeFormatter.ofPattern("yyyy-MM"));
+
+        private final DateTimeFormatter nameFormat;
+
+        Partition(DateTimeFormatter nameFormat) {
+            this.nameFormat = nameFormat;
+        }
+
+        private LocalDate startOf(LocalDate date) {
+            return this == DAY ? date : date.withDayOfMonth(1);
+        }
+
+        private LocalDate next(LocalDate start) {
+            return this == DAY ? start.plusDays(1) : start.plusMonths(1);
+        }
+    }
+
+    @Value
+    private static class PartitionResult {
+        String symbol;
+        Period period;
+        Instant start;
+        Instant end;
+        File file;
+        long rows;
+    }
+
+    /**
+     * Export bars for every symbol and period, partitioned within the start and end times.
+     *
+     * @param symbols   symbols to export.
+     * @param periods   periods to export.
+     * @param start     start of the export (inclusive).
+     * @param end       end of the export (inclusive).
+     * @param partition size of each output file.
+     * @param directory directory to write the partition tree and manifest to.
+     * @param threads   partitions to produce concurrently.
+     * @return the manifest file.
+     * @throws IOException on an IO failure.
+     */
+    public File export(List<String> symbols,
+                       List<Period> periods,
+                       Instant start,
+                       Instant end,
+                       Partition partition,
+                       File directory,
+                       int threads) throws IOException {
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<CompletableFuture<PartitionResult>> results = new ArrayList<>();
+            for (String symbol : symbols) {
+                for (Period period : periods) {
+                    LocalDate date = partition.startOf(LocalDate.ofInstant(start, ZoneOffset.UTC));
+                    while (!date.atStartOfDay(ZoneOffset.UTC).toInstant().isAfter(end)) {
+                        final Instant partitionStart = max(start, date.atStartOfDay(ZoneOffset.UTC).toInstant());
+                        final LocalDate next = partition.next(date);
+                        final Instant partitionEnd = min(end,
+                                                         next.atStartOfDay(ZoneOffset.UTC).toInstant().minusNanos(1));
+                        final File file = partitionFile(directory, symbol, period, partition.nameFormat.format(date));
+                        results.add(CompletableFuture.supplyAsync(() -> exportPartition(symbol,
+                                                                                        period,
+                                                                                        partitionStart,
+                                                                                        partitionEnd,
+                                                                                        file), executor));
+                        date = next;
+                    }
+                }
+            }
+            log.info("Exporting {} partitions on {} threads", results.size(), threads);
+            return writeManifest(directory, join(results));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private PartitionResult exportPartition(String symbol, Period period, Instant start, Instant end, File file) {
+        final AtomicLong rows = new AtomicLong();
+        try (TradingInputStream<Bar> bars = tradingSearch.aggregateFromTicks(symbol,
+                                                                             period,
+                                                                             start,
+                                                                             end,
+                                                                             bar -> rows.incrementAndGet());
+             BarInputStreamToCsv barsToCsv = new BarInputStreamToCsv(bars, new FileWriter(file))) {
+            barsToCsv.convert();
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        }
+        log.debug("Wrote {} rows to {}", rows.get(), file);
+        return new PartitionResult(symbol, period, start, end, file, rows.get());
+    }
+
+    private static File partitionFile(File directory, String symbol, Period period, String name) throws IOException {
+        final File parent = new File(new File(directory, symbol), period.name());
+        if (!parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Could not create directory " + parent);
+        }
+        return new File(parent, symbol + "_" + period + "_" + name + ".csv");
+    }
+
+    private static List<PartitionResult> join(List<CompletableFuture<PartitionResult>> results) throws IOException {
+        try {
+            CompletableFuture.allOf(results.toArray(CompletableFuture<?>[]::new)).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw e;
+        }
+        return results.stream().map(CompletableFuture::join).toList();
+    }
+
+    private static File writeManifest(File directory, List<PartitionResult> results) throws IOException {
+        final File manifest = new File(directory, MANIFEST_NAME);
+        try (CSVPrinter printer = new CSVPrinter(new FileWriter(manifest), CSVFormat.EXCEL)) {
+            printer.printRecord("Symbol", "Period", "Start", "End", "File", "Rows");
+            for (PartitionResult result : results) {
+                printer.printRecord(result.getSymbol(),
+                                    result.getPeriod(),
+                                    result.getStart(),
+                                    result.getEnd(),
+                                    directory.toPath().relativize(result.getFile().toPath()),
+                                    result.getRows());
+            }
+        }
+        return manifest;
+    }
+
+    private static Instant max(Instant a, Instant b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static Instant min(Instant a, Instant b) {
+        return a.isBefore(b) ? a : b;
+    }
+}
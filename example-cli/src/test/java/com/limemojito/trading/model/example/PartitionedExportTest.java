@@ -0,0 +1,168 @@
+/*
+ * Copyright 2011-2024 Lime Mojito Pty Ltd
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+
+package com.limemojito.trading.model.example;
+
+import com.limemojito.trading.model.TradingInputStream;
+import com.limemojito.trading.model.TradingSearch;
+import com.limemojito.trading.model.bar.Bar;
+import com.limemojito.trading.model.bar.BarVisitor;
+import com.limemojito.trading.model.bar.BarListInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static com.limemojito.trading.model.StreamData.StreamSource.Historical;
+import static com.limemojito.trading.model.bar.Bar.Period.H1;
+import static com.limemojito.trading.model.bar.Bar.Period.M5;
+import static com.limemojito.trading.model.example.PartitionedExport.Partition.DAY;
+import static com.limemojito.trading.model.example.PartitionedExport.Partition.MONTH;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class PartitionedExportTest {
+    private static final String SYMBOL = "EURUSD";
+
+    @Mock
+    private TradingSearch tradingSearch;
+    @TempDir
+    private File directory;
+    private PartitionedExport export;
+
+    @BeforeEach
+    void setUp() {
+        export = new PartitionedExport(tradingSearch);
+    }
+
+    @Test
+    public void shouldClampFirstAndLastDayToExportRange() throws Exception {
+        searchReturnsOneBarPerPartition();
+        final Instant start = Instant.parse("2019-05-06T12:00:00Z");
+        final Instant end = Instant.parse("2019-05-08T06:00:00Z");
+
+        final File manifest = export.export(List.of(SYMBOL), List.of(H1), start, end, DAY, directory, 2);
+
+        verifySearch(H1, start, "2019-05-06T23:59:59.999999999Z");
+        verifySearch(H1, "2019-05-07T00:00:00Z", "2019-05-07T23:59:59.999999999Z");
+        verifySearch(H1, "2019-05-08T00:00:00Z", end);
+        verifyNoMoreInteractions(tradingSearch);
+        assertThat(new File(directory, "EURUSD/H1/EURUSD_H1_2019-05-06.csv")).isFile();
+        assertThat(new File(directory, "EURUSD/H1/EURUSD_H1_2019-05-07.csv")).isFile();
+        assertThat(new File(directory, "EURUSD/H1/EURUSD_H1_2019-05-08.csv")).isFile();
+        assertThat(manifest).isEqualTo(new File(directory, PartitionedExport.MANIFEST_NAME));
+        assertThat(Files.readAllLines(manifest.toPath())).containsExactly(
+                "Symbol,Period,Start,End,File,Rows",
+                "EURUSD,H1,2019-05-06T12:00:00Z,2019-05-06T23:59:59.999999999Z,EURUSD/H1/EURUSD_H1_2019-05-06.csv,1",
+                "EURUSD,H1,2019-05-07T00:00:00Z,2019-05-07T23:59:59.999999999Z,EURUSD/H1/EURUSD_H1_2019-05-07.csv,1",
+                "EURUSD,H1,2019-05-08T00:00:00Z,2019-05-08T06:00:00Z,EURUSD/H1/EURUSD_H1_2019-05-08.csv,1");
+    }
+
+    @Test
+    public void shouldPartitionMonthsAcrossYearEndForEachPeriod() throws Exception {
+        searchReturnsOneBarPerPartition();
+        final Instant start = Instant.parse("2018-12-20T00:00:00Z");
+        final Instant end = Instant.parse("2019-02-01T00:00:00Z");
+
+        final File manifest = export.export(List.of(SYMBOL), List.of(M5, H1), start, end, MONTH, directory, 3);
+
+        for (Bar.Period period : List.of(M5, H1)) {
+            verifySearch(period, start, "2018-12-31T23:59:59.999999999Z");
+            verifySearch(period, "2019-01-01T00:00:00Z", "2019-01-31T23:59:59.999999999Z");
+            verifySearch(period, end, end);
+        }
+        verifyNoMoreInteractions(tradingSearch);
+        assertThat(new File(directory, "EURUSD/M5/EURUSD_M5_2018-12.csv")).isFile();
+        assertThat(new File(directory, "EURUSD/H1/EURUSD_H1_2019-02.csv")).isFile();
+        assertThat(Files.readAllLines(manifest.toPath())).hasSize(7)
+                                                         .contains("EURUSD,M5,2019-01-01T00:00:00Z,"
+                                                                   + "2019-01-31T23:59:59.999999999Z,"
+                                                                   + "EURUSD/M5/EURUSD_M5_2019-01.csv,1");
+    }
+
+    @Test
+    public void shouldFailExportWhenPartitionFails() throws Exception {
+        final IOException failure = new IOException("Partition failed");
+        when(searchAnyPartition()).thenThrow(failure);
+        final Instant start = Instant.parse("2019-05-06T00:00:00Z");
+        final Instant end = Instant.parse("2019-05-07T00:00:00Z");
+
+        assertThatThrownBy(() -> export.export(List.of(SYMBOL), List.of(H1), start, end, DAY, directory, 2))
+                .isSameAs(failure);
+        assertThat(new File(directory, PartitionedExport.MANIFEST_NAME)).doesNotExist();
+    }
+
+    private void searchReturnsOneBarPerPartition() throws IOException {
+        when(searchAnyPartition()).thenAnswer(invocation -> {
+            final Bar.Period period = invocation.getArgument(1);
+            final Instant start = invocation.getArgument(2);
+            final Bar bar = Bar.builder()
+                               .startMillisecondsUtc(start.toEpochMilli())
+                               .streamId(UUID.randomUUID())
+                               .period(period)
+                               .symbol(SYMBOL)
+                               .low(116500)
+                               .high(116939)
+                               .open(116568)
+                               .close(116935)
+                               .source(Historical)
+                               .build();
+            final BarVisitor visitor = invocation.getArgument(4);
+            return new BarListInputStream(List.of(bar), visitor);
+        });
+    }
+
+    private TradingInputStream<Bar> searchAnyPartition() throws IOException {
+        return tradingSearch.aggregateFromTicks(eq(SYMBOL),
+                                                any(Bar.Period.class),
+                                                any(Instant.class),
+                                                any(Instant.class),
+                                                any(BarVisitor.class));
+    }
+
+    private void verifySearch(Bar.Period period, String start, String end) throws IOException {
+        verifySearch(period, Instant.parse(start), Instant.parse(end));
+    }
+
+    private void verifySearch(Bar.Period period, Instant start, String end) throws IOException {
+        verifySearch(period, start, Instant.parse(end));
+    }
+
+    private void verifySearch(Bar.Period period, String start, Instant end) throws IOException {
+        verifySearch(period, Instant.parse(start), end);
+    }
+
+    private void verifySearch(Bar.Period period, Instant start, Instant end) throws IOException {
+        verify(tradingSearch).aggregateFromTicks(eq(SYMBOL), eq(period), eq(start), eq(end), any(BarVisitor.class));
+    }
+}
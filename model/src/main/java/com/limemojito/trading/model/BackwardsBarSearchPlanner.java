@@ -0,0 +1,163 @@
+/*
+ * Copyright 2011-2024 Lime Mojito Pty Ltd
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.limemojito.trading.model;
+
+import com.limemojito.trading.model.bar.Bar;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+
+import static com.limemojito.trading.model.bar.Bar.Period.D1;
+
+/**
+ * Plans the windows of a backwards bar search so the fewest days are looked up.  Windows are whole UTC days (the first
+ * ends at the search end time), never overlap, and walk backwards until enough bars have been found.
+ * <p>
+ * The first window is sized from the FX trading calendar, where Saturday is closed and Sunday only trades for the
+ * last couple of hours.  Later windows are sized from the bar density observed so far, which accounts for holidays
+ * and data gaps.  When a window finds no bars the next window doubles in length.
+ */
+@Slf4j
+final class BackwardsBarSearchPlanner {
+    private static final long DAY_MILLIS = Duration.ofDays(1).toMillis();
+    private static final double SUNDAY_TRADING_FRACTION = 2.0 / 24.0;
+    private static final double MIN_DENSITY = 0.01;
+
+    private final Instant theBeginningOfTime;
+    private final int barsPerDay;
+    private Instant windowEnd;
+    private int remaining;
+    private double density;
+    private double expectedInWindow;
+    private long windowDays;
+    private boolean searched;
+    private boolean finalWindow;
+    @Getter
+    private Instant start;
+
+    /**
+     * @param period             period of bars to find.
+     * @param barCount           number of bars wanted before end time.
+     * @param endTime            exclusive end of the search.
+     * @param theBeginningOfTime earliest time data exists.
+     */
+    BackwardsBarSearchPlanner(Bar.Period period, int barCount, Instant endTime, Instant theBeginningOfTime) {
+        this.theBeginningOfTime = theBeginningOfTime;
+        this.barsPerDay = period.periodsIn(D1);
+        this.windowEnd = endTime;
+        this.remaining = barCount;
+        this.density = 1.0;
+    }
+
+    /**
+     * @return inclusive end of the current window.
+     */
+    Instant getEnd() {
+        return windowEnd.minusNanos(1);
+    }
+
+    /**
+     * @return true if more bars are required and a window remains before the beginning of time.
+     */
+    boolean hasMoreWindows() {
+        return remaining > 0 && !finalWindow;
+    }
+
+    /**
+     * Plan the next window, the window before the last.  Call found with the bars found in the window first.
+     *
+     * @return true if this is the final window as it reaches the beginning of time.
+     */
+    boolean planNext() {
+        if (searched) {
+            windowEnd = start;
+        }
+        if (searched && expectedInWindow > 0 && density == 0) {
+            start = windowEnd.minus(Duration.ofDays(windowDays * 2));
+            expectedInWindow = expectedBars(start, windowEnd);
+        } else {
+            planFromDensity();
+        }
+        if (!start.isAfter(theBeginningOfTime)) {
+            log.warn("Reached the beginning of Time {}", theBeginningOfTime);
+            start = theBeginningOfTime;
+            finalWindow = true;
+        }
+        windowDays = Math.max(1, ChronoUnit.DAYS.between(start, windowEnd));
+        searched = true;
+        log.debug("Planned window {} -> {} expecting {} bars for {} remaining",
+                  start,
+                  windowEnd,
+                  Math.round(expectedInWindow * density),
+                  remaining);
+        return finalWindow;
+    }
+
+    /**
+     * Record the bars found in the current window.
+     *
+     * @param count number of bars found.
+     */
+    void found(int count) {
+        remaining -= count;
+        if (expectedInWindow > 0) {
+            density = count == 0 ? 0 : Math.max(MIN_DENSITY, count / expectedInWindow);
+        }
+    }
+
+    private void planFromDensity() {
+        final double usedDensity = density == 0 ? 1.0 : density;
+        expectedInWindow = 0;
+        start = windowEnd;
+        while (expectedInWindow * usedDensity < remaining && start.isAfter(theBeginningOfTime)) {
+            final Instant dayEnd = start;
+            start = previousDayStart(dayEnd);
+            expectedInWindow += expectedBars(start, dayEnd);
+        }
+    }
+
+    private double expectedBars(Instant from, Instant to) {
+        double expected = 0;
+        Instant dayEnd = to;
+        while (dayEnd.isAfter(from)) {
+            final Instant dayStart = previousDayStart(dayEnd).isBefore(from) ? from : previousDayStart(dayEnd);
+            final double fraction = (double) (dayEnd.toEpochMilli() - dayStart.toEpochMilli()) / DAY_MILLIS;
+            expected += barsPerDay * fraction * tradingFraction(dayStart);
+            dayEnd = dayStart;
+        }
+        return expected;
+    }
+
+    private static Instant previousDayStart(Instant time) {
+        final Instant dayStart = time.truncatedTo(ChronoUnit.DAYS);
+        return dayStart.equals(time) ? dayStart.minus(Duration.ofDays(1)) : dayStart;
+    }
+
+    private static double tradingFraction(Instant dayStart) {
+        final DayOfWeek day = dayStart.atZone(ZoneOffset.UTC).getDayOfWeek();
+        if (day == DayOfWeek.SATURDAY) {
+            return 0;
+        }
+        return day == DayOfWeek.SUNDAY ? SUNDAY_TRADING_FRACTION : 1.0;
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright 2011-2024 Lime Mojito Pty Ltd
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.limemojito.trading.model;
+
+import com.limemojito.trading.model.bar.Bar;
+import com.limemojito.trading.model.bar.BarVisitor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Runs the same bar search for many symbols concurrently.  A permit is taken for each running symbol search from a
+ * limit shared by all callers of this instance, so the executor may be large or unbounded while the load placed on
+ * the underlying search stays fixed.  The executor is owned by the caller.
+ * <p>
+ * Bar searches resolve their days when performed, so the per-symbol fetch latency overlaps rather than adds up.
+ */
+@Slf4j
+public final class BulkTradingSearch {
+    private final TradingSearch search;
+    private final ExecutorService executor;
+    private final Semaphore permits;
+
+    /**
+     * Create a bulk search.
+     *
+     * @param search                Search engine to use, which must be safe to call from several threads.
+     * @param executor              Executor to run symbol searches on.
+     * @param maxConcurrentSearches Maximum number of symbol searches running at once across all callers.
+     */
+    public BulkTradingSearch(TradingSearch search, ExecutorService executor, int maxConcurrentSearches) {
+        if (maxConcurrentSearches < 1) {
+            throw new IllegalArgumentException("Concurrent searches must be at least 1");
+        }
+        this.search = search;
+        this.executor = executor;
+        this.permits = new Semaphore(maxConcurrentSearches, true);
+    }
+
+    /**
+     * Retrieve a stream of bars for each symbol by aggregating ticks.  If any search fails the streams already found
+     * are closed and the failure is thrown.
+     *
+     * @param symbols    Symbols to search on.
+     * @param period     Period to aggregate ticks to.
+     * @param startTime  Start time (inclusive).
+     * @param endTime    End time (inclusive).
+     * @param barVisitor Visitor to apply as each bar is formed, called from several threads.
+     * @return Bar streams keyed by symbol in the iteration order of the symbols.
+     * @throws IOException on a data failure.
+     */
+    public Map<String, TradingInputStream<Bar>> aggregateFromTicks(Collection<String> symbols,
+                                                                   Bar.Period period,
+                                                                   Instant startTime,
+                                                                   Instant endTime,
+                                                                   BarVisitor barVisitor) throws IOException {
+        final Map<String, Future<TradingInputStream<Bar>>> searches = new LinkedHashMap<>();
+        final Map<String, TradingInputStream<Bar>> found = new LinkedHashMap<>();
+        final OpenedStreams opened = new OpenedStreams();
+        boolean complete = false;
+        try {
+            for (String symbol : new LinkedHashSet<>(symbols)) {
+                searches.put(symbol, submit(opened, () -> search.aggregateFromTicks(symbol,
+                                                                            period,
+                                                                            startTime,
+                                                                            endTime,
+                                                                            barVisitor)));
+            }
+            log.debug("Submitted {} symbol searches for {} {} -> {}", searches.size(), period, startTime, endTime);
+            for (Map.Entry<String, Future<TradingInputStream<Bar>>> entry : searches.entrySet()) {
+                found.put(entry.getKey(), waitFor(entry.getKey(), entry.getValue()));
+            }
+            complete = true;
+            return found;
+        } finally {
+            if (!complete) {
+                // searches still running close their own stream once abandoned.
+                closeAll(opened.abandon());
+                searches.values().forEach(future -> future.cancel(true));
+            }
+        }
+    }
+
+    /**
+     * Retrieve bars for all symbols merged into one stream in bar start time order.  Bars starting at the same time
+     * are in the iteration order of the symbols.
+     *
+     * @param symbols    Symbols to search on.
+     * @param period     Period to aggregate ticks to.
+     * @param startTime  Start time (inclusive).
+     * @param endTime    End time (inclusive).
+     * @param barVisitor Visitor to apply as each bar is formed, called from several threads.
+     * @return Bar data for all symbols in time order.
+     * @throws IOException on a data failure.
+     * @see TradingInputStream#mergeByTime(Collection, java.util.function.ToLongFunction)
+     */
+    public TradingInputStream<Bar> aggregateFromTicksMerged(Collection<String> symbols,
+                                                            Bar.Period period,
+                                                            Instant startTime,
+                                                            Instant endTime,
+                                                            BarVisitor barVisitor) throws IOException {
+        final Map<String, TradingInputStream<Bar>> bySymbol = aggregateFromTicks(symbols,
+                                                                                  period,
+                                                                                  startTime,
+                                                                                  endTime,
+                                                                                  barVisitor);
+        return TradingInputStream.mergeByTime(bySymbol.values(), Bar::getStartMillisecondsUtc);
+    }
+
+    private Future<TradingInputStream<Bar>> submit(OpenedStreams opened,
+                                                   SymbolSearch symbolSearch) throws InterruptedIOException {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for a search permit");
+        }
+        try {
+            return executor.submit(() -> {
+                try {
+                    final TradingInputStream<Bar> stream = symbolSearch.perform();
+                    if (!opened.add(stream)) {
+                        close(stream);
+                    }
+                    return stream;
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private static TradingInputStream<Bar> waitFor(String symbol,
+                                                   Future<TradingInputStream<Bar>> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for " + symbol);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException("Failed to search " + symbol, cause);
+        }
+    }
+
+    private static void closeAll(Collection<TradingInputStream<Bar>> streams) {
+        for (TradingInputStream<Bar> stream : streams) {
+            close(stream);
+        }
+    }
+
+    private static void close(TradingInputStream<Bar> stream) {
+        try {
+            stream.close();
+        } catch (IOException e) {
+            log.warn("Failed to close stream after bulk search failure {}", e.getMessage(), e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface SymbolSearch {
+        TradingInputStream<Bar> perform() throws IOException;
+    }
+
+    /**
+     * Streams opened by the searches of one call, so that a failed call can close streams whose search completes
+     * after the failure as well as those already found.
+     */
+    private static final class OpenedStreams {
+        private final List<TradingInputStream<Bar>> streams = new ArrayList<>();
+        private boolean abandoned;
+
+        /**
+         * @return false if the call has been abandoned, so the caller must close the stream.
+         */
+        private synchronized boolean add(TradingInputStream<Bar> stream) {
+            if (abandoned) {
+                return false;
+            }
+            streams.add(stream);
+            return true;
+        }
+
+        private synchronized List<TradingInputStream<Bar>> abandon() {
+            abandoned = true;
+            return List.copyOf(streams);
+        }
+    }
+}
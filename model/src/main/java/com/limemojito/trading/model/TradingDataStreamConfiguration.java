@@ -19,6 +19,7 @@ package com.limemojito.trading.model;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.limemojito.trading.model.bar.Bar;
+import com.limemojito.trading.model.bar.ConcurrentTickBarNotifyingAggregator;
 import com.limemojito.trading.model.bar.TickBarNotifyingAggregator;
 import com.limemojito.trading.model.tick.dukascopy.DukascopyCache;
 import com.limemojito.trading.model.tick.dukascopy.DukascopyPathGenerator;
@@ -60,7 +61,7 @@ public class TradingDataStreamConfiguration {
     public TickBarNotifyingAggregator tickBarAggregator(Validator validator,
                                                         TickBarNotifyingAggregator.BarNotifier notifier,
                                                         @Value("${tick-to-bar.aggregation.period}") Bar.Period aggregationPeriod) {
-        return new TickBarNotifyingAggregator(validator, notifier, aggregationPeriod);
+        return new ConcurrentTickBarNotifyingAggregator(validator, notifier, aggregationPeriod);
     }
 
     /**
@@ -19,13 +19,21 @@ package com.limemojito.trading.model;
 
 import com.google.common.collect.Streams;
 import com.limemojito.trading.model.stream.TradingInputStreamCombiner;
+import com.limemojito.trading.model.stream.TradingInputStreamMerger;
+import com.limemojito.trading.model.stream.TradingInputStreamOpener;
 import lombok.RequiredArgsConstructor;
 
 import java.io.Closeable;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
 import java.util.stream.Stream;
 
 public interface TradingInputStream<Model> extends Closeable, Iterable<Model> {
@@ -36,6 +44,57 @@ public interface TradingInputStream<Model> extends Closeable, Iterable<Model> {
 
     boolean hasNext();
 
+    /**
+     * Moves the next items in the stream into the buffer, up to the buffer length.
+     *
+     * @param buffer buffer to fill from the start.
+     * @return the number of items moved, 0 only at the end of the stream.
+     */
+    default int drainTo(Model[] buffer) {
+        return drainTo(buffer, 0, buffer.length);
+    }
+
+    /**
+     * Moves the next items in the stream into part of the buffer.  Implementations override this to move many items
+     * per call rather than paying a hasNext and next call for each item.
+     *
+     * @param buffer buffer to fill.
+     * @param offset index of the first slot to fill.
+     * @param length maximum number of items to move.
+     * @return the number of items moved, 0 only at the end of the stream or if length is 0.
+     */
+    default int drainTo(Model[] buffer, int offset, int length) {
+        int count = 0;
+        while (count < length && hasNext()) {
+            buffer[offset + count++] = next();
+        }
+        return count;
+    }
+
+    /**
+     * Passes the next items in the stream to the consumer.
+     *
+     * @param consumer receives each item in stream order.
+     * @param max      maximum number of items to pass.
+     * @return the number of items passed, less than max only at the end of the stream.
+     */
+    default int drainTo(Consumer<? super Model> consumer, int max) {
+        int count = 0;
+        while (count < max && hasNext()) {
+            consumer.accept(next());
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Passes the remaining items to the action using {@link #drainTo(Consumer, int)}.
+     */
+    @Override
+    default void forEach(Consumer<? super Model> action) {
+        iterator().forEachRemaining(action);
+    }
+
     /**
      * Iterates over all the ticks in the stream
      */
@@ -43,6 +102,14 @@ public interface TradingInputStream<Model> extends Closeable, Iterable<Model> {
         return new TradingInputStream.ModelIterator<>(this);
     }
 
+    /**
+     * @return An ordered, non-null spliterator of unknown size.  Implementations that know their structure may split.
+     */
+    @Override
+    default Spliterator<Model> spliterator() {
+        return Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED | Spliterator.NONNULL);
+    }
+
     default Stream<Model> stream() {
         return Streams.stream(this);
     }
@@ -60,6 +127,14 @@ public interface TradingInputStream<Model> extends Closeable, Iterable<Model> {
         public Model next() throws NoSuchElementException {
             return inputStream.next();
         }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Model> action) {
+            int drained;
+            do {
+                drained = inputStream.drainTo(action, Integer.MAX_VALUE);
+            } while (drained == Integer.MAX_VALUE);
+        }
     }
 
     static <Model> TradingInputStream<Model> combine(Collection<TradingInputStream<Model>> inputStreams) {
@@ -79,4 +154,23 @@ public interface TradingInputStream<Model> extends Closeable, Iterable<Model> {
                                                      Predicate<Model> filter) {
         return new TradingInputStreamCombiner<>(inputStreams, filter);
     }
+
+    /**
+     * Merges time ordered streams into one time ordered stream, for example ticks from several symbols.  Items with
+     * equal times are returned in the order of the supplied streams.
+     *
+     * @param inputStreams streams to merge, each in ascending time order.
+     * @param timestamp    time of each item, such as Tick::getMillisecondsUtc or Bar::getStartMillisecondsUtc.
+     * @param <Model>      type of data being merged.
+     * @return A merged stream.
+     * @see TradingInputStreamMerger for inputs that should be opened on demand.
+     */
+    static <Model> TradingInputStream<Model> mergeByTime(Collection<TradingInputStream<Model>> inputStreams,
+                                                         ToLongFunction<Model> timestamp) {
+        final List<TradingInputStreamOpener<Model>> openers = new ArrayList<>(inputStreams.size());
+        for (TradingInputStream<Model> inputStream : inputStreams) {
+            openers.add(() -> inputStream);
+        }
+        return new TradingInputStreamMerger<>(openers, timestamp);
+    }
 }
@@ -20,19 +20,18 @@ package com.limemojito.trading.model;
 import com.limemojito.trading.model.bar.Bar;
 import com.limemojito.trading.model.bar.BarVisitor;
 import com.limemojito.trading.model.stream.TradingInputBackwardsSearchStream;
+import com.limemojito.trading.model.stream.TradingInputStreamMapper;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
-import java.time.Duration;
 import java.time.Instant;
-import java.util.Comparator;
-import java.util.List;
 
 @Slf4j
 public final class TradingInputStreamBackwardsExtender {
 
     /**
-     * Extend searches to complete stream.
+     * Extend searches to complete stream.  Searches walk backwards over whole days planned from the trading calendar
+     * and the bar density found so far, so no day is searched twice.
      *
      * @param symbol         Symbol to search.
      * @param period         Period to search.
@@ -50,36 +49,34 @@ public final class TradingInputStreamBackwardsExtender {
                                                  Instant endTime,
                                                  BarVisitor barVisitor,
                                                  TradingSearch tradingSearch) throws IOException {
+        final BackwardsBarSearchPlanner planner = new BackwardsBarSearchPlanner(period,
+                                                                                barCountBefore,
+                                                                                endTime,
+                                                                                tradingSearch.getTheBeginningOfTime());
         return new TradingInputBackwardsSearchStream<>(barCountBefore, new TradingInputBackwardsSearchStream.Search<>() {
-            private Instant start;
-            private Instant end;
-
-            @Override
-            public void sort(List<Bar> data) {
-                data.sort(Comparator.comparing(Bar::getStartMillisecondsUtc));
-            }
+            private int foundInWindow;
 
             @Override
             public boolean prepare(int searchCount) {
-                final Duration duration = period.getDuration().multipliedBy(barCountBefore);
-                final Instant theBeginningOfTime = tradingSearch.getTheBeginningOfTime();
-                start = endTime.minus(duration.multipliedBy(searchCount + 1));
-                if (start.compareTo(theBeginningOfTime) < 0) {
-                    log.warn("Reached the beginning of Time {}", theBeginningOfTime);
-                    start = theBeginningOfTime;
+                if (searchCount > 0) {
+                    planner.found(foundInWindow);
+                    foundInWindow = 0;
                 }
-                end = endTime.minus(duration.multipliedBy(searchCount)).minusNanos(1);
-                return start.equals(theBeginningOfTime);
+                return planner.planNext();
             }
 
             @Override
             public TradingInputStream<Bar> perform() throws IOException {
-                log.debug("Performing search between {} and {}", start, end);
-                return tradingSearch.aggregateFromTicks(symbol,
-                                                        period,
-                                                        start,
-                                                        end,
-                                                        barVisitor);
+                log.debug("Performing search between {} and {}", planner.getStart(), planner.getEnd());
+                final TradingInputStream<Bar> bars = tradingSearch.aggregateFromTicks(symbol,
+                                                                                      period,
+                                                                                      planner.getStart(),
+                                                                                      planner.getEnd(),
+                                                                                      barVisitor);
+                return TradingInputStreamMapper.map(bars, bar -> {
+                    foundInWindow++;
+                    return bar;
+                });
             }
         });
     }
@@ -23,14 +23,21 @@ import com.limemojito.trading.model.stream.TradingInputForwardSearchStream;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
-import java.time.Duration;
+import java.time.Clock;
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.Executor;
 
+/**
+ * Extends bar searches forwards in time one UTC day at a time, so a search across a weekend or other data gap only
+ * fetches the days that are walked.  The stream stops at the requested bar count, or once the next day to search
+ * starts after the current time.
+ */
 @Slf4j
 public final class TradingInputStreamForwardsExtender {
 
     /**
-     * Extend searches to complete stream.
+     * Extend searches to complete stream, searching each day on the caller thread.
      *
      * @param symbol        Symbol to search.
      * @param period        Period to search.
@@ -41,22 +48,60 @@ public final class TradingInputStreamForwardsExtender {
      * @return a bar input stream
      * @throws IOException on an io failure.
      */
-    public static TradingInputStream<Bar> extend(String symbol,
-                                                 Bar.Period period,
-                                                 Instant startTime,
-                                                 int barCountAfter,
-                                                 BarVisitor barVisitor,
-                                                 TradingSearch tradingSearch) throws IOException {
+    public static TradingInputForwardSearchStream<Bar> extend(String symbol,
+                                                              Bar.Period period,
+                                                              Instant startTime,
+                                                              int barCountAfter,
+                                                              BarVisitor barVisitor,
+                                                              TradingSearch tradingSearch) throws IOException {
+        return extend(symbol,
+                      period,
+                      startTime,
+                      barCountAfter,
+                      barVisitor,
+                      tradingSearch,
+                      null,
+                      Clock.systemUTC());
+    }
+
+    /**
+     * Extend searches to complete stream.
+     *
+     * @param symbol           Symbol to search.
+     * @param period           Period to search.
+     * @param startTime        Start time to search.
+     * @param barCountAfter    Number of bars to retrieve after start time
+     * @param barVisitor       Visitor to apply
+     * @param tradingSearch    Search engine to use.
+     * @param prefetchExecutor Executor to search the next day on while the current day is consumed, or null to search
+     *                         on the caller thread.  Searches block on cache and network io, so prefer a dedicated
+     *                         executor over the common pool.
+     * @param clock            Clock supplying "now", the end of available data.
+     * @return a bar input stream, reporting {@link TradingInputForwardSearchStream#isEndOfData()} if it reached now.
+     * @throws IOException on an io failure.
+     */
+    public static TradingInputForwardSearchStream<Bar> extend(String symbol,
+                                                              Bar.Period period,
+                                                              Instant startTime,
+                                                              int barCountAfter,
+                                                              BarVisitor barVisitor,
+                                                              TradingSearch tradingSearch,
+                                                              Executor prefetchExecutor,
+                                                              Clock clock) throws IOException {
+        final Instant firstDay = startTime.truncatedTo(ChronoUnit.DAYS);
         return new TradingInputForwardSearchStream<>(barCountAfter, (searchCount) -> {
-            final Duration duration = period.getDuration().multipliedBy(barCountAfter);
-            final Instant start = startTime.plus(duration.multipliedBy(searchCount));
-            final Instant end = startTime.plus(duration.multipliedBy(searchCount + 1)).minusNanos(1);
+            final Instant start = searchCount == 0 ? startTime : firstDay.plus(searchCount, ChronoUnit.DAYS);
+            if (start.isAfter(clock.instant())) {
+                log.debug("Search start {} is after now, no more data", start);
+                return null;
+            }
+            final Instant end = firstDay.plus(searchCount + 1L, ChronoUnit.DAYS).minusNanos(1);
             log.debug("Performing search between {} and {}", start, end);
             return tradingSearch.aggregateFromTicks(symbol,
                                                     period,
                                                     start,
                                                     end,
                                                     barVisitor);
-        });
+        }, prefetchExecutor);
     }
 }
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2011-2024 Lime Mojito Pty Ltd
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.limemojito.trading.model;
+
+import com.limemojito.trading.model.bar.Bar;
+import com.limemojito.trading.model.bar.BarVisitor;
+import com.limemojito.trading.model.stream.TradingInputStreamOpener;
+import com.limemojito.trading.model.stream.TradingInputStreamPublisher;
+import com.limemojito.trading.model.tick.Tick;
+import com.limemojito.trading.model.tick.TickVisitor;
+
+import java.time.Instant;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+
+/**
+ * Adapts {@link TradingSearch} queries to {@link Flow.Publisher}s for non-blocking callers.  Each subscription
+ * performs its own search when the subscriber first requests data, and upstream fetching only proceeds while there
+ * is outstanding demand.  Pulling is performed on the supplied executor, which is owned by the caller.
+ *
+ * @see TradingInputStreamPublisher
+ */
+public final class TradingSearchPublisher {
+    private final TradingSearch search;
+    private final Executor executor;
+
+    /**
+     * Create a publisher adapter.
+     *
+     * @param search   Search engine to query.
+     * @param executor Executor shared by all subscriptions to pull data on.
+     */
+    public TradingSearchPublisher(TradingSearch search, Executor executor) {
+        this.search = search;
+        this.executor = executor;
+    }
+
+    /**
+     * Publish ticks between two instants.
+     *
+     * @param symbol      Symbol to search on.
+     * @param startTime   Start time (inclusive).
+     * @param endTime     End time (inclusive).
+     * @param tickVisitor Visitor to apply as each tick is read.
+     * @return a cold publisher of ticks.
+     * @see TradingSearch#search(String, Instant, Instant, TickVisitor)
+     */
+    public Flow.Publisher<Tick> search(String symbol, Instant startTime, Instant endTime, TickVisitor tickVisitor) {
+        return publish(() -> search.search(symbol, startTime, endTime, tickVisitor));
+    }
+
+    /**
+     * Publish bars aggregated from ticks between two instants.
+     *
+     * @param symbol     Symbol to search on.
+     * @param period     Period to aggregate ticks to.
+     * @param startTime  Start time (inclusive).
+     * @param endTime    End time (inclusive).
+     * @param barVisitor Visitor to apply as each bar is formed.
+     * @return a cold publisher of bars.
+     * @see TradingSearch#aggregateFromTicks(String, Bar.Period, Instant, Instant, BarVisitor)
+     */
+    public Flow.Publisher<Bar> aggregateFromTicks(String symbol,
+                                                  Bar.Period period,
+                                                  Instant startTime,
+                                                  Instant endTime,
+                                                  BarVisitor barVisitor) {
+        return publish(() -> search.aggregateFromTicks(symbol, period, startTime, endTime, barVisitor));
+    }
+
+    /**
+     * Publish a limited count of bars backwards in time.
+     *
+     * @param symbol         Symbol to search on.
+     * @param period         Period to aggregate ticks to.
+     * @param barCountBefore Number of bars to find before the end time.
+     * @param endTime        The time that the bar start instants must be before (exclusive).
+     * @param barVisitor     Visitor to apply as each bar is formed.
+     * @return a cold publisher of bars.
+     * @see TradingSearch#aggregateFromTicks(String, Bar.Period, int, Instant, BarVisitor)
+     */
+    public Flow.Publisher<Bar> aggregateFromTicks(String symbol,
+                                                  Bar.Period period,
+                                                  int barCountBefore,
+                                                  Instant endTime,
+                                                  BarVisitor barVisitor) {
+        return publish(() -> search.aggregateFromTicks(symbol, period, barCountBefore, endTime, barVisitor));
+    }
+
+    /**
+     * Publish a limited count of bars forwards in time.
+     *
+     * @param symbol        Symbol to search on.
+     * @param period        Period to aggregate ticks to.
+     * @param startTime     The time that the bar start instants must be after (inclusive).
+     * @param barCountAfter Number of bars to find after the start time.
+     * @param barVisitor    Visitor to apply as each bar is formed.
+     * @return a cold publisher of bars.
+     * @see TradingSearch#aggregateFromTicks(String, Bar.Period, Instant, int, BarVisitor)
+     */
+    public Flow.Publisher<Bar> aggregateFromTicks(String symbol,
+                                                  Bar.Period period,
+                                                  Instant startTime,
+                                                  int barCountAfter,
+                                                  BarVisitor barVisitor) {
+        return publish(() -> search.aggregateFromTicks(symbol, period, startTime, barCountAfter, barVisitor));
+    }
+
+    private <Model> Flow.Publisher<Model> publish(TradingInputStreamOpener<Model> opener) {
+        return new TradingInputStreamPublisher<>(opener, executor);
+    }
+}
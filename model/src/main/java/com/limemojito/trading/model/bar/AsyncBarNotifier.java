@@ -0,0 +1,354 @@
+/*
+ * Copyright 2011-2024 Lime Mojito Pty Ltd
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.limemojito.trading.model.bar;
+
+import com.limemojito.trading.model.bar.TickBarNotifyingAggregator.BarNotifier;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Delivers bars to subscribers on their own threads so a slow subscriber (a database write, a publish, etc) does not
+ * stall tick aggregation.  Each subscriber has a bounded ring buffer that its delivery thread drains in batches.  When
+ * a subscriber's buffer is full the {@link Backpressure} decides what happens to the producer.
+ * <p>
+ * {@link #flush()} waits until every bar notified before the flush has been delivered, then calls flush on each
+ * subscriber from that subscriber's thread.  Close the notifier to deliver the remaining bars and stop the threads.
+ * Notifying a closed notifier fails with an {@link IllegalStateException}.
+ */
+@Slf4j
+public class AsyncBarNotifier implements BarNotifier, AutoCloseable {
+    private static final int DEFAULT_BATCH_SIZE = 64;
+    private static final long CLOSE_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private final List<Subscription> subscriptions;
+
+    /**
+     * Behaviour when a subscriber's buffer is full.
+     */
+    public enum Backpressure {
+        /**
+         * Block the notifying thread until the subscriber catches up.
+         */
+        BLOCK,
+        /**
+         * Overwrite the oldest undelivered bar.
+         */
+        DROP_OLDEST,
+        /**
+         * Replace an undelivered bar with the same partition key so only the latest bar per stream and symbol is
+         * pending.  Blocks when the buffer is full of different partitions.
+         */
+        COALESCE
+    }
+
+    /**
+     * @param subscribers  notifiers to deliver bars to.
+     * @param backpressure behaviour when a subscriber's buffer is full.
+     * @param capacity     number of bars buffered for each subscriber.
+     */
+    public AsyncBarNotifier(List<BarNotifier> subscribers, Backpressure backpressure, int capacity) {
+        this(subscribers, backpressure, capacity, Math.min(capacity, DEFAULT_BATCH_SIZE));
+    }
+
+    /**
+     * @param subscribers  notifiers to deliver bars to.
+     * @param backpressure behaviour when a subscriber's buffer is full.
+     * @param capacity     number of bars buffered for each subscriber.
+     * @param batchSize    maximum bars taken from the buffer at once for delivery.
+     */
+    public AsyncBarNotifier(List<BarNotifier> subscribers, Backpressure backpressure, int capacity, int batchSize) {
+        if (subscribers.isEmpty()) {
+            throw new IllegalArgumentException("At least one subscriber is required");
+        }
+        if (capacity < 1 || batchSize < 1) {
+            throw new IllegalArgumentException(String.format("Capacity %d and batch size %d must be positive",
+                                                             capacity,
+                                                             batchSize));
+        }
+        this.subscriptions = new ArrayList<>(subscribers.size());
+        for (int i = 0; i < subscribers.size(); i++) {
+            final Subscription subscription = new Subscription(subscribers.get(i), backpressure, capacity, batchSize);
+            subscriptions.add(subscription);
+            subscription.start("bar-notifier-" + i);
+        }
+    }
+
+    /**
+     * @param bar bar to deliver to every subscriber.
+     * @throws IllegalStateException if the notifier has been closed, including while blocked on a full buffer.
+     */
+    @Override
+    public void notify(Bar bar) {
+        for (Subscription subscription : subscriptions) {
+            subscription.put(bar);
+        }
+    }
+
+    @Override
+    public void flush() {
+        for (Subscription subscription : subscriptions) {
+            subscription.flush();
+        }
+    }
+
+    /**
+     * @return the number of bars dropped or coalesced across all subscribers.
+     */
+    public long getDiscardedCount() {
+        long discarded = 0;
+        for (Subscription subscription : subscriptions) {
+            discarded += subscription.getDiscarded();
+        }
+        return discarded;
+    }
+
+    /**
+     * Delivers the bars pending and stops the delivery threads, waiting up to a minute for each subscriber.
+     */
+    @Override
+    public void close() {
+        for (Subscription subscription : subscriptions) {
+            subscription.stop();
+        }
+        try {
+            for (Subscription subscription : subscriptions) {
+                subscription.join(CLOSE_TIMEOUT_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted waiting for bar delivery to stop");
+        }
+    }
+
+    private static final class Subscription implements Runnable {
+        private final BarNotifier subscriber;
+        private final Backpressure backpressure;
+        private final int batchSize;
+        private final Bar[] ring;
+        private final String[] keys;
+        private final Map<String, Long> pendingByKey;
+        private final ReentrantLock lock;
+        private final Condition notEmpty;
+        private final Condition notFull;
+        private final Condition flushed;
+        private long head;
+        private long tail;
+        private long discarded;
+        private long flushTarget;
+        private long flushRequests;
+        private long flushesCompleted;
+        private boolean running;
+        private Thread worker;
+
+        private Subscription(BarNotifier subscriber, Backpressure backpressure, int capacity, int batchSize) {
+            this.subscriber = subscriber;
+            this.backpressure = backpressure;
+            this.batchSize = batchSize;
+            this.ring = new Bar[capacity];
+            this.keys = backpressure == Backpressure.COALESCE ? new String[capacity] : null;
+            this.pendingByKey = backpressure == Backpressure.COALESCE ? new HashMap<>() : null;
+            this.lock = new ReentrantLock();
+            this.notEmpty = lock.newCondition();
+            this.notFull = lock.newCondition();
+            this.flushed = lock.newCondition();
+        }
+
+        private void start(String name) {
+            running = true;
+            worker = new Thread(this, name);
+            worker.setDaemon(true);
+            worker.start();
+        }
+
+        private void put(Bar bar) {
+            lock.lock();
+            try {
+                checkRunning();
+                final String key = keys == null ? null : bar.getPartitionKey();
+                if (key != null && coalesce(key, bar)) {
+                    return;
+                }
+                while (isFull()) {
+                    if (backpressure == Backpressure.DROP_OLDEST) {
+                        ring[index(head)] = null;
+                        head++;
+                        discarded++;
+                    } else {
+                        notFull.awaitUninterruptibly();
+                        checkRunning();
+                    }
+                }
+                ring[index(tail)] = bar;
+                if (key != null) {
+                    keys[index(tail)] = key;
+                    pendingByKey.put(key, tail);
+                }
+                tail++;
+                notEmpty.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void checkRunning() {
+            if (!running) {
+                throw new IllegalStateException("Bar notifier " + worker.getName() + " is closed");
+            }
+        }
+
+        private boolean coalesce(String key, Bar bar) {
+            final Long pending = pendingByKey.get(key);
+            if (pending != null && pending >= head) {
+                ring[index(pending)] = bar;
+                discarded++;
+                return true;
+            }
+            return false;
+        }
+
+        private void flush() {
+            lock.lock();
+            try {
+                final long request = ++flushRequests;
+                flushTarget = tail;
+                notEmpty.signal();
+                while (flushesCompleted < request && running) {
+                    flushed.awaitUninterruptibly();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void stop() {
+            lock.lock();
+            try {
+                running = false;
+                notEmpty.signal();
+                notFull.signalAll();
+                flushed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void join(long timeoutMillis) throws InterruptedException {
+            worker.join(timeoutMillis);
+            if (worker.isAlive()) {
+                lock.lock();
+                try {
+                    log.warn("Bar delivery {} did not stop within {}ms, {} bar(s) undelivered",
+                             worker.getName(),
+                             timeoutMillis,
+                             tail - head);
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+
+        private long getDiscarded() {
+            lock.lock();
+            try {
+                return discarded;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void run() {
+            final List<Bar> batch = new ArrayList<>(batchSize);
+            while (true) {
+                final long flushRequested;
+                lock.lock();
+                try {
+                    while (running && head == tail && flushesCompleted == flushRequests) {
+                        notEmpty.awaitUninterruptibly();
+                    }
+                    if (!running && head == tail) {
+                        break;
+                    }
+                    take(batch);
+                    flushRequested = (flushesCompleted < flushRequests && head >= flushTarget) ? flushRequests : 0;
+                    notFull.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+                deliver(batch);
+                if (flushRequested > 0) {
+                    flushSubscriber(flushRequested);
+                }
+            }
+            log.debug("Bar delivery {} stopped", Thread.currentThread().getName());
+        }
+
+        private void take(List<Bar> batch) {
+            while (head < tail && batch.size() < batchSize) {
+                final int index = index(head);
+                batch.add(ring[index]);
+                ring[index] = null;
+                if (keys != null) {
+                    pendingByKey.remove(keys[index], head);
+                    keys[index] = null;
+                }
+                head++;
+            }
+        }
+
+        private void deliver(List<Bar> batch) {
+            for (Bar bar : batch) {
+                try {
+                    subscriber.notify(bar);
+                } catch (RuntimeException e) {
+                    log.warn("Subscriber failed on bar {} {}: {}", bar.getSymbol(), bar.getStartInstant(), e.getMessage(), e);
+                }
+            }
+            batch.clear();
+        }
+
+        private void flushSubscriber(long flushRequested) {
+            try {
+                subscriber.flush();
+            } catch (RuntimeException e) {
+                log.warn("Subscriber failed to flush: {}", e.getMessage(), e);
+            }
+            lock.lock();
+            try {
+                flushesCompleted = flushRequested;
+                flushed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private boolean isFull() {
+            return tail - head >= ring.length;
+        }
+
+        private int index(long sequence) {
+            return (int) (sequence % ring.length);
+        }
+    }
+}
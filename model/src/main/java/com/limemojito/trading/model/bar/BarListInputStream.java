@@ -46,6 +46,11 @@ public class BarListInputStream implements TradingInputStream<Bar> {
         return delegate.hasNext();
     }
 
+    @Override
+    public int drainTo(Bar[] buffer, int offset, int length) {
+        return delegate.drainTo(buffer, offset, length);
+    }
+
     @Override
     public void close() throws IOException {
         delegate.close();
@@ -33,6 +33,11 @@ import static com.limemojito.trading.model.StreamData.StreamSource.Live;
 import static java.lang.String.format;
 import static java.util.Collections.emptySet;
 
+/**
+ * Aggregates ticks for one stream, symbol and bar period.  The first tick of the bar is bean validated, later ticks
+ * are checked against the same {@link Tick} constraints with primitive comparisons so no allocation is made per tick.
+ * This class is not thread safe, callers sharing an aggregator between threads must synchronize access.
+ */
 public class BarTickStreamAggregator {
 
     private final Validator validator;
@@ -114,7 +119,7 @@ public class BarTickStreamAggregator {
         return bar;
     }
 
-    public synchronized void add(Tick tick) {
+    public void add(Tick tick) {
         checkPreconditions(tick);
         final int value = tick.getBid();
         if (tickVolume == 0) {
@@ -135,7 +140,11 @@ public class BarTickStreamAggregator {
     }
 
     private void checkPreconditions(Tick tick) {
-        validate(tick);
+        if (tickVolume == 0) {
+            validate(tick);
+        } else {
+            checkValues(tick);
+        }
         if (!streamId.equals(tick.getStreamId())) {
             throw new ConstraintViolationException(format("Tick %s %s (%d) is not part of stream %s",
                                                           tick.getSymbol(),
@@ -162,7 +171,7 @@ public class BarTickStreamAggregator {
                                                           getStartMillisecondsUtc()),
                                                    emptySet());
         }
-        if (!tick.getSymbol().equals(symbol)) {
+        if (!symbol.equals(tick.getSymbol())) {
             throw new ConstraintViolationException(format("Tick %s %s (%d) is not matching bar symbol %s",
                                                           tick.getSymbol(),
                                                           tick.getInstant(),
@@ -172,6 +181,38 @@ public class BarTickStreamAggregator {
         }
     }
 
+    /**
+     * The constraints of {@link Tick} not already implied by the stream, symbol and time range checks against the
+     * validated first tick.
+     */
+    private static void checkValues(Tick tick) {
+        if (tick.getAsk() < 1) {
+            throw invalidValue(tick, "ask", tick.getAsk());
+        }
+        if (tick.getBid() < 1) {
+            throw invalidValue(tick, "bid", tick.getBid());
+        }
+        if (tick.getAskVolume() < 0) {
+            throw invalidValue(tick, "ask volume", tick.getAskVolume());
+        }
+        if (tick.getBidVolume() < 0) {
+            throw invalidValue(tick, "bid volume", tick.getBidVolume());
+        }
+        if (tick.getSource() == null) {
+            throw invalidValue(tick, "source", null);
+        }
+    }
+
+    private static ConstraintViolationException invalidValue(Tick tick, String field, Object value) {
+        return new ConstraintViolationException(format("Tick %s %s (%d) has invalid %s %s",
+                                                       tick.getSymbol(),
+                                                       tick.getInstant(),
+                                                       tick.getMillisecondsUtc(),
+                                                       field,
+                                                       value),
+                                                emptySet());
+    }
+
     private <T> void validate(T object) {
         final Set<ConstraintViolation<T>> constraintViolations = validator.validate(object);
         if (!constraintViolations.isEmpty()) {
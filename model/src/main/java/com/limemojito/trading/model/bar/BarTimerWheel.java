@@ -0,0 +1,205 @@
+/*
+ * Copyright 2011-2024 Lime Mojito Pty Ltd
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.limemojito.trading.model.bar;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A hierarchical timer wheel used to close bars by time.  Scheduling and expiry are constant time per entry, with
+ * entries cascading down the levels as time advances rather than being scanned.  There is no removal, callers cancel
+ * lazily by ignoring entries that are no longer current when they expire.
+ * <p>
+ * A wheel created without a start time starts from the first {@link #advance(long, Consumer)}, so it runs on the
+ * caller's clock, which may be a replay or simulated clock rather than the wall clock.
+ * <p>
+ * Not thread safe.
+ *
+ * @param <T> Item type to expire.
+ */
+final class BarTimerWheel<T> {
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+
+    private final long resolutionMillis;
+    private final List<List<Entry<T>>> slots;
+    private final List<Entry<T>> overflow;
+    private List<Entry<T>> due;
+    private final List<Entry<T>> unstarted;
+    private long currentTick;
+    private boolean started;
+    private int size;
+
+    /**
+     * Create a wheel that starts from the time first passed to advance.
+     *
+     * @param resolutionMillis Granularity of expiry.
+     */
+    BarTimerWheel(long resolutionMillis) {
+        if (resolutionMillis <= 0) {
+            throw new IllegalArgumentException("Resolution must be positive " + resolutionMillis);
+        }
+        this.resolutionMillis = resolutionMillis;
+        this.slots = new ArrayList<>(LEVELS * SLOTS);
+        for (int i = 0; i < LEVELS * SLOTS; i++) {
+            slots.add(new ArrayList<>());
+        }
+        this.overflow = new ArrayList<>();
+        this.due = new ArrayList<>();
+        this.unstarted = new ArrayList<>();
+    }
+
+    /**
+     * @param resolutionMillis Granularity of expiry.
+     * @param startMillis      Time the wheel starts from, usually now.
+     */
+    BarTimerWheel(long resolutionMillis, long startMillis) {
+        this(resolutionMillis);
+        start(Math.floorDiv(startMillis, resolutionMillis));
+    }
+
+    /**
+     * @return the number of entries waiting to expire, including lazily cancelled entries.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Schedule an item to expire once time reaches deadline.  Deadlines in the past expire on the next advance, as do
+     * deadlines at or before the first advance of a wheel that has not started.
+     *
+     * @param deadlineMillis Time the item expires at.
+     * @param item           Item to expire.
+     */
+    void schedule(long deadlineMillis, T item) {
+        final long deadlineTick = Math.floorDiv(deadlineMillis + resolutionMillis - 1, resolutionMillis);
+        final Entry<T> entry = new Entry<>(deadlineTick, item);
+        if (!started) {
+            unstarted.add(entry);
+        } else if (deadlineTick <= currentTick) {
+            due.add(entry);
+        } else {
+            place(entry);
+        }
+        size++;
+    }
+
+    /**
+     * Move the wheel to now, passing each expired item to the consumer in approximate deadline order.
+     *
+     * @param nowMillis Current time.
+     * @param expired   Receives the expired items.
+     */
+    void advance(long nowMillis, Consumer<T> expired) {
+        final long targetTick = Math.floorDiv(nowMillis, resolutionMillis);
+        if (!started) {
+            start(targetTick);
+        }
+        if (!due.isEmpty()) {
+            final List<Entry<T>> expiring = due;
+            due = new ArrayList<>();
+            expire(expiring, expired);
+        }
+        while (currentTick < targetTick) {
+            if (size == 0) {
+                currentTick = targetTick;
+                return;
+            }
+            currentTick++;
+            cascade();
+            expire(slots.get((int) (currentTick & SLOT_MASK)), expired);
+        }
+    }
+
+    private void start(long startTick) {
+        started = true;
+        currentTick = startTick;
+        for (Entry<T> entry : unstarted) {
+            if (entry.deadlineTick <= currentTick) {
+                due.add(entry);
+            } else {
+                place(entry);
+            }
+        }
+        unstarted.clear();
+    }
+
+    private void cascade() {
+        // highest level first so entries can fall through several levels in one tick.
+        if ((currentTick & levelMask(LEVELS)) == 0) {
+            replace(overflow);
+        }
+        for (int level = LEVELS - 1; level > 0; level--) {
+            if ((currentTick & levelMask(level)) == 0) {
+                replace(slots.get(level * SLOTS + slotIndex(currentTick, level)));
+            }
+        }
+    }
+
+    private void replace(List<Entry<T>> slot) {
+        if (slot.isEmpty()) {
+            return;
+        }
+        final List<Entry<T>> moving = new ArrayList<>(slot);
+        slot.clear();
+        for (Entry<T> entry : moving) {
+            place(entry);
+        }
+    }
+
+    private void place(Entry<T> entry) {
+        for (int level = 0; level < LEVELS; level++) {
+            final int higherShift = SLOT_BITS * (level + 1);
+            if ((entry.deadlineTick >> higherShift) == (currentTick >> higherShift)) {
+                slots.get(level * SLOTS + slotIndex(entry.deadlineTick, level)).add(entry);
+                return;
+            }
+        }
+        overflow.add(entry);
+    }
+
+    private void expire(List<Entry<T>> expiring, Consumer<T> expired) {
+        for (Entry<T> entry : expiring) {
+            size--;
+            expired.accept(entry.item);
+        }
+        expiring.clear();
+    }
+
+    private static int slotIndex(long tick, int level) {
+        return (int) ((tick >> (SLOT_BITS * level)) & SLOT_MASK);
+    }
+
+    private static long levelMask(int level) {
+        return (1L << (SLOT_BITS * level)) - 1;
+    }
+
+    private static final class Entry<T> {
+        private final long deadlineTick;
+        private final T item;
+
+        private Entry(long deadlineTick, T item) {
+            this.deadlineTick = deadlineTick;
+            this.item = item;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2011-2024 Lime Mojito Pty Ltd
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.limemojito.trading.model.bar;
+
+import com.limemojito.trading.model.tick.Tick;
+
+import jakarta.validation.Validator;
+import java.time.Duration;
+
+/**
+ * A thread safe tick to bar aggregator for ticks arriving from more than one thread, such as a live feed.  Access to
+ * the single writer aggregator is serialised.
+ *
+ * @see TickBarNotifyingAggregator
+ */
+public class ConcurrentTickBarNotifyingAggregator extends TickBarNotifyingAggregator {
+
+    public ConcurrentTickBarNotifyingAggregator(Validator validator,
+                                                BarNotifier barNotifier,
+                                                Bar.Period aggregationPeriod) {
+        super(validator, barNotifier, aggregationPeriod);
+    }
+
+    /**
+     * Creates an aggregator that can also close bars by time.
+     *
+     * @param validator         to validate objects
+     * @param barNotifier       notified of each bar completed
+     * @param aggregationPeriod period to aggregate to
+     * @param closeGrace        time after a bar end to wait for late ticks before the bar is closed by time.
+     * @see TimedBarCloser
+     */
+    public ConcurrentTickBarNotifyingAggregator(Validator validator,
+                                                BarNotifier barNotifier,
+                                                Bar.Period aggregationPeriod,
+                                                Duration closeGrace) {
+        super(validator, barNotifier, aggregationPeriod, closeGrace);
+    }
+
+    @Override
+    public synchronized void loadStart() {
+        super.loadStart();
+    }
+
+    @Override
+    public synchronized void add(Tick tick) {
+        super.add(tick);
+    }
+
+    @Override
+    public synchronized void closeExpired(long nowMillis) {
+        super.closeExpired(nowMillis);
+    }
+
+    @Override
+    public synchronized void loadEnd() {
+        super.loadEnd();
+    }
+}
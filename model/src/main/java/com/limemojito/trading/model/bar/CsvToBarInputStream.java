@@ -0,0 +1,88 @@
+/*
+ * Copyright 2011-2024 Lime Mojito Pty Ltd
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.limemojito.trading.model.bar;
+
+import com.limemojito.trading.model.TradingInputStream;
+import com.limemojito.trading.model.stream.SegmentedTradingInputStream;
+import com.limemojito.trading.model.stream.TradingCsvInputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static com.limemojito.trading.model.StreamData.REALTIME_UUID;
+import static com.limemojito.trading.model.StreamData.StreamSource.Historical;
+
+/**
+ * Reads bars from the format written by {@link BarInputStreamToCsv}:
+ * <code>
+ * Epoch Time (UTC),Symbol,Period,Open,High,Low,Close
+ * 2018-07-05 05:00:00,EURUSD,M5,116573,116580,116560,116568
+ * </code>
+ * Bars are created as historical data on the realtime stream, as they are when aggregated from Dukascopy ticks.
+ */
+public class CsvToBarInputStream extends TradingCsvInputStream<Bar> {
+
+    public CsvToBarInputStream(InputStream inputStream) {
+        this(inputStream, BarVisitor.NO_VISITOR);
+    }
+
+    public CsvToBarInputStream(InputStream inputStream, BarVisitor visitor) {
+        super(inputStream, visitor);
+    }
+
+    public CsvToBarInputStream(ByteBuffer data, BarVisitor visitor) {
+        super(data, visitor);
+    }
+
+    /**
+     * Read a CSV file as memory mapped splits.  A parallel {@link TradingInputStream#stream()} parses the splits on
+     * several threads while keeping file order.
+     *
+     * @param path    CSV file to read.
+     * @param splits  number of splits to parse independently.
+     * @param visitor visitor applied to each bar, must be thread safe for parallel use.
+     * @return a bar stream over the file.
+     * @throws IOException on a failure mapping the file.
+     */
+    public static TradingInputStream<Bar> fromFile(Path path, int splits, BarVisitor visitor) throws IOException {
+        final List<Supplier<TradingInputStream<Bar>>> segments = mapLineAlignedSplits(path, splits)
+                .stream()
+                .<Supplier<TradingInputStream<Bar>>>map(data -> () -> new CsvToBarInputStream(data, visitor))
+                .toList();
+        return new SegmentedTradingInputStream<>(segments, bar -> true);
+    }
+
+    @Override
+    protected Bar parseRecord() throws IOException {
+        return Bar.builder()
+                  .streamId(REALTIME_UUID)
+                  .startMillisecondsUtc(dateTimeUtcField())
+                  .symbol(stringField())
+                  .period(Bar.Period.valueOf(stringField()))
+                  .open(intField())
+                  .high(intField())
+                  .low(intField())
+                  .close(intField())
+                  .source(Historical)
+                  .build();
+    }
+}
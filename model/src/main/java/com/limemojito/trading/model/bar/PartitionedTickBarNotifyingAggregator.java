@@ -0,0 +1,259 @@
+/*
+ * Copyright 2011-2024 Lime Mojito Pty Ltd
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.limemojito.trading.model.bar;
+
+import com.limemojito.trading.model.bar.TickBarNotifyingAggregator.BarNotifier;
+import com.limemojito.trading.model.tick.Tick;
+import lombok.extern.slf4j.Slf4j;
+
+import jakarta.validation.Validator;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Aggregates ticks on several worker lanes so live aggregation scales across cores.  Each tick is routed by its stream
+ * and symbol (the partition key) to one lane, so ticks of a partition keep their order as long as each partition is
+ * added from one thread at a time.  Each lane owns a lock free queue, a worker thread and a single writer
+ * {@link TickBarNotifyingAggregator}.  Bars from all lanes are sent to the one notifier, serialised, and the notifier is
+ * flushed once when all lanes have finished a load.
+ * <p>
+ * Lane queues are unbounded, close this aggregator to stop the workers.
+ *
+ * @see TickBarNotifyingAggregator
+ */
+@Slf4j
+public class PartitionedTickBarNotifyingAggregator implements AutoCloseable {
+    private final BarNotifier barNotifier;
+    private final List<Lane> lanes;
+    private final AtomicReference<RuntimeException> failure;
+
+    /**
+     * @param validator         to validate objects
+     * @param barNotifier       notified of each bar completed, from the lane threads.
+     * @param aggregationPeriod period to aggregate to
+     * @param laneCount         number of worker lanes, usually the number of cores to use.
+     */
+    public PartitionedTickBarNotifyingAggregator(Validator validator,
+                                                 BarNotifier barNotifier,
+                                                 Bar.Period aggregationPeriod,
+                                                 int laneCount) {
+        this(barNotifier, laneCount, notifier -> new TickBarNotifyingAggregator(validator, notifier, aggregationPeriod));
+    }
+
+    /**
+     * Creates lanes that can also close bars by time.
+     *
+     * @param validator         to validate objects
+     * @param barNotifier       notified of each bar completed, from the lane threads.
+     * @param aggregationPeriod period to aggregate to
+     * @param closeGrace        time after a bar end to wait for late ticks before the bar is closed by time.
+     * @param laneCount         number of worker lanes, usually the number of cores to use.
+     * @see #closeExpired(long)
+     */
+    public PartitionedTickBarNotifyingAggregator(Validator validator,
+                                                 BarNotifier barNotifier,
+                                                 Bar.Period aggregationPeriod,
+                                                 Duration closeGrace,
+                                                 int laneCount) {
+        this(barNotifier,
+             laneCount,
+             notifier -> new TickBarNotifyingAggregator(validator, notifier, aggregationPeriod, closeGrace));
+    }
+
+    private PartitionedTickBarNotifyingAggregator(BarNotifier barNotifier,
+                                                  int laneCount,
+                                                  Function<BarNotifier, TickBarNotifyingAggregator> factory) {
+        if (laneCount < 1) {
+            throw new IllegalArgumentException("Lane count must be at least 1 but was " + laneCount);
+        }
+        this.barNotifier = barNotifier;
+        this.failure = new AtomicReference<>();
+        final BarNotifier laneNotifier = this::notifyBar;
+        this.lanes = new ArrayList<>(laneCount);
+        for (int i = 0; i < laneCount; i++) {
+            final Lane lane = new Lane(factory.apply(laneNotifier), failure);
+            lanes.add(lane);
+            lane.start("tick-bar-lane-" + i);
+        }
+    }
+
+    public void loadStart() {
+        for (Lane lane : lanes) {
+            lane.submit((Consumer<TickBarNotifyingAggregator>) TickBarNotifyingAggregator::loadStart);
+        }
+    }
+
+    /**
+     * Queues a tick on the lane for its partition.
+     *
+     * @param tick tick to aggregate.
+     */
+    public void add(Tick tick) {
+        final int hash = tick.getStreamId().hashCode() * 31 + tick.getSymbol().hashCode();
+        lanes.get(Math.floorMod(hash, lanes.size())).submit(tick);
+    }
+
+    /**
+     * Closes bars by time on every lane.
+     *
+     * @param nowMillis the current time in epoch milliseconds.
+     * @see TickBarNotifyingAggregator#closeExpired(long)
+     */
+    public void closeExpired(long nowMillis) {
+        for (Lane lane : lanes) {
+            lane.submit((Consumer<TickBarNotifyingAggregator>) aggregator -> aggregator.closeExpired(nowMillis));
+        }
+    }
+
+    /**
+     * Waits for every lane to process its queued ticks and send the bars being aggregated, then flushes the notifier.
+     *
+     * @throws IllegalStateException if a lane failed to process a tick, or the wait was interrupted.
+     */
+    public void loadEnd() {
+        final CountDownLatch drained = new CountDownLatch(lanes.size());
+        for (Lane lane : lanes) {
+            lane.submit((Consumer<TickBarNotifyingAggregator>) aggregator -> {
+                try {
+                    aggregator.loadEnd();
+                } finally {
+                    drained.countDown();
+                }
+            });
+        }
+        try {
+            drained.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for lanes to drain", e);
+        }
+        synchronized (barNotifier) {
+            barNotifier.flush();
+        }
+        final RuntimeException laneFailure = failure.getAndSet(null);
+        if (laneFailure != null) {
+            throw new IllegalStateException("Lane failed to aggregate ticks", laneFailure);
+        }
+    }
+
+    /**
+     * Stops the lanes once their queued ticks are processed.  Call {@link #loadEnd()} first to send the bars still
+     * being aggregated.
+     */
+    @Override
+    public void close() {
+        for (Lane lane : lanes) {
+            lane.stop();
+        }
+        try {
+            for (Lane lane : lanes) {
+                lane.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted waiting for lanes to stop");
+        }
+    }
+
+    private void notifyBar(Bar bar) {
+        synchronized (barNotifier) {
+            barNotifier.notify(bar);
+        }
+    }
+
+    /**
+     * A single writer worker.  Queue items are either ticks or commands to run against the lane's aggregator.
+     */
+    private static final class Lane implements Runnable {
+        private final Queue<Object> queue;
+        private final TickBarNotifyingAggregator aggregator;
+        private final AtomicReference<RuntimeException> failure;
+        private volatile boolean running;
+        private volatile boolean parked;
+        private Thread worker;
+
+        private Lane(TickBarNotifyingAggregator aggregator, AtomicReference<RuntimeException> failure) {
+            this.queue = new ConcurrentLinkedQueue<>();
+            this.aggregator = aggregator;
+            this.failure = failure;
+        }
+
+        private void start(String name) {
+            running = true;
+            worker = new Thread(this, name);
+            worker.setDaemon(true);
+            worker.start();
+        }
+
+        private void submit(Object item) {
+            queue.offer(item);
+            if (parked) {
+                LockSupport.unpark(worker);
+            }
+        }
+
+        private void stop() {
+            running = false;
+            LockSupport.unpark(worker);
+        }
+
+        private void join() throws InterruptedException {
+            worker.join();
+        }
+
+        @Override
+        public void run() {
+            while (running || !queue.isEmpty()) {
+                final Object item = queue.poll();
+                if (item == null) {
+                    parked = true;
+                    // recheck after publishing parked so a concurrent submit is not missed.
+                    if (running && queue.isEmpty()) {
+                        LockSupport.park(this);
+                    }
+                    parked = false;
+                } else {
+                    process(item);
+                }
+            }
+            log.debug("Lane {} stopped", Thread.currentThread().getName());
+        }
+
+        @SuppressWarnings("unchecked")
+        private void process(Object item) {
+            try {
+                if (item instanceof Tick) {
+                    aggregator.add((Tick) item);
+                } else {
+                    ((Consumer<TickBarNotifyingAggregator>) item).accept(aggregator);
+                }
+            } catch (RuntimeException e) {
+                log.error("Lane failed to process {}: {}", item, e.getMessage(), e);
+                failure.compareAndSet(null, e);
+            }
+        }
+    }
+}
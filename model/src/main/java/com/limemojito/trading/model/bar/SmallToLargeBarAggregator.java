@@ -18,6 +18,7 @@
 package com.limemojito.trading.model.bar;
 
 import com.limemojito.trading.model.StreamData;
+import com.limemojito.trading.model.TradingInputStream;
 import com.limemojito.trading.model.bar.Bar.Period;
 import lombok.RequiredArgsConstructor;
 
@@ -28,14 +29,25 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
+import java.util.UUID;
 
-import static com.limemojito.trading.model.StreamData.REALTIME_UUID;
+import static com.limemojito.trading.model.bar.BarVisitor.NO_VISITOR;
 import static java.lang.String.format;
 
+/**
+ * Rolls smaller bars up into larger period bars.  Generated bars keep the stream id of the smaller bars.
+ */
 @RequiredArgsConstructor
 public class SmallToLargeBarAggregator {
     private final Validator validator;
 
+    /**
+     * Rolls up a list of bars into larger bars.
+     *
+     * @param targetPeriod larger period to roll up to.
+     * @param smallerBars  bars of one symbol and period in descending time order.
+     * @return the larger bars in descending time order, with the stream id of the smaller bars.
+     */
     public List<Bar> aggregate(Period targetPeriod, List<Bar> smallerBars) {
         if (smallerBars.isEmpty()) {
             return Collections.emptyList();
@@ -46,10 +58,38 @@ public class SmallToLargeBarAggregator {
         return aggregateTwoPlusBars(targetPeriod, smallerBars, smallerBars.get(0));
     }
 
+    /**
+     * Rolls up an ascending bar stream, such as a search result, into larger bars without buffering.
+     *
+     * @param targetPeriod larger period to roll up to.
+     * @param smallerBars  bars of one symbol and period in ascending time order.
+     * @return a stream of larger bars in ascending time order, with the stream id of the smaller bars.
+     * @see SmallToLargeBarInputStream
+     */
+    public TradingInputStream<Bar> aggregate(Period targetPeriod, TradingInputStream<Bar> smallerBars) {
+        return aggregate(targetPeriod, NO_VISITOR, smallerBars);
+    }
+
+    /**
+     * Rolls up an ascending bar stream, such as a search result, into larger bars without buffering.
+     *
+     * @param targetPeriod larger period to roll up to.
+     * @param barVisitor   visit to occur on each bar generated.
+     * @param smallerBars  bars of one symbol and period in ascending time order.
+     * @return a stream of larger bars in ascending time order, with the stream id of the smaller bars.
+     * @see SmallToLargeBarInputStream
+     */
+    public TradingInputStream<Bar> aggregate(Period targetPeriod,
+                                             BarVisitor barVisitor,
+                                             TradingInputStream<Bar> smallerBars) {
+        return new SmallToLargeBarInputStream(validator, targetPeriod, barVisitor, smallerBars);
+    }
+
     private List<Bar> aggregateOneBar(Period targetPeriod, Bar first) {
-        validateNextBar(targetPeriod, first.getSymbol(), first.getPeriod(), null, first);
+        validateNextBar(targetPeriod, first, null, first, false);
         long barStartMillis = Bar.startMilliSecondsFor(targetPeriod, first.getStartMillisecondsUtc());
-        return List.of(createBar(first.getSymbol(),
+        return List.of(createBar(first.getStreamId(),
+                                 first.getSymbol(),
                                  targetPeriod,
                                  barStartMillis,
                                  first.getOpen(),
@@ -73,10 +113,18 @@ public class SmallToLargeBarAggregator {
         int high = Integer.MIN_VALUE;
         int low = Integer.MAX_VALUE;
         for (Bar nextBar : smallerBars) {
-            validateNextBar(targetPeriod, first.getSymbol(), first.getPeriod(), lastBar, nextBar);
+            validateNextBar(targetPeriod, first, lastBar, nextBar, false);
             if (isNewStartBar(barStartMillis, lastBar, nextBar)) {
                 // open should be the last bar in the new period.
-                aggregated.add(createBar(symbol, targetPeriod, barStartMillis, open, high, low, close, source));
+                aggregated.add(createBar(first.getStreamId(),
+                                         symbol,
+                                         targetPeriod,
+                                         barStartMillis,
+                                         open,
+                                         high,
+                                         low,
+                                         close,
+                                         source));
                 // close should be the first bar in the new period as we are descending.
                 barStartMillis = Bar.startMilliSecondsFor(targetPeriod, nextBar.getStartMillisecondsUtc());
                 close = nextBar.getClose();
@@ -92,7 +140,15 @@ public class SmallToLargeBarAggregator {
             lastBar = nextBar;
         }
         // close it off.
-        aggregated.add(createBar(symbol, targetPeriod, barStartMillis, open, high, low, close, source));
+        aggregated.add(createBar(first.getStreamId(),
+                                         symbol,
+                                         targetPeriod,
+                                         barStartMillis,
+                                         open,
+                                         high,
+                                         low,
+                                         close,
+                                         source));
         return aggregated;
     }
 
@@ -100,30 +156,47 @@ public class SmallToLargeBarAggregator {
         return (lastBar != null) && barStartMillis > nextBar.getEndMillisecondsUtc();
     }
 
-    private void validateNextBar(Period targetPeriod, String symbol, Period smallPeriod, Bar lastBar, Bar smallerBar) {
-        if (!symbol.equals(smallerBar.getSymbol())) {
+    /**
+     * Checks that a smaller bar can be rolled up with the first bar of the roll up.
+     *
+     * @param targetPeriod larger period to roll up to.
+     * @param first        first bar of the roll up.
+     * @param lastBar      bar before this one, or null for the first bar.
+     * @param smallerBar   bar to check.
+     * @param ascending    true if the bars must be in ascending time order, otherwise descending.
+     */
+    static void validateNextBar(Period targetPeriod, Bar first, Bar lastBar, Bar smallerBar, boolean ascending) {
+        if (!first.getSymbol().equals(smallerBar.getSymbol())) {
             throw new IllegalArgumentException(format(
                     "BarAggregator does not support bars with different symbols.  First was %s",
-                    symbol));
+                    first.getSymbol()));
         }
         if (targetPeriod.compareTo(smallerBar.getPeriod()) <= 0) {
             throw new IllegalArgumentException(format(
-                    "BarAggregator does not support bars with larger periods %s that the target %s.",
+                    "BarAggregator does not support bars with larger periods %s than the target %s.",
                     smallerBar.getPeriod(),
                     targetPeriod));
         }
-        if (smallPeriod.compareTo(smallerBar.getPeriod()) != 0) {
+        if (first.getPeriod() != smallerBar.getPeriod()) {
             throw new IllegalArgumentException(format(
                     "BarAggregator does not support bars with mixed periods.  First was %s.",
-                    smallPeriod));
+                    first.getPeriod()));
         }
-        if (lastBar != null && lastBar.getStartMillisecondsUtc() < smallerBar.getStartMillisecondsUtc()) {
-            throw new IllegalArgumentException("BarAggregator requires bars sorted in descending time");
+        if (lastBar != null) {
+            final long lastStart = lastBar.getStartMillisecondsUtc();
+            final long nextStart = smallerBar.getStartMillisecondsUtc();
+            if (ascending && lastStart >= nextStart) {
+                throw new IllegalArgumentException("BarAggregator requires bars sorted in ascending time");
+            }
+            if (!ascending && lastStart < nextStart) {
+                throw new IllegalArgumentException("BarAggregator requires bars sorted in descending time");
+            }
         }
     }
 
     @SuppressWarnings("ParameterNumber")
-    private Bar createBar(String symbol,
+    private Bar createBar(UUID streamId,
+                          String symbol,
                           Period targetPeriod,
                           long barStartMillis,
                           int open, int high,
@@ -132,7 +205,7 @@ public class SmallToLargeBarAggregator {
                           StreamData.StreamSource source) {
         // we have a new bar
         final Bar bar = Bar.builder()
-                           .streamId(REALTIME_UUID)
+                           .streamId(streamId)
                            .symbol(symbol)
                            .period(targetPeriod)
                            .startMillisecondsUtc(barStartMillis)
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2011-2024 Lime Mojito Pty Ltd
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.limemojito.trading.model.bar;
+
+import com.limemojito.trading.model.StreamData;
+import com.limemojito.trading.model.TradingInputStream;
+import com.limemojito.trading.model.bar.Bar.Period;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+import java.io.IOException;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.UUID;
+
+
+/**
+ * Rolls an ascending stream of smaller bars up into larger period bars as each larger period completes.  Only the bar
+ * being aggregated is held, so memory use is constant and the stream can be chained directly onto search results.
+ * Generated bars keep the stream id of the smaller bars.
+ *
+ * @see SmallToLargeBarAggregator for descending lists.
+ */
+public class SmallToLargeBarInputStream implements TradingInputStream<Bar> {
+    private final Validator validator;
+    private final Period targetPeriod;
+    private final BarVisitor barVisitor;
+    private final TradingInputStream<Bar> smallerBars;
+    private Bar nextBar;
+    private Bar firstBar;
+    private Bar lastBar;
+    private long barStartMillis;
+    private long barEndMillis;
+    private int open;
+    private int high;
+    private int low;
+    private int close;
+    private StreamData.StreamSource source;
+    private boolean aggregating;
+
+    /**
+     * @param validator    to validate generated bars
+     * @param targetPeriod larger period to roll up to
+     * @param barVisitor   visit to occur on each bar generated.
+     * @param smallerBars  bars of one symbol and period in ascending time order.
+     */
+    public SmallToLargeBarInputStream(Validator validator,
+                                      Period targetPeriod,
+                                      BarVisitor barVisitor,
+                                      TradingInputStream<Bar> smallerBars) {
+        this.validator = validator;
+        this.targetPeriod = targetPeriod;
+        this.barVisitor = barVisitor;
+        this.smallerBars = smallerBars;
+    }
+
+    @Override
+    public Bar next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("No more bars");
+        }
+        final Bar bar = nextBar;
+        nextBar = null;
+        return bar;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (nextBar == null && smallerBars.hasNext()) {
+            add(smallerBars.next());
+        }
+        if (nextBar == null && aggregating) {
+            // close it off.
+            nextBar = createBar();
+            aggregating = false;
+        }
+        return nextBar != null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        smallerBars.close();
+    }
+
+    private void add(Bar smallerBar) {
+        validateNextBar(smallerBar);
+        if (aggregating && smallerBar.getStartMillisecondsUtc() > barEndMillis) {
+            nextBar = createBar();
+            aggregating = false;
+        }
+        if (!aggregating) {
+            barStartMillis = Bar.startMilliSecondsFor(targetPeriod, smallerBar.getStartMillisecondsUtc());
+            barEndMillis = Bar.endMilliSecondsFor(targetPeriod, barStartMillis);
+            open = smallerBar.getOpen();
+            high = Integer.MIN_VALUE;
+            low = Integer.MAX_VALUE;
+            source = smallerBar.getSource();
+            aggregating = true;
+        }
+        high = Math.max(high, smallerBar.getHigh());
+        low = Math.min(low, smallerBar.getLow());
+        close = smallerBar.getClose();
+        source = StreamData.StreamSource.aggregate(source, smallerBar.getSource());
+        lastBar = smallerBar;
+    }
+
+    private void validateNextBar(Bar smallerBar) {
+        if (firstBar == null) {
+            firstBar = smallerBar;
+        }
+        SmallToLargeBarAggregator.validateNextBar(targetPeriod, firstBar, lastBar, smallerBar, true);
+    }
+
+    private Bar createBar() {
+        final UUID streamId = firstBar.getStreamId();
+        final Bar bar = Bar.builder()
+                           .streamId(streamId)
+                           .symbol(firstBar.getSymbol())
+                           .period(targetPeriod)
+                           .startMillisecondsUtc(barStartMillis)
+                           .source(source)
+                           .open(open)
+                           .close(close)
+                           .high(high)
+                           .low(low)
+                           .build();
+        final Set<ConstraintViolation<Bar>> validate = validator.validate(bar);
+        if (!validate.isEmpty()) {
+            throw new ConstraintViolationException(validate);
+        }
+        barVisitor.visit(bar);
+        return bar;
+    }
+}
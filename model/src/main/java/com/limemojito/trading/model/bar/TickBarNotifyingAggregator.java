@@ -21,17 +21,39 @@ import com.limemojito.trading.model.tick.Tick;
 import lombok.extern.slf4j.Slf4j;
 
 import jakarta.validation.Validator;
-import java.util.Iterator;
+import java.time.Duration;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Aggregates an ordered tick stream into bars, notifying as each bar completes.  Ticks are partitioned by stream and
+ * symbol without building a partition key, and the last partition used is remembered as ticks usually arrive in runs
+ * for the same symbol.
+ * <p>
+ * By default a bar is sent when the next tick for its partition crosses the period boundary, or at {@link #loadEnd()}.
+ * When created with a close grace, {@link #closeExpired(long)} also sends bars once the clock passes the bar end plus
+ * the grace, so quiet symbols are not delayed until their next tick.  Ticks arriving for a bar already closed by time
+ * are dropped.  Open bars are tracked in a {@link BarTimerWheel} so closing by time does not scan the open bars.  The
+ * wheel runs on the times passed to closeExpired, so a replay or simulated clock behind the wall clock is supported.
+ * <p>
+ * This class is a single writer aggregator and is not thread safe.  Use {@link ConcurrentTickBarNotifyingAggregator}
+ * when ticks are added from more than one thread, or when closing by time from a timer thread.
+ *
+ * @see TimedBarCloser
+ */
 @Slf4j
 public class TickBarNotifyingAggregator {
-    private final Map<String, BarTickStreamAggregator> streamSymbolToBars;
+    private static final long WHEEL_RESOLUTION_MILLIS = 100L;
+    private final Map<UUID, Map<String, Partition>> streamToSymbolBars;
     private final BarNotifier barNotifier;
     private final Bar.Period aggPeriod;
+    private final long aggPeriodMilliseconds;
     private final Validator validator;
+    private final long closeGraceMillis;
+    private final BarTimerWheel<Partition> closeWheel;
+    private Partition lastPartition;
+    private boolean loading;
 
     public interface BarNotifier {
         void notify(Bar bar);
@@ -43,84 +65,181 @@ public class TickBarNotifyingAggregator {
     public TickBarNotifyingAggregator(Validator validator,
                                       BarNotifier barNotifier,
                                       Bar.Period aggregationPeriod) {
-        this.streamSymbolToBars = new ConcurrentHashMap<>();
+        this(validator, barNotifier, aggregationPeriod, -1L);
+    }
+
+    /**
+     * Creates an aggregator that can also close bars by time.
+     *
+     * @param validator         to validate objects
+     * @param barNotifier       notified of each bar completed
+     * @param aggregationPeriod period to aggregate to
+     * @param closeGrace        time after a bar end to wait for late ticks before the bar is closed by time.
+     * @see #closeExpired(long)
+     */
+    public TickBarNotifyingAggregator(Validator validator,
+                                      BarNotifier barNotifier,
+                                      Bar.Period aggregationPeriod,
+                                      Duration closeGrace) {
+        this(validator, barNotifier, aggregationPeriod, assertGrace(closeGrace).toMillis());
+    }
+
+    private TickBarNotifyingAggregator(Validator validator,
+                                       BarNotifier barNotifier,
+                                       Bar.Period aggregationPeriod,
+                                       long closeGraceMillis) {
+        this.streamToSymbolBars = new HashMap<>();
         this.barNotifier = barNotifier;
         this.aggPeriod = aggregationPeriod;
+        this.aggPeriodMilliseconds = aggregationPeriod.getDurationMilliseconds();
         this.validator = validator;
+        this.closeGraceMillis = closeGraceMillis;
+        this.closeWheel = closeGraceMillis < 0 ? null : new BarTimerWheel<>(WHEEL_RESOLUTION_MILLIS);
     }
 
     public void loadStart() {
         // pause any timing processes, etc for the bulk load.
+        loading = true;
     }
 
     public void add(Tick tick) {
-        final BarTickStreamAggregator aggregator = fetchAndSendPrevious(tick, aggPeriod);
-        log.trace("Adding tick to aggregator");
-        aggregator.add(tick);
+        Partition partition = lastPartition;
+        if (partition == null || !partition.isFor(tick)) {
+            partition = fetchPartition(tick);
+        }
+        final long tickMillis = tick.getMillisecondsUtc();
+        if (tickMillis > partition.aggregator.getEndMillisecondsUtc()) {
+            // as we are assumed ordered processing, the previous bar is now DONE.
+            if (!partition.closed) {
+                send(partition.aggregator.toBar());
+            }
+            open(partition, tick);
+        } else if (partition.closed) {
+            log.warn("Dropping late tick {} {} for bar closed at {}",
+                     tick.getSymbol(),
+                     tick.getInstant(),
+                     partition.aggregator.getEndDateInstant());
+            return;
+        }
+        partition.aggregator.add(tick);
+        lastPartition = partition;
+    }
+
+    /**
+     * Sends the bars whose end plus close grace has passed.  Does nothing during a load.
+     *
+     * @param nowMillis the current time in epoch milliseconds.
+     * @throws IllegalStateException if this aggregator was not created with a close grace.
+     */
+    public void closeExpired(long nowMillis) {
+        if (closeWheel == null) {
+            throw new IllegalStateException("Aggregator was not created with a close grace");
+        }
+        if (loading) {
+            return;
+        }
+        closeWheel.advance(nowMillis, partition -> closeIfExpired(partition, nowMillis));
     }
 
     public void loadEnd() {
-        final Iterator<Map.Entry<String, BarTickStreamAggregator>> iterator = streamSymbolToBars.entrySet().iterator();
-        while (iterator.hasNext()) {
-            log.trace("Writing last bar that was being aggregated.");
-            final Map.Entry<String, BarTickStreamAggregator> entry = iterator.next();
-            final Bar bar = entry.getValue().toBar();
-            send(bar);
-            iterator.remove();
+        for (Map<String, Partition> symbolToBars : streamToSymbolBars.values()) {
+            for (Partition partition : symbolToBars.values()) {
+                if (!partition.closed) {
+                    log.trace("Writing last bar that was being aggregated.");
+                    // closed so that any pending timed close is ignored.
+                    partition.closed = true;
+                    send(partition.aggregator.toBar());
+                }
+            }
         }
+        streamToSymbolBars.clear();
+        lastPartition = null;
+        loading = false;
         barNotifier.flush();
     }
 
-    private BarTickStreamAggregator fetchAndSendPrevious(Tick tick, Bar.Period period) {
-        final String streamSymbol = tick.getPartitionKey();
-        final long timeIndex = tick.getMillisecondsUtc() / aggPeriod.getDurationMilliseconds();
-        log.trace("Fetching {} aggregator for {}:{}", aggPeriod, streamSymbol, timeIndex);
-        BarTickStreamAggregator aggregator = streamSymbolToBars.computeIfAbsent(streamSymbol,
-                                                                                key -> newAggregator(tick.getStreamId(),
-                                                                                                     tick.getSymbol(),
-                                                                                                     timeIndex,
-                                                                                                     period));
-        // check that this tick is past the current aggregator.
-        if (tick.getMillisecondsUtc() > aggregator.getEndMillisecondsUtc()) {
-            aggregator = createNewAggregatorFor(period,
-                                                timeIndex,
-                                                tick,
-                                                aggregator);
+    private void closeIfExpired(Partition partition, long nowMillis) {
+        partition.scheduled = false;
+        if (partition.closed) {
+            // lazy cancellation, the partition was flushed or closed since scheduling.
+            return;
         }
-        return aggregator;
+        if (closeDeadline(partition) <= nowMillis) {
+            partition.closed = true;
+            send(partition.aggregator.toBar());
+        } else {
+            // the partition moved on to a later bar, or the caller's clock is behind the wheel, so wait again.
+            schedule(partition);
+        }
+    }
+
+    private Partition fetchPartition(Tick tick) {
+        final Map<String, Partition> symbolToBars = streamToSymbolBars.computeIfAbsent(tick.getStreamId(),
+                                                                                    key -> new HashMap<>());
+        Partition partition = symbolToBars.get(tick.getSymbol());
+        if (partition == null) {
+            partition = new Partition();
+            open(partition, tick);
+            symbolToBars.put(tick.getSymbol(), partition);
+        }
+        return partition;
     }
 
-    private BarTickStreamAggregator createNewAggregatorFor(Bar.Period period,
-                                                           long timeIndex,
-                                                           Tick tick,
-                                                           BarTickStreamAggregator replacing) {
-        // as we are assumed ordered processing, the previous bar is now DONE.
-        final BarTickStreamAggregator currentAggregator = newAggregator(tick.getStreamId(),
-                                                                        tick.getSymbol(),
-                                                                        timeIndex,
-                                                                        period);
-        if (streamSymbolToBars.replace(tick.getPartitionKey(), replacing, currentAggregator)) {
-            send(replacing.toBar());
-            return currentAggregator;
+    private void open(Partition partition, Tick tick) {
+        partition.aggregator = newAggregator(tick);
+        partition.closed = false;
+        if (closeWheel != null && !loading && !partition.scheduled) {
+            schedule(partition);
         }
-        // replace failed, so we're at the supplied replacing.
-        return replacing;
+    }
+
+    private void schedule(Partition partition) {
+        partition.scheduled = true;
+        closeWheel.schedule(closeDeadline(partition), partition);
+    }
+
+    private long closeDeadline(Partition partition) {
+        return partition.aggregator.getEndMillisecondsUtc() + closeGraceMillis + 1;
     }
 
     private void send(Bar bar) {
-        final String partitionKey = bar.getPartitionKey();
-        log.trace("Writing bar {}", partitionKey);
+        log.trace("Writing bar {} {}", bar.getSymbol(), bar.getPeriod());
         barNotifier.notify(bar);
     }
 
-    private BarTickStreamAggregator newAggregator(UUID streamId, String symbol, long timeIndex, Bar.Period period) {
-        final long startMillisecondsUtc = timeIndex * period.getDurationMilliseconds();
+    private BarTickStreamAggregator newAggregator(Tick tick) {
+        final long startMillisecondsUtc = (tick.getMillisecondsUtc() / aggPeriodMilliseconds) * aggPeriodMilliseconds;
         final BarTickStreamAggregator aggregator = new BarTickStreamAggregator(validator,
-                                                                               streamId,
-                                                                               symbol,
+                                                                               tick.getStreamId(),
+                                                                               tick.getSymbol(),
                                                                                startMillisecondsUtc,
-                                                                               period);
-        log.debug("Created new aggregator {}: {} {} @ {}", streamId, symbol, period, aggregator.getStartDateInstant());
+                                                                               aggPeriod);
+        log.debug("Created new aggregator {}: {} {} @ {}",
+                  tick.getStreamId(),
+                  tick.getSymbol(),
+                  aggPeriod,
+                  aggregator.getStartDateInstant());
         return aggregator;
     }
+
+    private static Duration assertGrace(Duration closeGrace) {
+        if (closeGrace.isNegative()) {
+            throw new IllegalArgumentException("Close grace must not be negative " + closeGrace);
+        }
+        return closeGrace;
+    }
+
+    /**
+     * The open bar for a stream and symbol.  A partition has at most one entry in the close wheel, moved on to the
+     * current bar when it expires.
+     */
+    private static final class Partition {
+        private BarTickStreamAggregator aggregator;
+        private boolean closed;
+        private boolean scheduled;
+
+        private boolean isFor(Tick tick) {
+            return aggregator.getSymbol().equals(tick.getSymbol()) && aggregator.getStreamId().equals(tick.getStreamId());
+        }
+    }
 }
@@ -22,18 +22,25 @@ import com.limemojito.trading.model.tick.Tick;
 
 import jakarta.validation.Validator;
 import java.io.IOException;
-import java.util.Iterator;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.NoSuchElementException;
 
 import static com.limemojito.trading.model.bar.BarVisitor.NO_VISITOR;
 
 /**
- * Note that this class aggregates ticks in memory to generate the bars.
+ * Streams bars from a tick stream as each bar period closes.  Ticks are only read as far as required to complete the
+ * next bar, so memory use is bounded by the number of stream/symbol partitions in the tick stream rather than the
+ * length of the range being converted.
  *
- * @see TickToBarList
+ * @see TickBarNotifyingAggregator
+ * @see TickToBarList for an in memory conversion.
  */
 public class TickToBarInputStream implements TradingInputStream<Bar> {
-    private final TickToBarList delegate;
-    private Iterator<Bar> converted;
+    private final TradingInputStream<Tick> tickInputStream;
+    private final TickBarNotifyingAggregator aggregator;
+    private final Deque<Bar> completedBars;
+    private boolean ticksExhausted;
 
     /**
      * @param validator       to validate objects
@@ -56,33 +63,40 @@ public class TickToBarInputStream implements TradingInputStream<Bar> {
                                 Bar.Period period,
                                 BarVisitor barVisitor,
                                 TradingInputStream<Tick> tickInputStream) {
-        delegate = new TickToBarList(validator, period, tickInputStream, barVisitor);
+        this.tickInputStream = tickInputStream;
+        this.completedBars = new ArrayDeque<>();
+        this.aggregator = new TickBarNotifyingAggregator(validator, bar -> {
+            completedBars.add(bar);
+            barVisitor.visit(bar);
+        }, period);
+        this.aggregator.loadStart();
     }
 
-
     @Override
     public Bar next() {
-        lazyConvert();
-        return converted.next();
+        if (!hasNext()) {
+            throw new NoSuchElementException("No more bars");
+        }
+        return completedBars.poll();
     }
 
     @Override
     public boolean hasNext() {
-        lazyConvert();
-        return converted.hasNext();
+        while (completedBars.isEmpty() && !ticksExhausted) {
+            if (tickInputStream.hasNext()) {
+                aggregator.add(tickInputStream.next());
+            } else {
+                // flushes the bars still being aggregated.
+                aggregator.loadEnd();
+                ticksExhausted = true;
+            }
+        }
+        return !completedBars.isEmpty();
     }
 
     @Override
     public void close() throws IOException {
-        delegate.close();
-        if (converted != null) {
-            converted = null;
-        }
-    }
-
-    private void lazyConvert() {
-        if (converted == null) {
-            converted = delegate.convert().iterator();
-        }
+        tickInputStream.close();
+        completedBars.clear();
     }
 }
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2011-2024 Lime Mojito Pty Ltd
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.limemojito.trading.model.bar;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives {@link TickBarNotifyingAggregator#closeExpired(long)} from a clock so that live bars are sent at the bar end
+ * plus grace even when no further ticks arrive.  Closing stops when this closer is closed.  Note the scheduler is
+ * owned by the caller.
+ */
+@Slf4j
+public class TimedBarCloser implements AutoCloseable {
+    private final ScheduledFuture<?> closing;
+
+    /**
+     * @param aggregator aggregator created with a close grace.
+     * @param scheduler  scheduler to run the closing on.
+     * @param interval   how often to check for bars to close.
+     * @param clock      clock to close bars by.
+     */
+    public TimedBarCloser(ConcurrentTickBarNotifyingAggregator aggregator,
+                          ScheduledExecutorService scheduler,
+                          Duration interval,
+                          Clock clock) {
+        final long intervalMillis = interval.toMillis();
+        if (intervalMillis <= 0) {
+            throw new IllegalArgumentException("Interval must be at least a millisecond " + interval);
+        }
+        this.closing = scheduler.scheduleAtFixedRate(() -> closeExpired(aggregator, clock),
+                                                     intervalMillis,
+                                                     intervalMillis,
+                                                     TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() {
+        closing.cancel(false);
+    }
+
+    private static void closeExpired(ConcurrentTickBarNotifyingAggregator aggregator, Clock clock) {
+        try {
+            aggregator.closeExpired(clock.millis());
+        } catch (RuntimeException e) {
+            // keep the schedule running, a failed notification should not stop later bars closing.
+            log.warn("Failed to close expired bars: {}", e.getMessage(), e);
+        }
+    }
+}
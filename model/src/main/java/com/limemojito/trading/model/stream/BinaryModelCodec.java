@@ -0,0 +1,192 @@
+/*
+ * Copyright 2011-2024 Lime Mojito Pty Ltd
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.limemojito.trading.model.stream;
+
+import com.limemojito.trading.model.StreamData;
+import com.limemojito.trading.model.bar.Bar;
+import com.limemojito.trading.model.tick.Tick;
+import lombok.Value;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Record layout of the binary transport for one model type.  Stream identity fields that repeat for every record in
+ * a physical stream are written once in a dictionary entry, and each record refers to its entry by index.
+ *
+ * @param <Model> type of model encoded.
+ * @see TradingBinaryStreams
+ */
+abstract class BinaryModelCodec<Model> {
+    static final BinaryModelCodec<Tick> TICK = new TickCodec();
+    static final BinaryModelCodec<Bar> BAR = new BarCodec();
+
+    private final byte type;
+
+    private BinaryModelCodec(byte type) {
+        this.type = type;
+    }
+
+    byte getType() {
+        return type;
+    }
+
+    abstract Key key(Model model);
+
+    /**
+     * Whether the model has the stream identity of the key, compared field by field so no key is created.
+     *
+     * @param model model to compare.
+     * @param key   key to compare with, may be null.
+     * @return true if the key identifies the model's stream.
+     */
+    abstract boolean isKeyOf(Model model, Key key);
+
+    abstract long time(Model model);
+
+    abstract void writeFields(Model model, DataOutput output) throws IOException;
+
+    abstract Model readFields(Key key, long time, DataInput input) throws IOException;
+
+    /**
+     * Stream identity shared by many records.  Period is null for ticks.
+     */
+    @Value
+    static class Key {
+        UUID streamId;
+        String symbol;
+        StreamData.StreamSource source;
+        Bar.Period period;
+
+        boolean matches(UUID otherStreamId,
+                        String otherSymbol,
+                        StreamData.StreamSource otherSource,
+                        Bar.Period otherPeriod) {
+            return source == otherSource
+                    && period == otherPeriod
+                    && Objects.equals(symbol, otherSymbol)
+                    && Objects.equals(streamId, otherStreamId);
+        }
+
+        void write(DataOutput output) throws IOException {
+            output.writeLong(streamId.getMostSignificantBits());
+            output.writeLong(streamId.getLeastSignificantBits());
+            output.writeUTF(symbol);
+            output.writeUTF(source.name());
+            output.writeUTF(period == null ? "" : period.name());
+        }
+
+        static Key read(DataInput input) throws IOException {
+            final UUID streamId = new UUID(input.readLong(), input.readLong());
+            final String symbol = input.readUTF();
+            final StreamData.StreamSource source = StreamData.StreamSource.valueOf(input.readUTF());
+            final String period = input.readUTF();
+            return new Key(streamId, symbol, source, period.isEmpty() ? null : Bar.Period.valueOf(period));
+        }
+    }
+
+    private static final class TickCodec extends BinaryModelCodec<Tick> {
+        private TickCodec() {
+            super((byte) 1);
+        }
+
+        @Override
+        Key key(Tick tick) {
+            return new Key(tick.getStreamId(), tick.getSymbol(), tick.getSource(), null);
+        }
+
+        @Override
+        boolean isKeyOf(Tick tick, Key key) {
+            return key != null && key.matches(tick.getStreamId(), tick.getSymbol(), tick.getSource(), null);
+        }
+
+        @Override
+        long time(Tick tick) {
+            return tick.getMillisecondsUtc();
+        }
+
+        @Override
+        void writeFields(Tick tick, DataOutput output) throws IOException {
+            output.writeInt(tick.getAsk());
+            output.writeInt(tick.getBid());
+            output.writeFloat(tick.getAskVolume());
+            output.writeFloat(tick.getBidVolume());
+        }
+
+        @Override
+        Tick readFields(Key key, long time, DataInput input) throws IOException {
+            return Tick.builder()
+                       .millisecondsUtc(time)
+                       .streamId(key.getStreamId())
+                       .symbol(key.getSymbol())
+                       .source(key.getSource())
+                       .ask(input.readInt())
+                       .bid(input.readInt())
+                       .askVolume(input.readFloat())
+                       .bidVolume(input.readFloat())
+                       .build();
+        }
+    }
+
+    private static final class BarCodec extends BinaryModelCodec<Bar> {
+        private BarCodec() {
+            super((byte) 2);
+        }
+
+        @Override
+        Key key(Bar bar) {
+            return new Key(bar.getStreamId(), bar.getSymbol(), bar.getSource(), bar.getPeriod());
+        }
+
+        @Override
+        boolean isKeyOf(Bar bar, Key key) {
+            return key != null && key.matches(bar.getStreamId(), bar.getSymbol(), bar.getSource(), bar.getPeriod());
+        }
+
+        @Override
+        long time(Bar bar) {
+            return bar.getStartMillisecondsUtc();
+        }
+
+        @Override
+        void writeFields(Bar bar, DataOutput output) throws IOException {
+            output.writeInt(bar.getOpen());
+            output.writeInt(bar.getHigh());
+            output.writeInt(bar.getLow());
+            output.writeInt(bar.getClose());
+        }
+
+        @Override
+        Bar readFields(Key key, long time, DataInput input) throws IOException {
+            return Bar.builder()
+                      .startMillisecondsUtc(time)
+                      .streamId(key.getStreamId())
+                      .symbol(key.getSymbol())
+                      .source(key.getSource())
+                      .period(key.getPeriod())
+                      .open(input.readInt())
+                      .high(input.readInt())
+                      .low(input.readInt())
+                      .close(input.readInt())
+                      .build();
+        }
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2011-2024 Lime Mojito Pty Ltd
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.limemojito.trading.model.stream;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.limemojito.trading.model.TradingInputStream;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Reads newline delimited JSON in chunks cut at line boundaries.  Up to a fixed number of chunks are parsed ahead on
+ * the executor while models are delivered in file order on the calling thread, where the visitor is also applied.
+ *
+ * @param <Model> type of model in each line.
+ */
+@Slf4j
+final class ChunkedNdJsonInputStream<Model> implements TradingInputStream<Model> {
+    static final int DEFAULT_CHUNK_SIZE = 1024 * 1024;
+    private static final byte NEW_LINE = '\n';
+    private final InputStream input;
+    private final ObjectReader reader;
+    private final TradingInputStreamMapper.Visitor<Model> visitor;
+    private final Executor executor;
+    private final int chunksInFlight;
+    private final int chunkSize;
+    private final ArrayDeque<CompletableFuture<List<Model>>> parsing = new ArrayDeque<>();
+    private byte[] carry = new byte[0];
+    private boolean endOfInput;
+    private List<Model> current = Collections.emptyList();
+    private int index;
+
+    ChunkedNdJsonInputStream(InputStream input,
+                             ObjectReader reader,
+                             TradingInputStreamMapper.Visitor<Model> visitor,
+                             Executor executor,
+                             int chunksInFlight,
+                             int chunkSize) {
+        if (chunksInFlight < 1 || chunkSize < 1) {
+            throw new IllegalArgumentException("Chunks in flight and chunk size must be at least 1");
+        }
+        this.input = input;
+        this.reader = reader;
+        this.visitor = visitor;
+        this.executor = executor;
+        this.chunksInFlight = chunksInFlight;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (index >= current.size()) {
+            submitChunks();
+            if (parsing.isEmpty()) {
+                return false;
+            }
+            current = await(parsing.remove());
+            index = 0;
+        }
+        return true;
+    }
+
+    @Override
+    public Model next() throws NoSuchElementException {
+        if (!hasNext()) {
+            throw new NoSuchElementException("No more models");
+        }
+        final Model next = current.get(index++);
+        visitor.visit(next);
+        return next;
+    }
+
+    @Override
+    public void close() throws IOException {
+        parsing.forEach(chunk -> chunk.cancel(false));
+        parsing.clear();
+        input.close();
+    }
+
+    private void submitChunks() {
+        while (!endOfInput && parsing.size() < chunksInFlight) {
+            final byte[] chunk = readChunk();
+            if (chunk.length > 0) {
+                parsing.add(CompletableFuture.supplyAsync(() -> parse(chunk), executor));
+            }
+        }
+    }
+
+    /**
+     * Reads at least chunk size bytes, or to the end of input, and cuts after the last complete line.  A line longer
+     * than the chunk grows the chunk until the line ends.
+     */
+    private byte[] readChunk() {
+        try {
+            byte[] buffer = Arrays.copyOf(carry, Math.max(chunkSize, carry.length + chunkSize));
+            int length = carry.length;
+            int searchFrom = length;
+            while (true) {
+                final int read = input.readNBytes(buffer, length, buffer.length - length);
+                length += read;
+                if (length < buffer.length) {
+                    endOfInput = true;
+                    carry = new byte[0];
+                    return Arrays.copyOf(buffer, length);
+                }
+                final int lastNewLine = lastNewLine(buffer, searchFrom, length);
+                if (lastNewLine >= 0) {
+                    carry = Arrays.copyOfRange(buffer, lastNewLine + 1, length);
+                    return lastNewLine + 1 == length ? buffer : Arrays.copyOf(buffer, lastNewLine + 1);
+                }
+                searchFrom = length;
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private List<Model> parse(byte[] chunk) {
+        try (MappingIterator<Model> models = reader.readValues(chunk)) {
+            return models.readAll();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static int lastNewLine(byte[] buffer, int from, int to) {
+        for (int i = to - 1; i >= from; i--) {
+            if (buffer[i] == NEW_LINE) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static <Model> List<Model> await(CompletableFuture<List<Model>> chunk) {
+        try {
+            return chunk.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
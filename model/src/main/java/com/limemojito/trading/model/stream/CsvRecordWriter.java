@@ -0,0 +1,224 @@
+/*
+ * Copyright 2011-2024 Lime Mojito Pty Ltd
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.limemojito.trading.model.stream;
+
+import org.apache.commons.csv.CSVFormat;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDate;
+
+import static java.time.format.DateTimeFormatter.ISO_LOCAL_DATE;
+
+/**
+ * Formats CSV records straight into a reusable character buffer, producing the same text as {@link CSVFormat#EXCEL}
+ * with the "2018-07-05 05:00:01.08" date time format used by {@link TradingCsvStream}.  Epoch milliseconds and int
+ * fields are formatted without creating date or boxed objects, and the date text is reused while records stay on
+ * the same UTC day.  Strings that may need quoting are handed to commons csv.
+ * <p>
+ * Not thread safe.  Call {@link #flush()} before writing to the underlying writer by other means.
+ */
+public final class CsvRecordWriter {
+    private static final int BUFFER_SIZE = 16 * 1024;
+    private static final int MAX_RECORD_SIZE = 1024;
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+    private static final int MILLIS_PER_SECOND = 1000;
+    private static final int MILLIS_PER_MINUTE = 60 * MILLIS_PER_SECOND;
+    private static final int MILLIS_PER_HOUR = 60 * MILLIS_PER_MINUTE;
+    private static final int DECIMAL = 10;
+    private final CSVFormat format = CSVFormat.EXCEL;
+    private final StringBuilder quoted = new StringBuilder();
+    private final Writer output;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private boolean newRecord = true;
+    private long cachedEpochDay = Long.MIN_VALUE;
+    private String cachedDate;
+
+    public CsvRecordWriter(Writer output) {
+        this.output = output;
+    }
+
+    /**
+     * Append a UTC date time as "yyyy-MM-dd HH:mm:ss" followed by the milliseconds with trailing zeros removed, if
+     * any.  This matches ISO_LOCAL_DATE + " " + ISO_LOCAL_TIME for the same instant.
+     *
+     * @param epochMillisUtc milliseconds since the epoch.
+     * @return this writer.
+     * @throws IOException on a failure writing a full buffer.
+     */
+    public CsvRecordWriter dateTimeUtc(long epochMillisUtc) throws IOException {
+        startField();
+        final long epochDay = Math.floorDiv(epochMillisUtc, MILLIS_PER_DAY);
+        if (epochDay != cachedEpochDay) {
+            cachedDate = ISO_LOCAL_DATE.format(LocalDate.ofEpochDay(epochDay));
+            cachedEpochDay = epochDay;
+        }
+        appendChars(cachedDate);
+        int millisOfDay = (int) Math.floorMod(epochMillisUtc, MILLIS_PER_DAY);
+        buffer[position++] = ' ';
+        appendTwoDigits(millisOfDay / MILLIS_PER_HOUR);
+        millisOfDay %= MILLIS_PER_HOUR;
+        buffer[position++] = ':';
+        appendTwoDigits(millisOfDay / MILLIS_PER_MINUTE);
+        millisOfDay %= MILLIS_PER_MINUTE;
+        buffer[position++] = ':';
+        appendTwoDigits(millisOfDay / MILLIS_PER_SECOND);
+        int millis = millisOfDay % MILLIS_PER_SECOND;
+        if (millis != 0) {
+            buffer[position++] = '.';
+            int divisor = MILLIS_PER_SECOND / DECIMAL;
+            while (millis != 0) {
+                buffer[position++] = (char) ('0' + millis / divisor);
+                millis %= divisor;
+                divisor /= DECIMAL;
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Append an int as {@link Integer#toString(int)} would.
+     *
+     * @param value value to append.
+     * @return this writer.
+     * @throws IOException on a failure writing a full buffer.
+     */
+    public CsvRecordWriter field(int value) throws IOException {
+        startField();
+        long remaining = value;
+        if (remaining < 0) {
+            buffer[position++] = '-';
+            remaining = -remaining;
+        }
+        final int start = position;
+        do {
+            buffer[position++] = (char) ('0' + remaining % DECIMAL);
+            remaining /= DECIMAL;
+        } while (remaining != 0);
+        for (int low = start, high = position - 1; low < high; low++, high--) {
+            final char swap = buffer[low];
+            buffer[low] = buffer[high];
+            buffer[high] = swap;
+        }
+        return this;
+    }
+
+    /**
+     * Append a float as {@link Float#toString(float)} would.
+     *
+     * @param value value to append.
+     * @return this writer.
+     * @throws IOException on a failure writing a full buffer.
+     */
+    public CsvRecordWriter field(float value) throws IOException {
+        startField();
+        appendChars(Float.toString(value));
+        return this;
+    }
+
+    /**
+     * Append a string, quoting it as commons csv would if required.  Null is written as commons csv writes null.
+     *
+     * @param value value to append.
+     * @return this writer.
+     * @throws IOException on a failure writing a full buffer.
+     */
+    public CsvRecordWriter field(String value) throws IOException {
+        if (isPlain(value)) {
+            startField();
+            appendChars(value);
+        } else {
+            quoted.setLength(0);
+            format.print(value, quoted, newRecord);
+            newRecord = false;
+            appendChars(quoted.toString());
+        }
+        return this;
+    }
+
+    /**
+     * End the current record with the CSV record separator.
+     *
+     * @throws IOException on a failure writing a full buffer.
+     */
+    public void endRecord() throws IOException {
+        appendChars(format.getRecordSeparator());
+        newRecord = true;
+        if (position > BUFFER_SIZE - MAX_RECORD_SIZE) {
+            flush();
+        }
+    }
+
+    /**
+     * Write any buffered records to the underlying writer, without flushing the writer itself.
+     *
+     * @throws IOException on a write failure.
+     */
+    public void flush() throws IOException {
+        if (position > 0) {
+            output.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+
+    private void startField() throws IOException {
+        ensureCapacity(MAX_RECORD_SIZE);
+        if (!newRecord) {
+            buffer[position++] = format.getDelimiterString().charAt(0);
+        }
+        newRecord = false;
+    }
+
+    private void appendTwoDigits(int value) {
+        buffer[position++] = (char) ('0' + value / DECIMAL);
+        buffer[position++] = (char) ('0' + value % DECIMAL);
+    }
+
+    private void appendChars(String value) throws IOException {
+        ensureCapacity(value.length());
+        if (value.length() > BUFFER_SIZE) {
+            output.write(value);
+        } else {
+            value.getChars(0, value.length(), buffer, position);
+            position += value.length();
+        }
+    }
+
+    private void ensureCapacity(int length) throws IOException {
+        if (position + length > BUFFER_SIZE) {
+            flush();
+        }
+    }
+
+    /**
+     * Letters and digits only, which commons csv never quotes.
+     */
+    private static boolean isPlain(String value) {
+        if (value == null || value.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (!(c >= 'A' && c <= 'Z' || c >= 'a' && c <= 'z' || c >= '0' && c <= '9')) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
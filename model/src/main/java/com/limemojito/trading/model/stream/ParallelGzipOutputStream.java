@@ -0,0 +1,176 @@
+/*
+ * Copyright 2011-2024 Lime Mojito Pty Ltd
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.limemojito.trading.model.stream;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzip output where fixed size blocks are compressed as independent gzip members on an executor.  The caller keeps
+ * formatting block n+1 while earlier blocks are compressed on other cores, and compressed blocks are written to the
+ * target in order.  Concatenated members are a valid gzip file, readable by {@link java.util.zip.GZIPInputStream} and
+ * standard tools, and each member can be decompressed on its own.
+ * <p>
+ * Wrap the output of {@link TradingCsvStream} or {@link TradingInputJsonStreams} to compress large exports in
+ * parallel.  {@link #flush()} writes completed blocks only, blocks are cut at the block size or on close.  Not
+ * thread safe.
+ */
+public class ParallelGzipOutputStream extends OutputStream {
+    /**
+     * Default uncompressed block size.
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 1024 * 1024;
+    private final OutputStream target;
+    private final Executor executor;
+    private final int blockSize;
+    private final int blocksInFlight;
+    private final Deque<CompletableFuture<byte[]>> inFlight = new ArrayDeque<>();
+    private byte[] block;
+    private int position;
+    private boolean closed;
+
+    /**
+     * Creates a parallel gzip stream with the default block size and two blocks in flight per available processor.
+     *
+     * @param target   output to write compressed blocks to, closed when this stream is closed.
+     * @param executor executor to compress blocks on.
+     */
+    public ParallelGzipOutputStream(OutputStream target, Executor executor) {
+        this(target, executor, DEFAULT_BLOCK_SIZE, 2 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a parallel gzip stream.
+     *
+     * @param target         output to write compressed blocks to, closed when this stream is closed.
+     * @param executor       executor to compress blocks on.
+     * @param blockSize      uncompressed size of each block.
+     * @param blocksInFlight maximum blocks compressing before the writer waits, bounding memory use.
+     */
+    public ParallelGzipOutputStream(OutputStream target, Executor executor, int blockSize, int blocksInFlight) {
+        if (blockSize < 1 || blocksInFlight < 1) {
+            throw new IllegalArgumentException("Block size and blocks in flight must be positive");
+        }
+        this.target = target;
+        this.executor = executor;
+        this.blockSize = blockSize;
+        this.blocksInFlight = blocksInFlight;
+        this.block = new byte[blockSize];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        if (position == blockSize) {
+            submitBlock();
+        }
+        block[position++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        ensureOpen();
+        while (length > 0) {
+            if (position == blockSize) {
+                submitBlock();
+            }
+            final int copy = Math.min(length, blockSize - position);
+            System.arraycopy(bytes, offset, block, position, copy);
+            position += copy;
+            offset += copy;
+            length -= copy;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        while (!inFlight.isEmpty() && inFlight.peekFirst().isDone()) {
+            writeHead();
+        }
+        target.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try (OutputStream closing = target) {
+            if (position > 0) {
+                submitBlock();
+            }
+            while (!inFlight.isEmpty()) {
+                writeHead();
+            }
+            closing.flush();
+        } finally {
+            inFlight.forEach(future -> future.cancel(false));
+            inFlight.clear();
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+
+    private void submitBlock() throws IOException {
+        while (inFlight.size() >= blocksInFlight) {
+            writeHead();
+        }
+        final byte[] full = block;
+        final int length = position;
+        inFlight.addLast(CompletableFuture.supplyAsync(() -> compress(full, length), executor));
+        block = new byte[blockSize];
+        position = 0;
+    }
+
+    private void writeHead() throws IOException {
+        final byte[] compressed;
+        try {
+            compressed = inFlight.peekFirst().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw new IOException("Block compression failed", e.getCause());
+        }
+        inFlight.removeFirst();
+        target.write(compressed);
+    }
+
+    private static byte[] compress(byte[] data, int length) {
+        final ByteArrayOutputStream compressed = new ByteArrayOutputStream(length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed, Math.min(length, 64 * 1024) + 1)) {
+            gzip.write(data, 0, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright 2011-2024 Lime Mojito Pty Ltd
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.limemojito.trading.model.stream;
+
+import com.limemojito.trading.model.TradingInputStream;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * A stream made of independent time ordered segments, such as the hours of a tick search or the days of a bar search.
+ * Iterating behaves as {@link TradingInputStream#combine(Iterator, Predicate)}.  The {@link #spliterator()} splits on
+ * segment boundaries so a parallel {@link #stream()} opens and decodes segments on several threads while keeping
+ * encounter order.  When the size of every segment is known up front the spliterator is also SIZED.
+ * <p>
+ * Segments may be opened concurrently by a parallel stream, so suppliers and any visitors must be thread safe.
+ *
+ * @param <Model> type of data in the segments.
+ */
+@Slf4j
+public class SegmentedTradingInputStream<Model> implements TradingInputStream<Model> {
+    private final List<Supplier<TradingInputStream<Model>>> segments;
+    private final Predicate<Model> filter;
+    private final long[] segmentSizes;
+    private final Set<TradingInputStream<Model>> openSegments;
+    private TradingInputStream<Model> sequential;
+
+    /**
+     * @param segments segments in time order, opened on demand.
+     * @param filter   filter to apply to the segment data.
+     */
+    public SegmentedTradingInputStream(List<Supplier<TradingInputStream<Model>>> segments, Predicate<Model> filter) {
+        this(segments, filter, null);
+    }
+
+    /**
+     * @param segments     segments in time order, opened on demand.
+     * @param filter       filter to apply to the segment data.
+     * @param segmentSizes number of items each segment will return after filtering, or null if unknown.
+     */
+    public SegmentedTradingInputStream(List<Supplier<TradingInputStream<Model>>> segments,
+                                       Predicate<Model> filter,
+                                       long[] segmentSizes) {
+        if (segmentSizes != null && segmentSizes.length != segments.size()) {
+            throw new IllegalArgumentException(String.format("%d segment sizes for %d segments",
+                                                             segmentSizes.length,
+                                                             segments.size()));
+        }
+        this.segments = List.copyOf(segments);
+        this.filter = filter;
+        this.segmentSizes = segmentSizes == null ? null : segmentSizes.clone();
+        this.openSegments = ConcurrentHashMap.newKeySet();
+    }
+
+    @Override
+    public Model next() throws NoSuchElementException {
+        return sequential().next();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return sequential().hasNext();
+    }
+
+    @Override
+    public int drainTo(Model[] buffer, int offset, int length) {
+        return sequential().drainTo(buffer, offset, length);
+    }
+
+    @Override
+    public int drainTo(Consumer<? super Model> consumer, int max) {
+        return sequential().drainTo(consumer, max);
+    }
+
+    @Override
+    public Spliterator<Model> spliterator() {
+        return new SegmentSpliterator(0, segments.size());
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (sequential != null) {
+            sequential.close();
+        }
+        for (TradingInputStream<Model> segment : openSegments) {
+            closeSegment(segment);
+        }
+    }
+
+    private TradingInputStream<Model> sequential() {
+        if (sequential == null) {
+            final Iterator<Supplier<TradingInputStream<Model>>> suppliers = segments.iterator();
+            sequential = TradingInputStream.combine(new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return suppliers.hasNext();
+                }
+
+                @Override
+                public TradingInputStream<Model> next() {
+                    return suppliers.next().get();
+                }
+            }, filter);
+        }
+        return sequential;
+    }
+
+    private void closeSegment(TradingInputStream<Model> segment) {
+        openSegments.remove(segment);
+        try {
+            segment.close();
+        } catch (IOException e) {
+            log.warn("Error closing segment {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Covers the segments from (inclusive) to (exclusive).  Only unopened segments are split off.
+     */
+    private final class SegmentSpliterator implements Spliterator<Model> {
+        private int from;
+        private final int to;
+        private TradingInputStream<Model> current;
+        private long currentRemaining;
+
+        private SegmentSpliterator(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Model> action) {
+            while (true) {
+                if (current == null) {
+                    if (from >= to) {
+                        return false;
+                    }
+                    currentRemaining = segmentSizes == null ? 0 : segmentSizes[from];
+                    current = segments.get(from++).get();
+                    openSegments.add(current);
+                }
+                while (current.hasNext()) {
+                    final Model next = current.next();
+                    if (filter.test(next)) {
+                        currentRemaining--;
+                        action.accept(next);
+                        return true;
+                    }
+                }
+                closeSegment(current);
+                current = null;
+            }
+        }
+
+        @Override
+        public Spliterator<Model> trySplit() {
+            if (current != null || to - from < 2) {
+                return null;
+            }
+            final int middle = (from + to) >>> 1;
+            final SegmentSpliterator prefix = new SegmentSpliterator(from, middle);
+            from = middle;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            if (segmentSizes == null) {
+                return Long.MAX_VALUE;
+            }
+            long size = current == null ? 0 : currentRemaining;
+            for (int i = from; i < to; i++) {
+                size += segmentSizes[i];
+            }
+            return size;
+        }
+
+        @Override
+        public int characteristics() {
+            final int characteristics = ORDERED | NONNULL;
+            return segmentSizes == null ? characteristics : characteristics | SIZED | SUBSIZED;
+        }
+    }
+}
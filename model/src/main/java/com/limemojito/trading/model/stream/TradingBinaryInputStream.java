@@ -0,0 +1,132 @@
+/*
+ * Copyright 2011-2024 Lime Mojito Pty Ltd
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.limemojito.trading.model.stream;
+
+import com.limemojito.trading.model.TradingInputStream;
+import lombok.SneakyThrows;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static com.limemojito.trading.model.stream.TradingBinaryStreams.BUFFER_SIZE;
+import static com.limemojito.trading.model.stream.TradingBinaryStreams.FORMAT_VERSION;
+import static com.limemojito.trading.model.stream.TradingBinaryStreams.MAGIC;
+import static com.limemojito.trading.model.stream.TradingBinaryStreams.TAG_BASE_TIME;
+import static com.limemojito.trading.model.stream.TradingBinaryStreams.TAG_DICTIONARY;
+import static com.limemojito.trading.model.stream.TradingBinaryStreams.TAG_END;
+import static com.limemojito.trading.model.stream.TradingBinaryStreams.TAG_RECORD;
+
+/**
+ * Reads models from the binary transport format.  A stream that ends without the end marker fails with an
+ * EOFException rather than silently returning partial data.
+ *
+ * @param <Model> Tick or Bar.
+ * @see TradingBinaryStreams
+ */
+public class TradingBinaryInputStream<Model> implements TradingInputStream<Model> {
+    private final BinaryModelCodec<Model> codec;
+    private final DataInputStream input;
+    private final TradingInputStreamMapper.Visitor<Model> visitor;
+    private final List<BinaryModelCodec.Key> dictionary = new ArrayList<>();
+    private long time;
+    private boolean ended;
+    private Model peek;
+
+    TradingBinaryInputStream(BinaryModelCodec<Model> codec,
+                             InputStream inputStream,
+                             TradingInputStreamMapper.Visitor<Model> visitor) throws IOException {
+        this.codec = codec;
+        this.visitor = visitor;
+        this.input = new DataInputStream(new BufferedInputStream(inputStream, BUFFER_SIZE));
+        final byte type = readHeader(input);
+        if (type != codec.getType()) {
+            throw new IOException(String.format("Binary stream holds model type %d not %d", type, codec.getType()));
+        }
+    }
+
+    @Override
+    @SneakyThrows
+    public boolean hasNext() {
+        if (peek == null && !ended) {
+            peek = readRecord();
+        }
+        return peek != null;
+    }
+
+    @Override
+    public Model next() throws NoSuchElementException {
+        if (!hasNext()) {
+            throw new NoSuchElementException("No more binary records");
+        }
+        final Model next = peek;
+        peek = null;
+        visitor.visit(next);
+        return next;
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+
+    private static byte readHeader(DataInputStream input) throws IOException {
+        final int magic = input.readInt();
+        if (magic != MAGIC) {
+            throw new IOException(String.format("Not a binary trading stream, found 0x%08x", magic));
+        }
+        final byte version = input.readByte();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported binary trading stream version " + version);
+        }
+        return input.readByte();
+    }
+
+    private Model readRecord() throws IOException {
+        while (true) {
+            final byte tag = readTag();
+            switch (tag) {
+                case TAG_RECORD -> {
+                    final BinaryModelCodec.Key key = dictionary.get(input.readUnsignedShort());
+                    time += input.readInt();
+                    return codec.readFields(key, time, input);
+                }
+                case TAG_DICTIONARY -> dictionary.add(BinaryModelCodec.Key.read(input));
+                case TAG_BASE_TIME -> time = input.readLong();
+                case TAG_END -> {
+                    ended = true;
+                    return null;
+                }
+                default -> throw new IOException("Corrupted binary trading stream, unknown tag " + tag);
+            }
+        }
+    }
+
+    private byte readTag() throws IOException {
+        try {
+            return input.readByte();
+        } catch (EOFException e) {
+            throw new EOFException("Binary trading stream ended without an end marker");
+        }
+    }
+}
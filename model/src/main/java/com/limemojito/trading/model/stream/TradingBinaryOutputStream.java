@@ -0,0 +1,126 @@
+/*
+ * Copyright 2011-2024 Lime Mojito Pty Ltd
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.limemojito.trading.model.stream;
+
+import com.limemojito.trading.model.TradingInputStream;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.limemojito.trading.model.stream.TradingBinaryStreams.BUFFER_SIZE;
+import static com.limemojito.trading.model.stream.TradingBinaryStreams.DICTIONARY_LIMIT;
+import static com.limemojito.trading.model.stream.TradingBinaryStreams.FORMAT_VERSION;
+import static com.limemojito.trading.model.stream.TradingBinaryStreams.MAGIC;
+import static com.limemojito.trading.model.stream.TradingBinaryStreams.TAG_BASE_TIME;
+import static com.limemojito.trading.model.stream.TradingBinaryStreams.TAG_DICTIONARY;
+import static com.limemojito.trading.model.stream.TradingBinaryStreams.TAG_END;
+import static com.limemojito.trading.model.stream.TradingBinaryStreams.TAG_RECORD;
+
+/**
+ * Writes models in the binary transport format.  Closing writes the end marker and closes the output.
+ *
+ * @param <Model> Tick or Bar.
+ * @see TradingBinaryStreams
+ */
+public class TradingBinaryOutputStream<Model> implements Closeable {
+    private final BinaryModelCodec<Model> codec;
+    private final DataOutputStream output;
+    private final Map<BinaryModelCodec.Key, Integer> dictionary = new HashMap<>();
+    private BinaryModelCodec.Key lastKey;
+    private int lastIndex;
+    private long lastTime;
+    private boolean baseTimeWritten;
+    private long count;
+
+    TradingBinaryOutputStream(BinaryModelCodec<Model> codec, OutputStream outputStream) throws IOException {
+        this.codec = codec;
+        this.output = new DataOutputStream(new BufferedOutputStream(outputStream, BUFFER_SIZE));
+        output.writeInt(MAGIC);
+        output.writeByte(FORMAT_VERSION);
+        output.writeByte(codec.getType());
+    }
+
+    /**
+     * Write one model.
+     *
+     * @param model model to write.
+     * @throws IOException on a write failure.
+     */
+    public void write(Model model) throws IOException {
+        // models usually arrive in runs for the same stream, so only build a key when the stream changes.
+        final int index = codec.isKeyOf(model, lastKey) ? lastIndex : dictionaryIndex(codec.key(model));
+        final long time = codec.time(model);
+        final long delta = time - lastTime;
+        if (!baseTimeWritten || delta > Integer.MAX_VALUE || delta < Integer.MIN_VALUE) {
+            output.writeByte(TAG_BASE_TIME);
+            output.writeLong(time);
+            baseTimeWritten = true;
+            lastTime = time;
+        }
+        output.writeByte(TAG_RECORD);
+        output.writeShort(index);
+        output.writeInt((int) (time - lastTime));
+        codec.writeFields(model, output);
+        lastTime = time;
+        count++;
+    }
+
+    /**
+     * Write the remaining models of a stream.  The stream is not closed.
+     *
+     * @param inputStream models to write.
+     * @throws IOException on a write failure.
+     */
+    public void writeAll(TradingInputStream<Model> inputStream) throws IOException {
+        while (inputStream.hasNext()) {
+            write(inputStream.next());
+        }
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try (DataOutputStream closing = output) {
+            closing.writeByte(TAG_END);
+        }
+    }
+
+    private int dictionaryIndex(BinaryModelCodec.Key key) throws IOException {
+        Integer index = dictionary.get(key);
+        if (index == null) {
+            if (dictionary.size() == DICTIONARY_LIMIT) {
+                throw new IOException("Binary stream dictionary is limited to " + DICTIONARY_LIMIT + " entries");
+            }
+            index = dictionary.size();
+            dictionary.put(key, index);
+            output.writeByte(TAG_DICTIONARY);
+            key.write(output);
+        }
+        lastKey = key;
+        lastIndex = index;
+        return index;
+    }
+}
@@ -0,0 +1,438 @@
+/*
+ * Copyright 2011-2024 Lime Mojito Pty Ltd
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.limemojito.trading.model.stream;
+
+import com.limemojito.trading.model.TradingInputStream;
+import lombok.SneakyThrows;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Streams models from the Excel friendly CSV written by {@link TradingCsvStream}.  Records are parsed straight from
+ * bytes with a hand-rolled parser for the known column layout, so no per line strings or field lists are created.
+ * The header line and any line not starting with a digit are skipped.
+ * <p>
+ * Input is either a stream read through an internal buffer, or a (memory mapped) byte buffer.  Use
+ * {@link #mapLineAlignedSplits(Path, int)} to map a file as splits cut at line boundaries that can be parsed on
+ * separate threads, for example as the segments of a {@link SegmentedTradingInputStream}.
+ *
+ * @param <Model> Type of object that the concrete class will parse.
+ */
+public abstract class TradingCsvInputStream<Model> implements TradingInputStream<Model> {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_SPLIT_SIZE = Integer.MAX_VALUE - BUFFER_SIZE;
+    private static final int DECIMAL = 10;
+    private static final int MILLIS_PER_SECOND = 1000;
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+    private static final int MILLIS_PER_HOUR = 3_600_000;
+    private static final int MILLIS_PER_MINUTE = 60_000;
+    private static final int MAX_CACHED_FIELDS = 16;
+    private static final int MAX_EXACT_FLOAT_MANTISSA = 1 << 24;
+    private static final float[] FLOAT_POWERS_OF_TEN = {1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f};
+    private final InputStream input;
+    private final TradingInputStreamMapper.Visitor<Model> visitor;
+    private ByteBuffer data;
+    private boolean endOfInput;
+    private int cursor;
+    private int lineEnd;
+    private int cachedDateKey = -1;
+    private long cachedEpochDayMillis;
+    private final String[] cachedStrings = new String[MAX_CACHED_FIELDS];
+    private int field;
+    private Model peek;
+
+    /**
+     * @param input   CSV to read, closed when this stream is closed.
+     * @param visitor visitor applied to each model as it is returned.
+     */
+    protected TradingCsvInputStream(InputStream input, TradingInputStreamMapper.Visitor<Model> visitor) {
+        this.input = input;
+        this.visitor = visitor;
+        this.data = ByteBuffer.allocate(BUFFER_SIZE);
+        this.data.limit(0);
+    }
+
+    /**
+     * @param data    CSV bytes from the buffer position to its limit, for example one split of a mapped file.
+     * @param visitor visitor applied to each model as it is returned.
+     */
+    protected TradingCsvInputStream(ByteBuffer data, TradingInputStreamMapper.Visitor<Model> visitor) {
+        this.input = null;
+        this.visitor = visitor;
+        this.data = data.slice();
+        this.endOfInput = true;
+    }
+
+    /**
+     * Memory map a file as read only splits that each end on a line boundary.  Splits are also limited to less than
+     * 2GB, so large files may return more splits than requested.
+     *
+     * @param path   file to map.
+     * @param splits number of splits wanted.
+     * @return splits in file order.
+     * @throws IOException on a failure mapping the file.
+     */
+    public static List<ByteBuffer> mapLineAlignedSplits(Path path, int splits) throws IOException {
+        if (splits < 1) {
+            throw new IllegalArgumentException("Splits must be positive");
+        }
+        final List<ByteBuffer> buffers = new ArrayList<>(splits);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            final long splitSize = Math.max(1L, Math.min(MAX_SPLIT_SIZE, (size + splits - 1) / splits));
+            long start = 0L;
+            while (start < size) {
+                final long end = nextLineStart(channel, Math.min(size, start + splitSize), size);
+                buffers.add(channel.map(FileChannel.MapMode.READ_ONLY, start, end - start));
+                start = end;
+            }
+        }
+        return buffers;
+    }
+
+    @Override
+    @SneakyThrows
+    public boolean hasNext() {
+        while (peek == null && nextLine()) {
+            if (lineEnd > cursor && isDigit(data.get(cursor))) {
+                peek = parseRecord();
+            }
+        }
+        return peek != null;
+    }
+
+    @Override
+    public Model next() throws NoSuchElementException {
+        if (!hasNext()) {
+            throw new NoSuchElementException("No more CSV records");
+        }
+        final Model next = peek;
+        peek = null;
+        visitor.visit(next);
+        return next;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (input != null) {
+            input.close();
+        }
+    }
+
+    /**
+     * Parse the fields of the current record in column order using the field methods.
+     *
+     * @return the parsed model.
+     * @throws IOException on a malformed record.
+     */
+    protected abstract Model parseRecord() throws IOException;
+
+    /**
+     * Parse a "yyyy-MM-dd HH:mm:ss[.SSS]" UTC date time field as written by {@link CsvRecordWriter}.
+     *
+     * @return epoch milliseconds.
+     * @throws IOException on a malformed field.
+     */
+    protected final long dateTimeUtcField() throws IOException {
+        final int start = cursor;
+        final int year = digits(4);
+        expect('-', start);
+        final int month = digits(2);
+        expect('-', start);
+        final int day = digits(2);
+        expect(' ', start);
+        final int dateKey = (year * 100 + month) * 100 + day;
+        if (dateKey != cachedDateKey) {
+            cachedEpochDayMillis = LocalDate.of(year, month, day).toEpochDay() * MILLIS_PER_DAY;
+            cachedDateKey = dateKey;
+        }
+        long millis = cachedEpochDayMillis + (long) digits(2) * MILLIS_PER_HOUR;
+        expect(':', start);
+        millis += (long) digits(2) * MILLIS_PER_MINUTE;
+        expect(':', start);
+        millis += (long) digits(2) * MILLIS_PER_SECOND;
+        if (cursor < lineEnd && data.get(cursor) == '.') {
+            cursor++;
+            for (int scale = MILLIS_PER_SECOND / DECIMAL; cursor < lineEnd && isDigit(data.get(cursor)); scale /= DECIMAL) {
+                millis += (data.get(cursor++) - '0') * scale;
+            }
+        }
+        endField(start);
+        return millis;
+    }
+
+    /**
+     * Parse an integer field.
+     *
+     * @return the value.
+     * @throws IOException on a malformed field.
+     */
+    protected final int intField() throws IOException {
+        final int start = cursor;
+        final boolean negative = cursor < lineEnd && data.get(cursor) == '-';
+        if (negative) {
+            cursor++;
+        }
+        long value = 0;
+        final int digitsStart = cursor;
+        while (cursor < lineEnd && isDigit(data.get(cursor)) && value <= Integer.MAX_VALUE) {
+            value = value * DECIMAL + data.get(cursor++) - '0';
+        }
+        value = negative ? -value : value;
+        if (cursor == digitsStart || value > Integer.MAX_VALUE || value < Integer.MIN_VALUE) {
+            throw malformed(start);
+        }
+        endField(start);
+        return (int) value;
+    }
+
+    /**
+     * Parse a float field with the same result as {@link Float#parseFloat(String)}.  Plain decimals with at most
+     * seven significant digits are computed exactly from the digits, anything else is handed to Float.
+     *
+     * @return the value.
+     * @throws IOException on a malformed field.
+     */
+    protected final float floatField() throws IOException {
+        final int start = cursor;
+        final boolean negative = cursor < lineEnd && data.get(cursor) == '-';
+        if (negative) {
+            cursor++;
+        }
+        int mantissa = 0;
+        int scale = -1;
+        boolean exact = true;
+        boolean digit = false;
+        for (; cursor < lineEnd && data.get(cursor) != ','; cursor++) {
+            final byte b = data.get(cursor);
+            if (isDigit(b) && mantissa < MAX_EXACT_FLOAT_MANTISSA / DECIMAL) {
+                mantissa = mantissa * DECIMAL + b - '0';
+                scale = scale < 0 ? scale : scale + 1;
+                digit = true;
+            } else if (b == '.' && scale < 0) {
+                scale = 0;
+            } else {
+                exact = false;
+            }
+        }
+        scale = Math.max(scale, 0);
+        if (exact && digit && scale < FLOAT_POWERS_OF_TEN.length) {
+            final float value = mantissa / FLOAT_POWERS_OF_TEN[scale];
+            endField(start);
+            return negative ? -value : value;
+        }
+        final String text = new String(bytes(start, cursor), UTF_8);
+        endField(start);
+        try {
+            return Float.parseFloat(text);
+        } catch (NumberFormatException e) {
+            throw new IOException("Malformed CSV float " + text, e);
+        }
+    }
+
+    /**
+     * Parse a string field, which may be quoted.  The previous value of the column is reused when unchanged.
+     *
+     * @return the value.
+     * @throws IOException on a malformed field.
+     */
+    protected final String stringField() throws IOException {
+        final int start = cursor;
+        if (cursor < lineEnd && data.get(cursor) == '"') {
+            return quotedField(start);
+        }
+        while (cursor < lineEnd && data.get(cursor) != ',') {
+            cursor++;
+        }
+        final int column = field % MAX_CACHED_FIELDS;
+        if (!matches(cachedStrings[column], start, cursor)) {
+            cachedStrings[column] = new String(bytes(start, cursor), UTF_8);
+        }
+        endField(start);
+        return cachedStrings[column];
+    }
+
+    private String quotedField(int start) throws IOException {
+        final StringBuilder text = new StringBuilder();
+        cursor++;
+        int from = cursor;
+        while (true) {
+            if (cursor >= lineEnd) {
+                throw malformed(start);
+            }
+            if (data.get(cursor) == '"') {
+                text.append(new String(bytes(from, cursor), UTF_8));
+                cursor++;
+                if (cursor < lineEnd && data.get(cursor) == '"') {
+                    from = cursor++;
+                } else {
+                    break;
+                }
+            } else {
+                cursor++;
+            }
+        }
+        endField(start);
+        return text.toString();
+    }
+
+    private boolean matches(String cached, int start, int end) {
+        if (cached == null || cached.length() != end - start) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            if (data.get(i) != cached.charAt(i - start)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int digits(int count) throws IOException {
+        int value = 0;
+        for (int i = 0; i < count; i++) {
+            if (cursor >= lineEnd || !isDigit(data.get(cursor))) {
+                throw malformed(cursor);
+            }
+            value = value * DECIMAL + data.get(cursor++) - '0';
+        }
+        return value;
+    }
+
+    private void expect(char c, int fieldStart) throws IOException {
+        if (cursor >= lineEnd || data.get(cursor) != c) {
+            throw malformed(fieldStart);
+        }
+        cursor++;
+    }
+
+    private void endField(int fieldStart) throws IOException {
+        field++;
+        if (cursor < lineEnd) {
+            if (data.get(cursor) != ',') {
+                throw malformed(fieldStart);
+            }
+            cursor++;
+        }
+    }
+
+    private IOException malformed(int fieldStart) {
+        int fieldEnd = fieldStart;
+        while (fieldEnd < lineEnd && data.get(fieldEnd) != ',') {
+            fieldEnd++;
+        }
+        return new IOException(String.format("Malformed CSV field '%s' in record '%s'",
+                                             new String(bytes(fieldStart, fieldEnd), UTF_8),
+                                             new String(bytes(lineStart(fieldStart), lineEnd), UTF_8)));
+    }
+
+    private int lineStart(int position) {
+        int start = position;
+        while (start > 0 && data.get(start - 1) != '\n') {
+            start--;
+        }
+        return start;
+    }
+
+    private byte[] bytes(int start, int end) {
+        final byte[] bytes = new byte[end - start];
+        data.get(start, bytes);
+        return bytes;
+    }
+
+    private boolean nextLine() throws IOException {
+        int scanned = data.position();
+        while (true) {
+            int newLine = indexOfNewLine(scanned);
+            if (newLine < 0) {
+                if (!endOfInput) {
+                    scanned = data.limit() - data.position();
+                    fill();
+                    continue;
+                }
+                if (!data.hasRemaining()) {
+                    return false;
+                }
+                newLine = data.limit();
+            }
+            cursor = data.position();
+            field = 0;
+            lineEnd = newLine > cursor && data.get(newLine - 1) == '\r' ? newLine - 1 : newLine;
+            data.position(Math.min(newLine + 1, data.limit()));
+            return true;
+        }
+    }
+
+    private int indexOfNewLine(int from) {
+        final int limit = data.limit();
+        for (int i = from; i < limit; i++) {
+            if (data.get(i) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void fill() throws IOException {
+        if (data.position() == 0 && data.limit() == data.capacity()) {
+            final ByteBuffer larger = ByteBuffer.allocate(data.capacity() * 2);
+            larger.put(data);
+            data = larger;
+        } else {
+            data.compact();
+        }
+        final int read = input.read(data.array(), data.position(), data.remaining());
+        if (read < 0) {
+            endOfInput = true;
+        } else {
+            data.position(data.position() + read);
+        }
+        data.flip();
+    }
+
+    private static long nextLineStart(FileChannel channel, long position, long size) throws IOException {
+        final ByteBuffer probe = ByteBuffer.allocate(BUFFER_SIZE);
+        long searched = position;
+        while (searched < size) {
+            probe.clear();
+            final int read = channel.read(probe, searched);
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') {
+                    return searched + i + 1;
+                }
+            }
+            searched += Math.max(read, 0);
+        }
+        return size;
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+}
@@ -21,57 +21,90 @@ import com.limemojito.trading.model.TradingInputStream;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.List;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.NoSuchElementException;
 
+/**
+ * Runs searches backwards in time until enough data is found, keeping only the newest maxCount items.  Each search
+ * must return data in ascending time order, and each search must be for data older than the search before it.  As
+ * windows arrive newest first each window is streamed into the unfilled front of a fixed ring buffer, so memory is
+ * bounded by maxCount however far the final window overshoots, and no sort is required.
+ *
+ * @param <Model> type of data searched.
+ */
 @Slf4j
 public final class TradingInputBackwardsSearchStream<Model> implements TradingInputStream<Model> {
 
-    private final Iterator<Model> dataIterator;
+    private Object[] data;
+    private int position;
 
     public interface Search<Model> {
         boolean prepare(int searchCount);
 
         TradingInputStream<Model> perform() throws IOException;
-
-        void sort(List<Model> data);
     }
 
     public TradingInputBackwardsSearchStream(int maxCount, Search<Model> search) throws IOException {
         /*
-        note that each search here adds to the end, so CD-AB for a backwards search with forwards order.
-        We check that we don't fall off the end of the data map at the beginning of time.
+        note that each search here is older than the last, so CD then AB for a backwards search with forwards order.
+        Data is kept in [position, maxCount).  We check that we don't fall off the end of the data map at the beginning
+        of time.
         */
-        final List<Model> data = new ArrayList<>(maxCount);
+        data = new Object[maxCount];
+        position = maxCount;
         boolean finalSearch = false;
         int searchCount = 0;
-        while (data.size() < maxCount && !finalSearch) {
+        while (position > 0 && !finalSearch) {
             finalSearch = search.prepare(searchCount++);
             try (TradingInputStream<Model> searchData = search.perform()) {
-                searchData.stream().forEach(data::add);
+                position = keepNewest(searchData, position);
             }
         }
-        // sort and remove excess data
-        search.sort(data);
-        log.debug("Retrieved {} data items in backwards search.  Cleaning to {} items", data.size(), maxCount);
-        final int numToRemove = Math.max(0, data.size() - maxCount);
-        dataIterator = data.subList(numToRemove, data.size()).iterator();
+        log.debug("Retained {} data items in backwards search of {} searches", maxCount - position, searchCount);
     }
 
     @Override
     public Model next() throws NoSuchElementException {
-        return dataIterator.next();
+        if (!hasNext()) {
+            throw new NoSuchElementException("No more data");
+        }
+        @SuppressWarnings("unchecked") final Model next = (Model) data[position];
+        data[position++] = null;
+        return next;
     }
 
     @Override
     public boolean hasNext() {
-        return dataIterator.hasNext();
+        return position < data.length;
     }
 
     @Override
     public void close() throws IOException {
-        //ignored
+        position = data.length;
+        data = new Object[0];
+    }
+
+    /**
+     * Streams an ascending window into [0, capacity) as a ring so only the newest capacity items remain, then lines
+     * them up to end at capacity.
+     *
+     * @return the new start of the retained data.
+     */
+    private int keepNewest(TradingInputStream<Model> window, int capacity) {
+        long count = 0;
+        while (window.hasNext()) {
+            data[(int) (count++ % capacity)] = window.next();
+        }
+        if (count < capacity) {
+            final int size = (int) count;
+            System.arraycopy(data, 0, data, capacity - size, size);
+            Arrays.fill(data, 0, capacity - size, null);
+            return capacity - size;
+        }
+        // ring is full, rotate so the oldest item is first.
+        final int oldest = (int) (count % capacity);
+        Collections.rotate(Arrays.asList(data).subList(0, capacity), -oldest);
+        return 0;
     }
 }
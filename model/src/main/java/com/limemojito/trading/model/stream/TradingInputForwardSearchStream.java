@@ -22,29 +22,78 @@ import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
 import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
+/**
+ * Streams search windows forwards in time until the maximum count is given or the search reports no more data.  When
+ * a prefetch executor is supplied, the next window is searched in the background while the current window is
+ * consumed.  Prefetch is skipped when the current window is known to be large enough to complete the stream.
+ *
+ * @param <Model> Type of model in the stream.
+ */
 @Slf4j
 public final class TradingInputForwardSearchStream<Model> implements TradingInputStream<Model> {
     private final int maxCount;
     private final Search<Model> search;
+    private final Executor prefetchExecutor;
     private int searchCount;
     private int givenCount;
+    private boolean endOfData;
     private TradingInputStream<Model> dataStream;
+    private CompletableFuture<TradingInputStream<Model>> prefetch;
 
     public TradingInputForwardSearchStream(int maxCount, Search<Model> search) throws IOException {
+        this(maxCount, search, null);
+    }
+
+    /**
+     * Create a forward search stream.
+     *
+     * @param maxCount         Maximum number of models to give.
+     * @param search           Search to perform for each window.
+     * @param prefetchExecutor Executor to search the next window on, or null to search on the caller thread.
+     * @throws IOException on a failure performing the first search.
+     */
+    public TradingInputForwardSearchStream(int maxCount,
+                                           Search<Model> search,
+                                           Executor prefetchExecutor) throws IOException {
         this.maxCount = maxCount;
         this.search = search;
-        this.dataStream = search.perform(0);
+        this.prefetchExecutor = prefetchExecutor;
+        this.dataStream = open(search.perform(0));
+        startPrefetch();
+    }
+
+    /**
+     * Whether the search has reported that there is no more data, such as the search reaching the current time.
+     *
+     * @return true if the stream has stopped due to the end of available data.
+     */
+    public boolean isEndOfData() {
+        return endOfData;
     }
 
     @Override
     public void close() throws IOException {
         dataStream.close();
+        if (prefetch != null) {
+            final CompletableFuture<TradingInputStream<Model>> pending = prefetch;
+            prefetch = null;
+            pending.whenComplete((unused, e) -> closeQuietly(unused));
+            pending.cancel(false);
+        }
     }
 
     @Override
     public Model next() throws NoSuchElementException {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
         Model next = dataStream.next();
         givenCount++;
         return next;
@@ -65,13 +114,99 @@ public final class TradingInputForwardSearchStream<Model> implements TradingInpu
     }
 
     public interface Search<Model> {
+        /**
+         * Perform a search for the supplied window.
+         *
+         * @param searchCount Zero based count of the window to search.
+         * @return the data in the window, or null if there is no more data to search.
+         * @throws IOException on a search failure.
+         */
         TradingInputStream<Model> perform(int searchCount) throws IOException;
     }
 
     private void extendSearch() throws IOException {
-        while (!dataStream.hasNext()) {
+        while (!dataStream.hasNext() && !endOfData) {
             dataStream.close();
-            dataStream = search.perform(++searchCount);
+            searchCount++;
+            dataStream = open(nextWindow());
+            startPrefetch();
+        }
+    }
+
+    private TradingInputStream<Model> nextWindow() throws IOException {
+        if (prefetch == null) {
+            return search.perform(searchCount);
+        }
+        final CompletableFuture<TradingInputStream<Model>> pending = prefetch;
+        prefetch = null;
+        try {
+            return pending.join();
+        } catch (CompletionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw e;
+        }
+    }
+
+    private TradingInputStream<Model> open(TradingInputStream<Model> window) {
+        if (window == null) {
+            log.debug("Search reported end of data after {} windows", searchCount);
+            endOfData = true;
+            return TradingInputStreamMapper.streamFrom(Collections.emptyList());
+        }
+        return window;
+    }
+
+    private void startPrefetch() {
+        if (prefetchExecutor == null || endOfData || isSatisfiedByCurrentWindow()) {
+            return;
+        }
+        final int nextSearch = searchCount + 1;
+        final CompletableFuture<TradingInputStream<Model>> pending = new CompletableFuture<>();
+        prefetchExecutor.execute(() -> prefetch(nextSearch, pending));
+        prefetch = pending;
+    }
+
+    private boolean isSatisfiedByCurrentWindow() {
+        final long size = dataStream.spliterator().getExactSizeIfKnown();
+        return size >= 0 && givenCount + size >= maxCount;
+    }
+
+    /**
+     * Searches the next window unless the prefetch was cancelled before it started.  A window that completes after
+     * the prefetch was cancelled by close is closed here, as no other party will ever see it.
+     */
+    private void prefetch(int nextSearch, CompletableFuture<TradingInputStream<Model>> pending) {
+        if (pending.isDone()) {
+            return;
+        }
+        final TradingInputStream<Model> window;
+        try {
+            window = search.perform(nextSearch);
+        } catch (IOException e) {
+            pending.completeExceptionally(new UncheckedIOException(e));
+            return;
+        } catch (RuntimeException e) {
+            pending.completeExceptionally(e);
+            return;
+        }
+        if (!pending.complete(window)) {
+            closeQuietly(window);
+        }
+    }
+
+    private static void closeQuietly(TradingInputStream<?> unused) {
+        if (unused != null) {
+            try {
+                unused.close();
+            } catch (IOException e) {
+                log.warn("Failed to close discarded prefetch {}", e.getMessage());
+            }
         }
     }
 }
@@ -18,11 +18,15 @@
 package com.limemojito.trading.model.stream;
 
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.limemojito.trading.model.TradingInputStream;
-import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import org.springframework.stereotype.Component;
 
@@ -31,14 +35,32 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 
+/**
+ * Streams models to and from JSON arrays or newline delimited JSON.  Writes go through one generator per output and
+ * reads through a prebuilt reader per type, so no intermediate byte arrays or per element lookups are made.  Register
+ * {@link TradingJsonModule} on the mapper for hand-written tick and bar serialization.
+ */
 @Component
-@RequiredArgsConstructor
 public class TradingInputJsonStreams {
+    private static final String NEW_LINE = "\n";
     private final ObjectMapper mapper;
+    private final ObjectWriter writer;
+    private final Map<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+
+    public TradingInputJsonStreams(ObjectMapper mapper) {
+        this.mapper = mapper;
+        // work around auto-close if jackson passed a stream.
+        this.writer = mapper.writer()
+                            .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
 
     /**
      * Write the supplied input stream to the output stream using Jackson in ARRAY format.  The output is a streamed write one model object
@@ -99,36 +121,125 @@ public class TradingInputJsonStreams {
                                                           Class<Model> type,
                                                           TradingInputStreamMapper.Visitor<Model> visitor) throws
                                                                                                            IOException {
-        return new JsonTradingInputStream<>(inputStream, mapper, type, visitor);
+        return new JsonTradingInputStream<>(inputStream, readerFor(type), visitor);
+    }
+
+    /**
+     * Write the supplied input stream to the output stream as newline delimited JSON, one model object per line.
+     *
+     * @param <Model>      Model object to write (needs to be "Jsonable").
+     * @param inputStream  Model stream to write out
+     * @param outputStream output stream to write to.
+     * @throws IOException on an IO failure.
+     */
+    public <Model> void writeAsNdJson(TradingInputStream<Model> inputStream, OutputStream outputStream) throws
+                                                                                                        IOException {
+        writeNdJsonFromIterator(outputStream, inputStream.iterator());
+    }
+
+    /**
+     * Write the supplied collection to the output stream as newline delimited JSON, one model object per line.
+     *
+     * @param <Model>      Model object to write (needs to be "Jsonable").
+     * @param collection   Collection to stream data from.
+     * @param outputStream output stream to write to.
+     * @throws IOException on an IO failure.
+     */
+    public <Model> void writeAsNdJson(Collection<Model> collection, OutputStream outputStream) throws IOException {
+        writeNdJsonFromIterator(outputStream, collection.iterator());
+    }
+
+    /**
+     * Create an input stream reading newline delimited JSON on the calling thread.
+     *
+     * @param <Model>     Model object to read (needs to be "Jsonable").
+     * @param inputStream Newline delimited JSON to read, closed when the stream is closed.
+     * @param type        class instance of the expected model type (to support Jackson json read).
+     * @return An input stream ready to stream read data.
+     */
+    public <Model> TradingInputStream<Model> createNdJsonStream(InputStream inputStream, Class<Model> type) {
+        return createNdJsonStream(inputStream, type, (model) -> {
+        });
+    }
+
+    /**
+     * Create an input stream reading newline delimited JSON on the calling thread.
+     *
+     * @param <Model>     Model object to read (needs to be "Jsonable").
+     * @param inputStream Newline delimited JSON to read, closed when the stream is closed.
+     * @param type        class instance of the expected model type (to support Jackson json read).
+     * @param visitor     Visitor to apply to reconstituted model object.
+     * @return An input stream ready to stream read data.
+     */
+    public <Model> TradingInputStream<Model> createNdJsonStream(InputStream inputStream,
+                                                                Class<Model> type,
+                                                                TradingInputStreamMapper.Visitor<Model> visitor) {
+        return createNdJsonStream(inputStream, type, visitor, Runnable::run, 1);
+    }
+
+    /**
+     * Create an input stream reading newline delimited JSON, parsing chunks cut at line boundaries in parallel.  Models
+     * are still returned in file order, and the visitor is applied in order on the reading thread.
+     *
+     * @param <Model>        Model object to read (needs to be "Jsonable").
+     * @param inputStream    Newline delimited JSON to read, closed when the stream is closed.
+     * @param type           class instance of the expected model type (to support Jackson json read).
+     * @param visitor        Visitor to apply to reconstituted model object.
+     * @param executor       Executor to parse chunks on.
+     * @param chunksInFlight Maximum number of chunks read ahead and parsing at once, bounding memory use.
+     * @return An input stream ready to stream read data.
+     */
+    public <Model> TradingInputStream<Model> createNdJsonStream(InputStream inputStream,
+                                                                Class<Model> type,
+                                                                TradingInputStreamMapper.Visitor<Model> visitor,
+                                                                Executor executor,
+                                                                int chunksInFlight) {
+        return new ChunkedNdJsonInputStream<>(inputStream,
+                                              readerFor(type),
+                                              visitor,
+                                              executor,
+                                              chunksInFlight,
+                                              ChunkedNdJsonInputStream.DEFAULT_CHUNK_SIZE);
+    }
+
+    private ObjectReader readerFor(Class<?> type) {
+        return readers.computeIfAbsent(type, mapper::readerFor);
+    }
+
+    private <Model> void writeNdJsonFromIterator(OutputStream outputStream,
+                                                 Iterator<Model> iterator) throws IOException {
+        boolean written = false;
+        try (SequenceWriter sequence = writer.withRootValueSeparator(NEW_LINE).writeValues(outputStream)) {
+            while (iterator.hasNext()) {
+                sequence.write(iterator.next());
+                written = true;
+            }
+        }
+        if (written) {
+            outputStream.write(NEW_LINE.getBytes(UTF_8));
+        }
     }
 
     private <Model> void writeFromIterator(OutputStream outputStream, Iterator<Model> iterator) throws IOException {
-        outputStream.write("[".getBytes(UTF_8));
-        while (iterator.hasNext()) {
-            Model next = iterator.next();
-            // work around auto-close if jackson passed a stream.
-            outputStream.write(mapper.writeValueAsBytes(next));
-            if (iterator.hasNext()) {
-                outputStream.write(",".getBytes(UTF_8));
+        try (SequenceWriter sequence = writer.writeValuesAsArray(outputStream)) {
+            while (iterator.hasNext()) {
+                sequence.write(iterator.next());
             }
         }
-        outputStream.write("]".getBytes(UTF_8));
     }
 
     private static class JsonTradingInputStream<Model> implements TradingInputStream<Model> {
-        private final Class<Model> type;
+        private final ObjectReader reader;
         private final JsonParser jsonParser;
         private final TradingInputStreamMapper.Visitor<Model> visitor;
         private Model peek;
 
         JsonTradingInputStream(InputStream inputStream,
-                               ObjectMapper mapper,
-                               Class<Model> type,
+                               ObjectReader reader,
                                TradingInputStreamMapper.Visitor<Model> visitor) throws IOException {
             this.visitor = visitor;
-            // work around auto-close if jackson passed a stream.
-            this.jsonParser = mapper.createParser(inputStream);
-            this.type = type;
+            this.reader = reader;
+            this.jsonParser = reader.createParser(inputStream);
         }
 
         @Override
@@ -171,7 +282,7 @@ public class TradingInputJsonStreams {
                 nextToken = jsonParser.nextToken();
             } while (nextToken != null && nextToken != JsonToken.START_OBJECT);
             if (nextToken != null) {
-                peek = jsonParser.readValueAs(type);
+                peek = reader.readValue(jsonParser);
                 visitor.visit(peek);
             } else {
                 peek = null;
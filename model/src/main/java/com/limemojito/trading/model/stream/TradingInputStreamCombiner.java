@@ -21,8 +21,10 @@ import com.limemojito.trading.model.TradingInputStream;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 
 @Slf4j
@@ -68,6 +70,60 @@ public class TradingInputStreamCombiner<Model> implements TradingInputStream<Mod
         return (peek != null);
     }
 
+    /**
+     * Drains the current stream in bulk and filters the drained items in place.
+     */
+    @Override
+    public int drainTo(Model[] buffer, int offset, int length) {
+        int count = 0;
+        if (peek != null && length > 0) {
+            buffer[offset] = peek;
+            peek = null;
+            count++;
+        }
+        while (count < length) {
+            inputStreamWithData();
+            if (inputStream == null) {
+                break;
+            }
+            final int start = offset + count;
+            final int end = start + inputStream.drainTo(buffer, start, length - count);
+            int kept = start;
+            for (int i = start; i < end; i++) {
+                if (filter.test(buffer[i])) {
+                    buffer[kept++] = buffer[i];
+                }
+            }
+            Arrays.fill(buffer, kept, end, null);
+            count = kept - offset;
+        }
+        return count;
+    }
+
+    @Override
+    public int drainTo(Consumer<? super Model> consumer, int max) {
+        final int[] count = {0};
+        if (peek != null && max > 0) {
+            consumer.accept(peek);
+            peek = null;
+            count[0]++;
+        }
+        final Consumer<Model> filtered = model -> {
+            if (filter.test(model)) {
+                consumer.accept(model);
+                count[0]++;
+            }
+        };
+        while (count[0] < max) {
+            inputStreamWithData();
+            if (inputStream == null) {
+                break;
+            }
+            inputStream.drainTo(filtered, max - count[0]);
+        }
+        return count[0];
+    }
+
     @Override
     public void close() throws IOException {
         if (inputStream != null) {
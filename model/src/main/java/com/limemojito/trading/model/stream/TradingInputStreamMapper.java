@@ -29,6 +29,20 @@ public abstract class TradingInputStreamMapper {
 
     public interface Visitor<MODEL> {
         void visit(MODEL bar);
+
+        /**
+         * Visits a batch of models in stream order, called by streams that drain in batches.  Override to handle a
+         * batch in one call.
+         *
+         * @param models models to visit.
+         * @param offset index of the first model in the batch.
+         * @param length number of models in the batch.
+         */
+        default void visitBatch(MODEL[] models, int offset, int length) {
+            for (int i = offset; i < offset + length; i++) {
+                visit(models[i]);
+            }
+        }
     }
 
     public static <MODEL> TradingInputStream<MODEL> streamFrom(Collection<MODEL> modelData) {
@@ -120,6 +134,18 @@ public abstract class TradingInputStreamMapper {
             return iterator.hasNext();
         }
 
+        @Override
+        public int drainTo(MODEL[] buffer, int offset, int length) {
+            int count = 0;
+            while (count < length && iterator.hasNext()) {
+                buffer[offset + count++] = iterator.next();
+            }
+            if (visitor != null && count > 0) {
+                visitor.visitBatch(buffer, offset, count);
+            }
+            return count;
+        }
+
         @Override
         public void close() {
             if (onClose != null) {
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2011-2024 Lime Mojito Pty Ltd
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.limemojito.trading.model.stream;
+
+import com.limemojito.trading.model.TradingInputStream;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.ToLongFunction;
+
+/**
+ * Merges several time ordered streams, such as one per symbol, into a single time ordered stream using a k-way heap
+ * merge.  Inputs are compared on a primitive timestamp so no objects are created per comparison, and items with equal
+ * timestamps are returned in input order.  Inputs are opened on the first call to hasNext or next, and each input is
+ * closed as soon as it is exhausted.
+ *
+ * @param <Model> type of data being merged.
+ * @see TradingInputStream#mergeByTime(java.util.Collection, ToLongFunction)
+ */
+@Slf4j
+public class TradingInputStreamMerger<Model> implements TradingInputStream<Model> {
+    private final List<TradingInputStreamOpener<Model>> openers;
+    private final ToLongFunction<Model> timestamp;
+    private final List<TradingInputStream<Model>> inputs;
+    private final Object[] heads;
+    private final long[] keys;
+    private final int[] heap;
+    private int heapSize;
+    private boolean opened;
+
+    /**
+     * Use factory methods on TradingInputStream for streams already created.
+     *
+     * @param openers   open each input in time order.
+     * @param timestamp time of each item, usually epoch milliseconds.
+     * @see TradingInputStream#mergeByTime(java.util.Collection, ToLongFunction)
+     */
+    public TradingInputStreamMerger(List<TradingInputStreamOpener<Model>> openers, ToLongFunction<Model> timestamp) {
+        this.openers = List.copyOf(openers);
+        this.timestamp = timestamp;
+        this.inputs = new ArrayList<>(openers.size());
+        this.heads = new Object[openers.size()];
+        this.keys = new long[openers.size()];
+        this.heap = new int[openers.size()];
+    }
+
+    @Override
+    public Model next() throws NoSuchElementException {
+        if (!hasNext()) {
+            throw new NoSuchElementException("No more objects");
+        }
+        final int input = heap[0];
+        @SuppressWarnings("unchecked") final Model next = (Model) heads[input];
+        final TradingInputStream<Model> stream = inputs.get(input);
+        if (stream.hasNext()) {
+            final long previous = keys[input];
+            advance(input, stream);
+            if (keys[input] < previous) {
+                throw new IllegalStateException(String.format("Input %d is not in time order at %d", input, keys[input]));
+            }
+        } else {
+            closeInput(input);
+            heap[0] = heap[--heapSize];
+        }
+        siftDown(0);
+        return next;
+    }
+
+    @SneakyThrows
+    @Override
+    public boolean hasNext() {
+        if (!opened) {
+            open();
+        }
+        return heapSize > 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        for (int i = 0; i < inputs.size(); i++) {
+            try {
+                final TradingInputStream<Model> input = inputs.get(i);
+                if (input != null) {
+                    input.close();
+                }
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+            inputs.set(i, null);
+        }
+        heapSize = 0;
+        opened = true;
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void open() throws IOException {
+        opened = true;
+        for (int i = 0; i < openers.size(); i++) {
+            final TradingInputStream<Model> stream = openers.get(i).open();
+            inputs.add(stream);
+            if (stream.hasNext()) {
+                advance(i, stream);
+                heap[heapSize] = i;
+                siftUp(heapSize++);
+            } else {
+                closeInput(i);
+            }
+        }
+    }
+
+    private void advance(int input, TradingInputStream<Model> stream) {
+        final Model head = stream.next();
+        heads[input] = head;
+        keys[input] = timestamp.applyAsLong(head);
+    }
+
+    private void closeInput(int input) {
+        heads[input] = null;
+        try {
+            inputs.get(input).close();
+        } catch (IOException e) {
+            log.warn("Error closing input stream {}", e.getMessage(), e);
+        }
+        inputs.set(input, null);
+    }
+
+    private void siftUp(int position) {
+        final int input = heap[position];
+        while (position > 0) {
+            final int parent = (position - 1) >>> 1;
+            if (!isBefore(input, heap[parent])) {
+                break;
+            }
+            heap[position] = heap[parent];
+            position = parent;
+        }
+        heap[position] = input;
+    }
+
+    private void siftDown(int position) {
+        if (heapSize == 0) {
+            return;
+        }
+        final int input = heap[position];
+        final int half = heapSize >>> 1;
+        while (position < half) {
+            int child = (position << 1) + 1;
+            final int right = child + 1;
+            if (right < heapSize && isBefore(heap[right], heap[child])) {
+                child = right;
+            }
+            if (!isBefore(heap[child], input)) {
+                break;
+            }
+            heap[position] = heap[child];
+            position = child;
+        }
+        heap[position] = input;
+    }
+
+    private boolean isBefore(int input, int other) {
+        final long key = keys[input];
+        final long otherKey = keys[other];
+        return key < otherKey || (key == otherKey && input < other);
+    }
+}
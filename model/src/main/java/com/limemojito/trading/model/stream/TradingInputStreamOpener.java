@@ -0,0 +1,40 @@
+/*
+ * Copyright 2011-2024 Lime Mojito Pty Ltd
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.limemojito.trading.model.stream;
+
+import com.limemojito.trading.model.TradingInputStream;
+
+import java.io.IOException;
+
+/**
+ * Opens a trading input stream on demand, such as when a merge first reads an input or a publisher is subscribed to.
+ *
+ * @param <Model> type of data in the stream.
+ * @see TradingInputStreamMerger
+ * @see TradingInputStreamPublisher
+ */
+@FunctionalInterface
+public interface TradingInputStreamOpener<Model> {
+    /**
+     * Open a new stream.
+     *
+     * @return the opened stream.
+     * @throws IOException on a failure opening the stream.
+     */
+    TradingInputStream<Model> open() throws IOException;
+}
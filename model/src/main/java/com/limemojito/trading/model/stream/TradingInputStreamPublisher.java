@@ -0,0 +1,201 @@
+/*
+ * Copyright 2011-2024 Lime Mojito Pty Ltd
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.limemojito.trading.model.stream;
+
+import com.limemojito.trading.model.TradingInputStream;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A cold {@link Flow.Publisher} over a trading input stream.  Each subscription opens its own stream on first demand
+ * and only pulls from it while the subscriber has outstanding demand, so upstream hour and day fetches are driven by
+ * requests.  Pulling runs on the supplied executor in batches, releasing the thread whenever demand is met or a batch
+ * is complete, so many slow subscribers can share a small pool rather than parking a thread each.
+ * <p>
+ * Signals to a subscriber are serial.  The stream is closed on completion, error or cancellation.
+ *
+ * @param <Model> type of data published.
+ */
+@Slf4j
+public final class TradingInputStreamPublisher<Model> implements Flow.Publisher<Model> {
+    /**
+     * Maximum number of items pulled in one executor task before yielding to other subscriptions.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 256;
+    private final TradingInputStreamOpener<Model> opener;
+    private final Executor executor;
+    private final int batchSize;
+
+    public TradingInputStreamPublisher(TradingInputStreamOpener<Model> opener, Executor executor) {
+        this(opener, executor, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Create a publisher.
+     *
+     * @param opener    Opens a new stream for each subscription.
+     * @param executor  Executor to pull from streams on.
+     * @param batchSize Maximum number of items pulled in one task before yielding.
+     */
+    public TradingInputStreamPublisher(TradingInputStreamOpener<Model> opener,
+                                       Executor executor,
+                                       int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1");
+        }
+        this.opener = opener;
+        this.executor = executor;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super Model> subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber");
+        new DemandSubscription(subscriber).start();
+    }
+
+    private final class DemandSubscription implements Flow.Subscription, Runnable {
+        private final Flow.Subscriber<? super Model> subscriber;
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger work = new AtomicInteger();
+        private volatile boolean cancelled;
+        private volatile Throwable badRequest;
+        private TradingInputStream<Model> stream;
+        private boolean done;
+
+        private DemandSubscription(Flow.Subscriber<? super Model> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                badRequest = new IllegalArgumentException("Request must be positive but was " + n);
+            } else {
+                demand.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n);
+            }
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            schedule();
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            while (true) {
+                if (!drain()) {
+                    executor.execute(this);
+                    return;
+                }
+                missed = work.addAndGet(-missed);
+                if (missed == 0) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Holds the work counter across onSubscribe so requests made from it are drained after it returns.
+         */
+        private void start() {
+            work.set(1);
+            subscriber.onSubscribe(this);
+            if (work.decrementAndGet() != 0) {
+                executor.execute(this);
+            }
+        }
+
+        private void schedule() {
+            if (work.getAndIncrement() == 0) {
+                executor.execute(this);
+            }
+        }
+
+        /**
+         * @return false if the batch was full with demand still outstanding.
+         */
+        private boolean drain() {
+            if (done) {
+                return true;
+            }
+            if (cancelled) {
+                finish();
+                return true;
+            }
+            if (badRequest != null) {
+                fail(badRequest);
+                return true;
+            }
+            try {
+                if (stream == null) {
+                    stream = opener.open();
+                }
+                int emitted = 0;
+                while (demand.get() > 0) {
+                    if (cancelled) {
+                        finish();
+                        return true;
+                    }
+                    if (!stream.hasNext()) {
+                        finish();
+                        subscriber.onComplete();
+                        return true;
+                    }
+                    if (emitted == batchSize) {
+                        return false;
+                    }
+                    subscriber.onNext(stream.next());
+                    emitted++;
+                    if (demand.get() != Long.MAX_VALUE) {
+                        demand.decrementAndGet();
+                    }
+                }
+                return true;
+            } catch (IOException | RuntimeException e) {
+                fail(e);
+                return true;
+            }
+        }
+
+        private void fail(Throwable e) {
+            finish();
+            subscriber.onError(e);
+        }
+
+        private void finish() {
+            done = true;
+            if (stream != null) {
+                try {
+                    stream.close();
+                } catch (IOException e) {
+                    log.warn("Failed to close published stream {}", e.getMessage(), e);
+                }
+            }
+        }
+    }
+}
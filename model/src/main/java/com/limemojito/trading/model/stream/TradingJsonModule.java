@@ -0,0 +1,202 @@
+/*
+ * Copyright 2011-2024 Lime Mojito Pty Ltd
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.limemojito.trading.model.stream;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.limemojito.trading.model.StreamData;
+import com.limemojito.trading.model.bar.Bar;
+import com.limemojito.trading.model.tick.Tick;
+
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * Optional Jackson module with hand-written serializers for {@link Tick} and {@link Bar}.  The JSON is the same as
+ * the default bean serialization, field for field, but avoids bean introspection and creator based construction on
+ * large streams.  Not registered by {@code findAndRegisterModules}, register explicitly:
+ * <pre>
+ *     mapper.registerModule(new TradingJsonModule());
+ * </pre>
+ */
+public class TradingJsonModule extends SimpleModule {
+    private static final long serialVersionUID = 1L;
+    private static final String MODEL_VERSION = "modelVersion";
+    private static final String STREAM_ID = "streamId";
+    private static final String SYMBOL = "symbol";
+    private static final String SOURCE = "source";
+
+    public TradingJsonModule() {
+        super("TradingJsonModule");
+        addSerializer(Tick.class, new TickSerializer());
+        addDeserializer(Tick.class, new TickDeserializer());
+        addSerializer(Bar.class, new BarSerializer());
+        addDeserializer(Bar.class, new BarDeserializer());
+    }
+
+    private static final class TickSerializer extends StdSerializer<Tick> {
+        private static final long serialVersionUID = 1L;
+
+        private TickSerializer() {
+            super(Tick.class);
+        }
+
+        @Override
+        public void serialize(Tick tick, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(tick);
+            gen.writeNumberField("millisecondsUtc", tick.getMillisecondsUtc());
+            writeStreamId(tick.getStreamId(), gen);
+            writeString(SYMBOL, tick.getSymbol(), gen);
+            gen.writeNumberField("ask", tick.getAsk());
+            gen.writeNumberField("bid", tick.getBid());
+            gen.writeNumberField("askVolume", tick.getAskVolume());
+            gen.writeNumberField("bidVolume", tick.getBidVolume());
+            writeSource(tick.getSource(), gen);
+            gen.writeStringField(MODEL_VERSION, tick.getModelVersion());
+            gen.writeEndObject();
+        }
+    }
+
+    private static final class BarSerializer extends StdSerializer<Bar> {
+        private static final long serialVersionUID = 1L;
+
+        private BarSerializer() {
+            super(Bar.class);
+        }
+
+        @Override
+        public void serialize(Bar bar, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(bar);
+            gen.writeNumberField("startMillisecondsUtc", bar.getStartMillisecondsUtc());
+            writeStreamId(bar.getStreamId(), gen);
+            writeString("period", bar.getPeriod() == null ? null : bar.getPeriod().name(), gen);
+            writeString(SYMBOL, bar.getSymbol(), gen);
+            gen.writeNumberField("open", bar.getOpen());
+            gen.writeNumberField("high", bar.getHigh());
+            gen.writeNumberField("low", bar.getLow());
+            gen.writeNumberField("close", bar.getClose());
+            writeSource(bar.getSource(), gen);
+            gen.writeStringField(MODEL_VERSION, bar.getModelVersion());
+            gen.writeEndObject();
+        }
+    }
+
+    private static final class TickDeserializer extends StdDeserializer<Tick> {
+        private static final long serialVersionUID = 1L;
+
+        private TickDeserializer() {
+            super(Tick.class);
+        }
+
+        @Override
+        public Tick deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            final Tick.TickBuilder builder = Tick.builder();
+            for (JsonToken token = firstField(p); token == JsonToken.FIELD_NAME; token = p.nextToken()) {
+                final String name = p.currentName();
+                p.nextToken();
+                switch (name) {
+                    case "millisecondsUtc" -> builder.millisecondsUtc(p.getLongValue());
+                    case STREAM_ID -> builder.streamId(readUuid(p));
+                    case SYMBOL -> builder.symbol(readString(p));
+                    case "ask" -> builder.ask(p.getIntValue());
+                    case "bid" -> builder.bid(p.getIntValue());
+                    case "askVolume" -> builder.askVolume(p.getFloatValue());
+                    case "bidVolume" -> builder.bidVolume(p.getFloatValue());
+                    case SOURCE -> builder.source(readSource(p));
+                    case MODEL_VERSION -> p.skipChildren();
+                    default -> ctxt.handleUnknownProperty(p, this, Tick.class, name);
+                }
+            }
+            return builder.build();
+        }
+    }
+
+    private static final class BarDeserializer extends StdDeserializer<Bar> {
+        private static final long serialVersionUID = 1L;
+
+        private BarDeserializer() {
+            super(Bar.class);
+        }
+
+        @Override
+        public Bar deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            final Bar.BarBuilder builder = Bar.builder();
+            for (JsonToken token = firstField(p); token == JsonToken.FIELD_NAME; token = p.nextToken()) {
+                final String name = p.currentName();
+                p.nextToken();
+                switch (name) {
+                    case "startMillisecondsUtc" -> builder.startMillisecondsUtc(p.getLongValue());
+                    case STREAM_ID -> builder.streamId(readUuid(p));
+                    case "period" -> {
+                        final String period = readString(p);
+                        builder.period(period == null ? null : Bar.Period.valueOf(period));
+                    }
+                    case SYMBOL -> builder.symbol(readString(p));
+                    case "open" -> builder.open(p.getIntValue());
+                    case "high" -> builder.high(p.getIntValue());
+                    case "low" -> builder.low(p.getIntValue());
+                    case "close" -> builder.close(p.getIntValue());
+                    case SOURCE -> builder.source(readSource(p));
+                    case MODEL_VERSION -> p.skipChildren();
+                    default -> ctxt.handleUnknownProperty(p, this, Bar.class, name);
+                }
+            }
+            return builder.build();
+        }
+    }
+
+    private static JsonToken firstField(JsonParser p) throws IOException {
+        return p.currentToken() == JsonToken.START_OBJECT ? p.nextToken() : p.currentToken();
+    }
+
+    private static void writeStreamId(UUID streamId, JsonGenerator gen) throws IOException {
+        writeString(STREAM_ID, streamId == null ? null : streamId.toString(), gen);
+    }
+
+    private static void writeSource(StreamData.StreamSource source, JsonGenerator gen) throws IOException {
+        writeString(SOURCE, source == null ? null : source.name(), gen);
+    }
+
+    private static void writeString(String field, String value, JsonGenerator gen) throws IOException {
+        if (value == null) {
+            gen.writeNullField(field);
+        } else {
+            gen.writeStringField(field, value);
+        }
+    }
+
+    private static String readString(JsonParser p) throws IOException {
+        return p.currentToken() == JsonToken.VALUE_NULL ? null : p.getText();
+    }
+
+    private static UUID readUuid(JsonParser p) throws IOException {
+        final String uuid = readString(p);
+        return uuid == null ? null : UUID.fromString(uuid);
+    }
+
+    private static StreamData.StreamSource readSource(JsonParser p) throws IOException {
+        final String source = readString(p);
+        return source == null ? null : StreamData.StreamSource.valueOf(source);
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2011-2024 Lime Mojito Pty Ltd
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.limemojito.trading.model.tick;
+
+import com.limemojito.trading.model.TradingInputStream;
+import com.limemojito.trading.model.stream.SegmentedTradingInputStream;
+import com.limemojito.trading.model.stream.TradingCsvInputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static com.limemojito.trading.model.StreamData.REALTIME_UUID;
+import static com.limemojito.trading.model.StreamData.StreamSource.Historical;
+
+/**
+ * Reads ticks from the format written by {@link TickInputStreamToCsv}:
+ * <code>
+ * Epoch Time (UTC),Ask,Ask Volume,Bid,Bid Volume
+ * 2018-07-05 05:00:01.08,116573,1.76,116568,4.76
+ * </code>
+ * The CSV does not hold the symbol, so it is supplied by the caller.  Ticks are created as historical data on the
+ * realtime stream, as they are when read from Dukascopy.
+ */
+public class CsvToTickInputStream extends TradingCsvInputStream<Tick> {
+    private final String symbol;
+
+    public CsvToTickInputStream(InputStream inputStream, String symbol) {
+        this(inputStream, symbol, TickVisitor.NO_VISITOR);
+    }
+
+    public CsvToTickInputStream(InputStream inputStream, String symbol, TickVisitor visitor) {
+        super(inputStream, visitor);
+        this.symbol = symbol;
+    }
+
+    public CsvToTickInputStream(ByteBuffer data, String symbol, TickVisitor visitor) {
+        super(data, visitor);
+        this.symbol = symbol;
+    }
+
+    /**
+     * Read a CSV file as memory mapped splits.  A parallel {@link TradingInputStream#stream()} parses the splits on
+     * several threads while keeping file order.
+     *
+     * @param path    CSV file to read.
+     * @param symbol  symbol of the ticks in the file.
+     * @param splits  number of splits to parse independently.
+     * @param visitor visitor applied to each tick, must be thread safe for parallel use.
+     * @return a tick stream over the file.
+     * @throws IOException on a failure mapping the file.
+     */
+    public static TradingInputStream<Tick> fromFile(Path path,
+                                                    String symbol,
+                                                    int splits,
+                                                    TickVisitor visitor) throws IOException {
+        final List<Supplier<TradingInputStream<Tick>>> segments = mapLineAlignedSplits(path, splits)
+                .stream()
+                .<Supplier<TradingInputStream<Tick>>>map(data -> () -> new CsvToTickInputStream(data, symbol, visitor))
+                .toList();
+        return new SegmentedTradingInputStream<>(segments, tick -> true);
+    }
+
+    @Override
+    protected Tick parseRecord() throws IOException {
+        return Tick.builder()
+                   .streamId(REALTIME_UUID)
+                   .symbol(symbol)
+                   .millisecondsUtc(dateTimeUtcField())
+                   .ask(intField())
+                   .askVolume(floatField())
+                   .bid(intField())
+                   .bidVolume(floatField())
+                   .source(Historical)
+                   .build();
+    }
+}
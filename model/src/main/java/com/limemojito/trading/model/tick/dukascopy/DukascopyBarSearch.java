@@ -21,16 +21,24 @@ import com.limemojito.trading.model.TradingInputStream;
 import com.limemojito.trading.model.bar.Bar;
 import com.limemojito.trading.model.bar.BarListInputStream;
 import com.limemojito.trading.model.bar.BarVisitor;
+import com.limemojito.trading.model.stream.SegmentedTradingInputStream;
 import com.limemojito.trading.model.tick.dukascopy.DukascopyCache.BarCache;
 import com.limemojito.trading.model.tick.dukascopy.criteria.BarCriteria;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.time.Instant;
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 import static com.limemojito.trading.model.bar.Bar.Period.D1;
 
@@ -40,6 +48,16 @@ public class DukascopyBarSearch extends BaseDukascopySearch {
     private final BarCache cache;
     private final DukascopyPathGenerator pathGenerator;
 
+    /**
+     * Optional executor used to resolve the days of a search concurrently.  Days are independent so a cold bar cache
+     * build can use every core of a bounded pool (for example a ForkJoinPool sized to the available processors).
+     * Bars are still delivered in time order.  When null (the default) days are resolved on the caller thread.  The
+     * executor is owned by the caller and is not shutdown by this search.
+     */
+    @Getter
+    @Setter
+    private ExecutorService dayExecutor;
+
     public TradingInputStream<Bar> searchForDaysIn(String symbol,
                                                    Bar.Period period,
                                                    Instant startTime,
@@ -54,17 +72,11 @@ public class DukascopyBarSearch extends BaseDukascopySearch {
         final Predicate<Bar> trimFilter = bar ->
                 bar.getStartInstant().compareTo(criteria.getStart()) >= 0
                         && bar.getStartInstant().compareTo(criteria.getEnd()) <= 0;
-        final BarVisitor barVisitAfterTrim = bar -> {
-            if (trimFilter.test(bar)) {
-                barVisitor.visit(bar);
-            }
-        };
         log.debug("Retrieving day of paths from {} to {}", criteria.getDayStart(), criteria.getDayEnd());
-        final List<TradingInputStream<Bar>> barInputStreams = new LinkedList<>();
-        for (int i = 0; i < criteria.getNumDays(); i++) {
-            addOneDayOfBars(symbol, criteria, barVisitAfterTrim, barInputStreams, i);
-        }
-        final TradingInputStream<Bar> barStream = TradingInputStream.combine(barInputStreams.iterator(), trimFilter);
+        final List<List<Bar>> days = dayExecutor == null
+                ? resolveDaysInOrder(symbol, criteria, trimFilter)
+                : resolveDaysInParallel(symbol, criteria, trimFilter);
+        final TradingInputStream<Bar> barStream = toDaySegments(days, barVisitor);
         log.info("Returning bar stream for {} {} {} -> {}",
                  criteria.getSymbol(),
                  criteria.getPeriod(),
@@ -73,20 +85,95 @@ public class DukascopyBarSearch extends BaseDukascopySearch {
         return barStream;
     }
 
-    private void addOneDayOfBars(String symbol,
-                                 BarCriteria criteria,
-                                 BarVisitor barVisitAfterTrim,
-                                 List<TradingInputStream<Bar>> barInputStreams,
-                                 int datIndex) throws IOException {
-        final List<String> dayPaths = pathGenerator.generatePaths(symbol,
-                                                                  criteria.getDayStart(datIndex),
-                                                                  criteria.getDayEnd(datIndex));
-        final List<Bar> oneDayOfBarStream = cache.getOneDayOfTicksAsBar(criteria, dayPaths);
-        if (oneDayOfBarStream.size() > criteria.getPeriod().periodsIn(D1)) {
-            throw new IllegalStateException("Unexpected number of bars " + oneDayOfBarStream.size());
+    /**
+     * Days are already trimmed and in memory, so the stream is sized and splits on day boundaries for parallel streams.
+     */
+    private static TradingInputStream<Bar> toDaySegments(List<List<Bar>> days, BarVisitor barVisitor) {
+        final List<Supplier<TradingInputStream<Bar>>> segments = new ArrayList<>(days.size());
+        final long[] sizes = new long[days.size()];
+        for (int i = 0; i < days.size(); i++) {
+            final List<Bar> day = days.get(i);
+            segments.add(() -> new BarListInputStream(day, barVisitor));
+            sizes[i] = day.size();
         }
-        if (!oneDayOfBarStream.isEmpty()) {
-            barInputStreams.add(new BarListInputStream(oneDayOfBarStream, barVisitAfterTrim));
+        return new SegmentedTradingInputStream<>(segments, bar -> true, sizes);
+    }
+
+    private List<List<Bar>> resolveDaysInOrder(String symbol,
+                                               BarCriteria criteria,
+                                               Predicate<Bar> trimFilter) throws IOException {
+        final List<List<Bar>> days = new ArrayList<>(criteria.getNumDays());
+        for (int i = 0; i < criteria.getNumDays(); i++) {
+            final List<Bar> oneDayOfBars = fetchOneDayOfBars(criteria, generateDayPaths(symbol, criteria, i));
+            addOneDayOfBars(oneDayOfBars, trimFilter, days);
+        }
+        return days;
+    }
+
+    /**
+     * Paths are generated on the caller thread, then each day is resolved on the day executor and collected in day
+     * order.
+     */
+    private List<List<Bar>> resolveDaysInParallel(String symbol,
+                                                  BarCriteria criteria,
+                                                  Predicate<Bar> trimFilter) throws IOException {
+        final List<Future<List<Bar>>> days = new ArrayList<>(criteria.getNumDays());
+        try {
+            for (int i = 0; i < criteria.getNumDays(); i++) {
+                final List<String> dayPaths = generateDayPaths(symbol, criteria, i);
+                days.add(dayExecutor.submit(() -> fetchOneDayOfBars(criteria, dayPaths)));
+            }
+            log.debug("Submitted {} days for parallel resolution", days.size());
+            final List<List<Bar>> resolved = new ArrayList<>(days.size());
+            for (Future<List<Bar>> day : days) {
+                addOneDayOfBars(waitFor(day), trimFilter, resolved);
+            }
+            return resolved;
+        } finally {
+            // no effect on completed days, stops outstanding work on a failure.
+            days.forEach(day -> day.cancel(true));
+        }
+    }
+
+    private List<String> generateDayPaths(String symbol, BarCriteria criteria, int dayIndex) {
+        return pathGenerator.generatePaths(symbol, criteria.getDayStart(dayIndex), criteria.getDayEnd(dayIndex));
+    }
+
+    private List<Bar> fetchOneDayOfBars(BarCriteria criteria, List<String> dayPaths) throws IOException {
+        final List<Bar> oneDayOfBars = cache.getOneDayOfTicksAsBar(criteria, dayPaths);
+        if (oneDayOfBars.size() > criteria.getPeriod().periodsIn(D1)) {
+            throw new IllegalStateException("Unexpected number of bars " + oneDayOfBars.size());
+        }
+        return oneDayOfBars;
+    }
+
+    private static void addOneDayOfBars(List<Bar> oneDayOfBars, Predicate<Bar> trimFilter, List<List<Bar>> days) {
+        final List<Bar> trimmed = new ArrayList<>(oneDayOfBars.size());
+        for (Bar bar : oneDayOfBars) {
+            if (trimFilter.test(bar)) {
+                trimmed.add(bar);
+            }
+        }
+        if (!trimmed.isEmpty()) {
+            days.add(trimmed);
+        }
+    }
+
+    private static List<Bar> waitFor(Future<List<Bar>> day) throws IOException {
+        try {
+            return day.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for a day of bars");
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException("Failed to resolve a day of bars", cause);
         }
     }
 
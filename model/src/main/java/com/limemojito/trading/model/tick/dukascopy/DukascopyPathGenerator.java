@@ -21,8 +21,6 @@ import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
-import java.text.DecimalFormat;
-import java.text.NumberFormat;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -41,13 +39,12 @@ import static java.time.temporal.TemporalAdjusters.lastDayOfYear;
 import static java.util.stream.Collectors.groupingBy;
 
 /**
- * Paths follow the shape EURUSD/2017/00/03/19h_ticks.bi5
+ * Paths follow the shape EURUSD/2017/00/03/19h_ticks.bi5.  Stateless, so one generator may be shared by searches
+ * running on several threads.
  */
 @Component
 @Slf4j
 public class DukascopyPathGenerator {
-    private final NumberFormat format00 = new DecimalFormat("00");
-
     public List<List<String>> generatePathsGroupedByDay(String symbol, Instant startInstantUtc, Instant endInstantUtc) {
         final List<String> paths = generatePaths(symbol, startInstantUtc, endInstantUtc);
         final int dayPathLength = 17;
@@ -136,12 +133,7 @@ public class DukascopyPathGenerator {
     }
 
     private String dukascopyPath(String symbol, int year, int month, int day, int hour) {
-        return format("%s/%d/%s/%s/%sh_ticks.bi5",
-                      symbol,
-                      year,
-                      format00.format(month - 1),
-                      format00.format(day),
-                      format00.format(hour));
+        return format("%s/%d/%02d/%02d/%02dh_ticks.bi5", symbol, year, month - 1, day, hour);
     }
 
     @Value
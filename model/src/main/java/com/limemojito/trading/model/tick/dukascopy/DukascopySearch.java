@@ -31,6 +31,7 @@ import jakarta.validation.Validator;
 import java.io.IOException;
 import java.io.StringWriter;
 import java.time.Instant;
+import java.util.concurrent.ExecutorService;
 
 @Service
 @Slf4j
@@ -68,6 +69,16 @@ public class DukascopySearch extends BaseDukascopySearch implements TradingSearc
         barSearch.setTheBeginningOfTime(theBeginningOfTime);
     }
 
+    /**
+     * Enables parallel day resolution for bar aggregation.  Note the executor is owned by the caller.
+     *
+     * @param dayExecutor Bounded executor to resolve days on, or null to resolve days on the caller thread.
+     * @see DukascopyBarSearch#setDayExecutor(ExecutorService)
+     */
+    public void setDayExecutor(ExecutorService dayExecutor) {
+        barSearch.setDayExecutor(dayExecutor);
+    }
+
     /**
      * A simple search using local cache, generating bars
      *
@@ -34,6 +34,7 @@ import java.nio.ByteBuffer;
 import java.time.LocalDateTime;
 import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -46,6 +47,7 @@ import static java.time.ZoneOffset.UTC;
 @Slf4j
 public class DukascopyTickInputStream implements TradingInputStream<Tick> {
     private static final int TICK_ROW_SIZE = 20;
+    private static final int BATCH_ROWS = 256;
     /**
      * Note that the month is ZERO INDEXED for the dukascopy format
      */
@@ -61,6 +63,7 @@ public class DukascopyTickInputStream implements TradingInputStream<Tick> {
     private boolean readAttempted;
     private LZMACompressorInputStream delegate;
     private Tick pushback;
+    private ByteBuffer rowBuffer;
 
     /**
      * @param validator Validator to use to check data
@@ -144,6 +147,80 @@ public class DukascopyTickInputStream implements TradingInputStream<Tick> {
         return tick;
     }
 
+    /**
+     * Reads up to {@value #BATCH_ROWS} rows per delegate read and visits each batch with one call.
+     */
+    @Override
+    @SneakyThrows
+    public int drainTo(Tick[] ticks, int offset, int length) {
+        lazyLoad();
+        int count = 0;
+        if (pushback != null && length > 0) {
+            // already visited when read
+            ticks[offset] = pushback;
+            pushback = null;
+            count++;
+        }
+        if (delegate == null) {
+            return count;
+        }
+        while (count < length) {
+            final int start = offset + count;
+            final int requested = Math.min(length - count, BATCH_ROWS);
+            final int read = readRows(ticks, start, requested);
+            if (read > 0) {
+                visitor.visitBatch(ticks, start, read);
+                count += read;
+            }
+            if (read < requested) {
+                break;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public int drainTo(Consumer<? super Tick> consumer, int max) {
+        final Tick[] batch = new Tick[Math.min(max, BATCH_ROWS)];
+        int count = 0;
+        while (count < max) {
+            final int read = drainTo(batch, 0, Math.min(max - count, batch.length));
+            for (int i = 0; i < read; i++) {
+                consumer.accept(batch[i]);
+            }
+            count += read;
+            if (read == 0) {
+                break;
+            }
+        }
+        return count;
+    }
+
+    private int readRows(Tick[] ticks, int offset, int rows) throws IOException {
+        if (rowBuffer == null) {
+            rowBuffer = ByteBuffer.allocate(TICK_ROW_SIZE * BATCH_ROWS).order(BIG_ENDIAN);
+        }
+        final byte[] bytes = rowBuffer.array();
+        final int wanted = rows * TICK_ROW_SIZE;
+        int filled = 0;
+        while (filled < wanted) {
+            final int read = delegate.read(bytes, filled, wanted - filled);
+            if (read == -1) {
+                break;
+            }
+            filled += read;
+        }
+        if (filled % TICK_ROW_SIZE != 0) {
+            throw new IOException(format("Corrupted data - read %d expected multiple of %d", filled, TICK_ROW_SIZE));
+        }
+        rowBuffer.rewind();
+        final int read = filled / TICK_ROW_SIZE;
+        for (int i = 0; i < read; i++) {
+            ticks[offset + i] = bufferToTick(rowBuffer);
+        }
+        return read;
+    }
+
     private Tick readTick() throws IOException {
         lazyLoad();
         if (pushback != null) {
@@ -161,7 +238,8 @@ public class DukascopyTickInputStream implements TradingInputStream<Tick> {
         } else if (read != buffer.capacity()) {
             throw new IOException(format("Corrupted data - read %d expected %d", read, buffer.capacity()));
         }
-        final Tick tick = bufferToTick();
+        buffer.rewind();
+        final Tick tick = bufferToTick(buffer);
         log.trace("Found tick {}", tick);
         visitor.visit(tick);
         return tick;
@@ -186,16 +264,15 @@ public class DukascopyTickInputStream implements TradingInputStream<Tick> {
         }
     }
 
-    private Tick bufferToTick() {
-        buffer.rewind();
+    private Tick bufferToTick(ByteBuffer row) {
         final Tick tick = Tick.builder()
                               .streamId(REALTIME_UUID)
                               .symbol(symbol)
-                              .millisecondsUtc(buffer.getInt() + epochGmt)
-                              .ask(buffer.getInt())
-                              .bid(buffer.getInt())
-                              .askVolume(buffer.getFloat())
-                              .bidVolume(buffer.getFloat())
+                              .millisecondsUtc(row.getInt() + epochGmt)
+                              .ask(row.getInt())
+                              .bid(row.getInt())
+                              .askVolume(row.getFloat())
+                              .bidVolume(row.getFloat())
                               .source(Historical)
                               .build();
         final Set<ConstraintViolation<Tick>> constraintViolations = validator.validate(tick);
@@ -205,7 +282,7 @@ public class DukascopyTickInputStream implements TradingInputStream<Tick> {
         return tick;
     }
 
-    private static long parseGmtStart(String datePath) {
+    static long parseGmtStart(String datePath) {
         final Matcher matcher = PATH_PATTERN.matcher(datePath);
         if (matcher.find()) {
             final LocalDateTime gmtTime = LocalDateTime.of(intAt(matcher, 1),
@@ -224,7 +301,7 @@ public class DukascopyTickInputStream implements TradingInputStream<Tick> {
         return Integer.parseInt(matcher.group(index));
     }
 
-    private static String parseSymbol(String path, int symbolEndIndex) {
+    static String parseSymbol(String path, int symbolEndIndex) {
         final int symbolStartIndex = path.substring(0, symbolEndIndex).indexOf('/') + 1;
         final String aSymbol = path.substring(symbolStartIndex, symbolEndIndex);
         log.debug("Found symbol {} from {}", aSymbol, path);
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2011-2024 Lime Mojito Pty Ltd
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.limemojito.trading.model.tick.dukascopy;
+
+import com.limemojito.trading.model.TradingInputStream;
+import com.limemojito.trading.model.tick.Tick;
+import com.limemojito.trading.model.tick.dukascopy.cache.FallbackDukascopyCache;
+import lombok.extern.slf4j.Slf4j;
+import org.tukaani.xz.LZMA2Options;
+import org.tukaani.xz.LZMAOutputStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+import static java.lang.String.format;
+import static java.nio.ByteOrder.BIG_ENDIAN;
+
+/**
+ * Encodes one hour of ticks in the Dukascopy bi5 format, the inverse of {@link DukascopyTickInputStream}.  Each tick
+ * is a 20 byte big endian row of milliseconds into the hour, ask, bid, ask volume and bid volume, and the rows are
+ * LZMA compressed on close.  An hour without ticks is written as an empty file, as Dukascopy serves them.
+ */
+@Slf4j
+public class DukascopyTickOutputStream implements Closeable {
+    private static final int TICK_ROW_SIZE = 20;
+    private static final long MILLIS_PER_HOUR = 3_600_000L;
+    private final String path;
+    private final String symbol;
+    private final long epochGmt;
+    private final OutputStream outputStream;
+    private final ByteArrayOutputStream rows;
+    private final ByteBuffer row;
+    private long lastMillisecondsUtc;
+    private boolean closed;
+
+    /**
+     * @param path         A valid dukascopy path: ie EURUSD/2018/06/05/05h_ticks.bi5
+     * @param outputStream Output to write the encoded hour to, closed when this stream is closed.
+     */
+    public DukascopyTickOutputStream(String path, OutputStream outputStream) {
+        final int symbolEndIndex = path.indexOf("/2");
+        this.path = path;
+        this.symbol = DukascopyTickInputStream.parseSymbol(path, symbolEndIndex);
+        this.epochGmt = DukascopyTickInputStream.parseGmtStart(path.substring(symbolEndIndex));
+        this.outputStream = outputStream;
+        this.rows = new ByteArrayOutputStream();
+        this.row = ByteBuffer.allocate(TICK_ROW_SIZE).order(BIG_ENDIAN);
+        this.lastMillisecondsUtc = epochGmt;
+    }
+
+    /**
+     * Encode the ticks of a stream and save them to a cache tier at the supplied path.  The tick stream is not closed.
+     *
+     * @param cache         cache tier to save the encoded hour in.
+     * @param dukascopyPath A valid dukascopy path: ie EURUSD/2018/06/05/05h_ticks.bi5
+     * @param ticks         ticks for the hour in time order.
+     * @throws IOException on an encoding or save failure.
+     */
+    public static void saveToCache(FallbackDukascopyCache cache,
+                                   String dukascopyPath,
+                                   TradingInputStream<Tick> ticks) throws IOException {
+        final ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        try (DukascopyTickOutputStream output = new DukascopyTickOutputStream(dukascopyPath, encoded)) {
+            output.writeAll(ticks);
+        }
+        try (ByteArrayInputStream input = new ByteArrayInputStream(encoded.toByteArray())) {
+            cache.save(dukascopyPath, input);
+        }
+    }
+
+    /**
+     * Add a tick to the hour.
+     *
+     * @param tick tick for the symbol and hour of the path, no earlier than the previous tick.
+     * @throws IOException if the stream is closed.
+     */
+    public void write(Tick tick) throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed " + path);
+        }
+        final long millisecondsUtc = tick.getMillisecondsUtc();
+        if (!symbol.equals(tick.getSymbol())
+                || millisecondsUtc < lastMillisecondsUtc
+                || millisecondsUtc >= epochGmt + MILLIS_PER_HOUR) {
+            throw new IllegalArgumentException(format("Tick %s %s does not follow in %s",
+                                                      tick.getSymbol(),
+                                                      tick.getInstant(),
+                                                      path));
+        }
+        row.clear();
+        row.putInt((int) (millisecondsUtc - epochGmt))
+           .putInt(tick.getAsk())
+           .putInt(tick.getBid())
+           .putFloat(tick.getAskVolume())
+           .putFloat(tick.getBidVolume());
+        rows.write(row.array(), 0, TICK_ROW_SIZE);
+        lastMillisecondsUtc = millisecondsUtc;
+    }
+
+    /**
+     * Add the remaining ticks of a stream.  The tick stream is not closed.
+     *
+     * @param ticks ticks in time order.
+     * @throws IOException if the stream is closed.
+     */
+    public void writeAll(TradingInputStream<Tick> ticks) throws IOException {
+        while (ticks.hasNext()) {
+            write(ticks.next());
+        }
+    }
+
+    /**
+     * Compresses the rows to the output and closes it.
+     *
+     * @throws IOException on a write failure.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try (OutputStream output = outputStream) {
+            if (rows.size() > 0) {
+                final LZMA2Options options = new LZMA2Options();
+                // the dictionary need not be larger than the hour, which keeps decoder allocations small.
+                options.setDictSize(Math.max(LZMA2Options.DICT_SIZE_MIN, rows.size()));
+                final LZMAOutputStream lzma = new LZMAOutputStream(output, options, rows.size());
+                rows.writeTo(lzma);
+                lzma.finish();
+            }
+        }
+        log.debug("Encoded {} ticks to {}", rows.size() / TICK_ROW_SIZE, path);
+    }
+}
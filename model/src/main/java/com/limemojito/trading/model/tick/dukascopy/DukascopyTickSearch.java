@@ -18,6 +18,7 @@
 package com.limemojito.trading.model.tick.dukascopy;
 
 import com.limemojito.trading.model.TradingInputStream;
+import com.limemojito.trading.model.stream.SegmentedTradingInputStream;
 import com.limemojito.trading.model.tick.Tick;
 import com.limemojito.trading.model.tick.TickVisitor;
 import com.limemojito.trading.model.tick.dukascopy.criteria.Criteria;
@@ -27,9 +28,10 @@ import lombok.extern.slf4j.Slf4j;
 
 import jakarta.validation.Validator;
 import java.time.Instant;
-import java.util.Iterator;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 @Slf4j
 @RequiredArgsConstructor
@@ -54,23 +56,16 @@ public class DukascopyTickSearch extends BaseDukascopySearch {
                                            List<String> paths,
                                            Predicate<Tick> tickSearchFilter,
                                            TickVisitor tickVisitor) {
-        final Iterator<String> pathIterator = paths.iterator();
-        final Iterator<TradingInputStream<Tick>> tickStreamIterator = new Iterator<>() {
-            @Override
-            public boolean hasNext() {
-                return pathIterator.hasNext();
-            }
-
-            @Override
-            public TradingInputStream<Tick> next() {
-                return new DukascopyTickInputStream(validator, cache, pathIterator.next(), tickVisitor);
-            }
-        };
+        final List<Supplier<TradingInputStream<Tick>>> hours = new ArrayList<>(paths.size());
+        for (String path : paths) {
+            hours.add(() -> new DukascopyTickInputStream(validator, cache, path, tickVisitor));
+        }
         log.info("Returning tick stream for {} {} -> {}",
                  symbol,
                  paths.get(0),
                  paths.get(paths.size() - 1));
-        return TradingInputStream.combine(tickStreamIterator, tickSearchFilter);
+        // split on hour boundaries for parallel streams.
+        return new SegmentedTradingInputStream<>(hours, tickSearchFilter);
     }
 
     private TickCriteria buildTickCriteria(String symbol, Instant startTime, Instant endTime) {
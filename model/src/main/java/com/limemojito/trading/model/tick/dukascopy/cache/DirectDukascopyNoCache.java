@@ -20,7 +20,6 @@ package com.limemojito.trading.model.tick.dukascopy.cache;
 import com.google.common.util.concurrent.RateLimiter;
 import com.limemojito.trading.model.tick.dukascopy.DukascopyCache;
 import com.limemojito.trading.model.tick.dukascopy.DukascopyTickSearch;
-import lombok.RequiredArgsConstructor;
 import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 
@@ -41,7 +40,6 @@ import static java.lang.System.getProperty;
  * This is no caching and a direct call to dukascopy.  Rate limited to work with dukascopy servers.
  */
 @Slf4j
-@RequiredArgsConstructor
 @SuppressWarnings("UnstableApiUsage")
 public class DirectDukascopyNoCache implements DukascopyCache {
     /**
@@ -79,10 +77,26 @@ public class DirectDukascopyNoCache implements DukascopyCache {
     private static final int IO_BUFFER_SIZE = 32 * 1024;
     private final AtomicInteger retryCounter = new AtomicInteger();
     private final AtomicInteger retrievePathCounter = new AtomicInteger();
+    private final String baseUrl;
+
+    /**
+     * Fetches from the url in {@link #PROP_URL}, defaulting to the Dukascopy data feed.
+     */
+    public DirectDukascopyNoCache() {
+        this(DUKASCOPY_URL);
+    }
+
+    /**
+     * @param baseUrl Base url of a Dukascopy compatible feed, such as a local stub server.  The slash on the end is
+     *                required.
+     */
+    public DirectDukascopyNoCache(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
 
     @Override
     public InputStream stream(String dukascopyPath) throws IOException {
-        final DataSource url = new UrlDataSource(DUKASCOPY_URL + dukascopyPath);
+        final DataSource url = new UrlDataSource(baseUrl + dukascopyPath);
         // play nice with Dukascopy's free data.  And if you don't they stop sending data.
         BufferedInputStream stream = fetchWithRetry(url, 1);
         retrievePathCounter.incrementAndGet();
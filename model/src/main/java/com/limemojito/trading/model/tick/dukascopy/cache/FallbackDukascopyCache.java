@@ -82,6 +82,18 @@ public abstract class FallbackDukascopyCache implements DukascopyCache {
                              fallback.cacheStats());
     }
 
+    /**
+     * Save data for a path in this cache tier, such as ticks encoded by a DukascopyTickOutputStream.  Data already
+     * cached at the path is kept.
+     *
+     * @param dukascopyPath path to save under.
+     * @param input         bi5 data for the path.
+     * @throws IOException on an io failure.
+     */
+    public void save(String dukascopyPath, InputStream input) throws IOException {
+        saveToCache(dukascopyPath, input);
+    }
+
     protected abstract void saveToCache(String dukascopyPath, InputStream input) throws IOException;
 
     /**
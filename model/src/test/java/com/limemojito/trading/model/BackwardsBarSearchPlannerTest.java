@@ -0,0 +1,90 @@
+/*
+ * Copyright 2011-2024 Lime Mojito Pty Ltd
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.limemojito.trading.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static com.limemojito.trading.model.bar.Bar.Period.H1;
+import static com.limemojito.trading.model.bar.Bar.Period.H4;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BackwardsBarSearchPlannerTest {
+    private static final Instant THE_BEGINNING_OF_TIME = Instant.parse("2018-01-01T00:00:00Z");
+    private static final Instant MONDAY_9AM = Instant.parse("2021-11-01T09:00:00Z");
+
+    @Test
+    public void shouldPlanLast500H4BarsInOneWindowFromCalendar() {
+        final BackwardsBarSearchPlanner planner = new BackwardsBarSearchPlanner(H4, 500, MONDAY_9AM, THE_BEGINNING_OF_TIME);
+
+        assertThat(planner.planNext()).isFalse();
+
+        // 500 / 6 bars a day is about 84 trading days, 16 weeks and a few days of calendar.
+        assertThat(planner.getStart()).isEqualTo("2021-07-08T00:00:00Z");
+        assertThat(planner.getEnd()).isEqualTo(MONDAY_9AM.minusNanos(1));
+        planner.found(500);
+        assertThat(planner.hasMoreWindows()).isFalse();
+    }
+
+    @Test
+    public void shouldSizeNextWindowFromObservedDensityWithoutOverlap() {
+        final BackwardsBarSearchPlanner planner = new BackwardsBarSearchPlanner(H1, 240, MONDAY_9AM, THE_BEGINNING_OF_TIME);
+        planner.planNext();
+        final Instant firstStart = planner.getStart();
+        // half the expected bars, a holiday period.
+        planner.found(120);
+
+        planner.planNext();
+
+        assertThat(planner.getEnd()).isEqualTo(firstStart.minusNanos(1));
+        // 120 remaining at under half density needs over 253 expected bars, 11 trading days.
+        assertThat(firstStart).isEqualTo("2021-10-18T00:00:00Z");
+        assertThat(planner.getStart()).isEqualTo("2021-10-01T00:00:00Z");
+    }
+
+    @Test
+    public void shouldDoubleWindowWhenNothingFound() {
+        final BackwardsBarSearchPlanner planner = new BackwardsBarSearchPlanner(H1, 24, MONDAY_9AM, THE_BEGINNING_OF_TIME);
+        planner.planNext();
+        final Instant firstStart = planner.getStart();
+        assertThat(firstStart).isEqualTo("2021-10-29T00:00:00Z");
+        planner.found(0);
+
+        planner.planNext();
+        assertThat(planner.getStart()).isEqualTo("2021-10-23T00:00:00Z");
+        planner.found(0);
+
+        planner.planNext();
+        assertThat(planner.getStart()).isEqualTo("2021-10-11T00:00:00Z");
+    }
+
+    @Test
+    public void shouldStopAtTheBeginningOfTime() {
+        final BackwardsBarSearchPlanner planner = new BackwardsBarSearchPlanner(H1,
+                                                                                1000,
+                                                                                Instant.parse("2018-01-10T00:00:00Z"),
+                                                                                THE_BEGINNING_OF_TIME);
+
+        assertThat(planner.planNext()).isTrue();
+
+        assertThat(planner.getStart()).isEqualTo(THE_BEGINNING_OF_TIME);
+        planner.found(100);
+        assertThat(planner.hasMoreWindows()).isFalse();
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright 2011-2024 Lime Mojito Pty Ltd
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.limemojito.trading.model;
+
+import com.limemojito.trading.model.bar.Bar;
+import com.limemojito.trading.model.bar.BarVisitor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static com.limemojito.trading.model.ModelPrototype.createBar;
+import static com.limemojito.trading.model.StreamData.REALTIME_UUID;
+import static com.limemojito.trading.model.bar.Bar.Period.H1;
+import static com.limemojito.trading.model.bar.BarVisitor.NO_VISITOR;
+import static com.limemojito.trading.model.stream.TradingInputStreamMapper.streamFrom;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@SuppressWarnings("resource")
+@ExtendWith(MockitoExtension.class)
+public class BulkTradingSearchTest {
+    private static final long START = 1530766800000L;
+    private final Instant startTime = Instant.ofEpochMilli(START);
+    private final Instant endTime = startTime.plus(H1.getDuration().multipliedBy(3)).minusNanos(1);
+    private final BarVisitor visitor = NO_VISITOR;
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger maxRunning = new AtomicInteger();
+    private final AtomicInteger created = new AtomicInteger();
+    private final AtomicInteger closed = new AtomicInteger();
+    @Mock
+    private TradingSearch search;
+
+    @AfterEach
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void shouldSearchSymbolsUnderConcurrencyLimit() throws Exception {
+        slowBarsForAnySymbol();
+        final List<String> symbols = List.of("EURUSD", "GBPUSD", "USDJPY", "AUDUSD", "NZDUSD", "USDCAD");
+        final BulkTradingSearch bulk = new BulkTradingSearch(search, executor, 2);
+
+        final Map<String, TradingInputStream<Bar>> bySymbol = bulk.aggregateFromTicks(symbols,
+                                                                                      H1,
+                                                                                      startTime,
+                                                                                      endTime,
+                                                                                      visitor);
+
+        assertThat(bySymbol).containsOnlyKeys(symbols);
+        assertThat(bySymbol.keySet()).containsExactlyElementsOf(symbols);
+        assertThat(bySymbol.get("USDJPY").stream().map(Bar::getSymbol)).containsOnly("USDJPY").hasSize(3);
+        assertThat(maxRunning.get()).isBetween(1, 2);
+    }
+
+    @Test
+    public void shouldMergeSymbolsInTimeOrder() throws Exception {
+        slowBarsForAnySymbol();
+        final BulkTradingSearch bulk = new BulkTradingSearch(search, executor, 4);
+
+        try (TradingInputStream<Bar> merged = bulk.aggregateFromTicksMerged(List.of("GBPUSD", "EURUSD"),
+                                                                            H1,
+                                                                            startTime,
+                                                                            endTime,
+                                                                            visitor)) {
+            final List<String> order = merged.stream()
+                                             .map(bar -> bar.getStartMillisecondsUtc() + " " + bar.getSymbol())
+                                             .collect(Collectors.toList());
+            final long hour = H1.getDuration().toMillis();
+            assertThat(order).containsExactly(START + " GBPUSD",
+                                              START + " EURUSD",
+                                              (START + hour) + " GBPUSD",
+                                              (START + hour) + " EURUSD",
+                                              (START + 2 * hour) + " GBPUSD",
+                                              (START + 2 * hour) + " EURUSD");
+        }
+    }
+
+    @Test
+    public void shouldCloseFoundStreamsWhenASymbolFails() throws Exception {
+        slowBarsForAnySymbol();
+        when(search.aggregateFromTicks(eq("BADSYM"), eq(H1), any(), any(), eq(visitor)))
+                .thenThrow(new IOException("No such symbol"));
+        final BulkTradingSearch bulk = new BulkTradingSearch(search, executor, 1);
+
+        assertThatThrownBy(() -> bulk.aggregateFromTicks(List.of("EURUSD", "BADSYM", "GBPUSD"),
+                                                         H1,
+                                                         startTime,
+                                                         endTime,
+                                                         visitor)).isInstanceOf(IOException.class)
+                                                                  .hasMessage("No such symbol");
+        executor.shutdown();
+        assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(closed.get()).isEqualTo(created.get()).isGreaterThanOrEqualTo(1);
+    }
+
+    @Test
+    public void shouldCloseStreamOfSearchRunningWhenAnotherFails() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch started = new CountDownLatch(1);
+        uninterruptibleBarsFor("EURUSD", started, release);
+        when(search.aggregateFromTicks(eq("BADSYM"), eq(H1), any(), any(), eq(visitor))).thenAnswer(invocation -> {
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            throw new IOException("No such symbol");
+        });
+        final BulkTradingSearch bulk = new BulkTradingSearch(search, executor, 2);
+
+        assertThatThrownBy(() -> bulk.aggregateFromTicks(List.of("BADSYM", "EURUSD"),
+                                                         H1,
+                                                         startTime,
+                                                         endTime,
+                                                         visitor)).isInstanceOf(IOException.class)
+                                                                  .hasMessage("No such symbol");
+        release.countDown();
+
+        assertStreamsClosed(1);
+    }
+
+    @Test
+    public void shouldCloseStreamOfRunningSearchWhenInterrupted() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch started = new CountDownLatch(1);
+        uninterruptibleBarsFor("EURUSD", started, release);
+        final BulkTradingSearch bulk = new BulkTradingSearch(search, executor, 1);
+        final CompletableFuture<Map<String, TradingInputStream<Bar>>> caller = new CompletableFuture<>();
+        final Thread callerThread = new Thread(() -> {
+            try {
+                caller.complete(bulk.aggregateFromTicks(List.of("EURUSD"), H1, startTime, endTime, visitor));
+            } catch (Throwable e) {
+                caller.completeExceptionally(e);
+            }
+        });
+        callerThread.start();
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        callerThread.interrupt();
+
+        assertThatThrownBy(() -> caller.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(InterruptedIOException.class);
+        release.countDown();
+        assertStreamsClosed(1);
+    }
+
+    @Test
+    public void shouldFailOnBadLimit() {
+        assertThatThrownBy(() -> new BulkTradingSearch(search, executor, 0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Concurrent searches must be at least 1");
+    }
+
+    private void assertStreamsClosed(int expected) throws InterruptedException {
+        executor.shutdown();
+        assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(created.get()).isEqualTo(expected);
+        assertThat(closed.get()).isEqualTo(expected);
+    }
+
+    private void uninterruptibleBarsFor(String symbol, CountDownLatch started, CountDownLatch release) throws IOException {
+        when(search.aggregateFromTicks(eq(symbol), eq(H1), eq(startTime), eq(endTime), eq(visitor)))
+                .thenAnswer(invocation -> {
+                    started.countDown();
+                    boolean released = false;
+                    while (!released) {
+                        try {
+                            released = release.await(5, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            // a search blocked in io that does not respond to interruption.
+                        }
+                    }
+                    created.incrementAndGet();
+                    return streamFrom(List.of(createBar(REALTIME_UUID, symbol, H1, START)), null, closed::incrementAndGet);
+                });
+    }
+
+    private void slowBarsForAnySymbol() throws IOException {
+        when(search.aggregateFromTicks(anyString(), eq(H1), eq(startTime), eq(endTime), eq(visitor)))
+                .thenAnswer(invocation -> {
+                    final String symbol = invocation.getArgument(0);
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    try {
+                        Thread.sleep(50);
+                    } finally {
+                        running.decrementAndGet();
+                    }
+                    final List<Bar> bars = List.of(createBar(REALTIME_UUID, symbol, H1, START),
+                                                   createBar(REALTIME_UUID, symbol, H1, START + 3_600_000L),
+                                                   createBar(REALTIME_UUID, symbol, H1, START + 7_200_000L));
+                    created.incrementAndGet();
+                    return streamFrom(bars, null, closed::incrementAndGet);
+                });
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2011-2024 Lime Mojito Pty Ltd
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.limemojito.trading.model;
+
+import com.limemojito.trading.model.bar.Bar;
+import com.limemojito.trading.model.bar.BarVisitor;
+import com.limemojito.trading.model.tick.Tick;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+
+import static com.limemojito.trading.model.ModelPrototype.createBar;
+import static com.limemojito.trading.model.ModelPrototype.createTick;
+import static com.limemojito.trading.model.StreamData.REALTIME_UUID;
+import static com.limemojito.trading.model.StreamData.StreamSource.Historical;
+import static com.limemojito.trading.model.bar.Bar.Period.H1;
+import static com.limemojito.trading.model.stream.TradingInputStreamMapper.streamFrom;
+import static com.limemojito.trading.model.tick.TickVisitor.NO_VISITOR;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class TradingSearchPublisherTest {
+    private final String symbol = "EURUSD";
+    private final Instant start = Instant.parse("2018-07-05T05:00:00Z");
+    private final Instant end = Instant.parse("2018-07-05T05:59:59Z");
+    @Mock
+    private TradingSearch search;
+
+    @Test
+    public void shouldSearchOnFirstDemand() throws Exception {
+        final Tick tick = createTick(symbol, start.toEpochMilli(), 116500, Historical);
+        when(search.search(symbol, start, end, NO_VISITOR)).thenReturn(streamFrom(List.of(tick)));
+        final TradingSearchPublisher publisher = new TradingSearchPublisher(search, Runnable::run);
+
+        final List<Tick> received = new ArrayList<>();
+        final Flow.Subscription subscription = subscribe(publisher.search(symbol, start, end, NO_VISITOR), received);
+        verifyNoInteractions(search);
+
+        subscription.request(1);
+
+        assertThat(received).containsExactly(tick);
+    }
+
+    @Test
+    public void shouldPublishBarQueries() throws Exception {
+        final Bar bar = createBar(REALTIME_UUID, symbol, H1, start.toEpochMilli());
+        when(search.aggregateFromTicks(symbol, H1, start, end, BarVisitor.NO_VISITOR)).thenReturn(streamFrom(List.of(bar)));
+        when(search.aggregateFromTicks(symbol, H1, 1, end, BarVisitor.NO_VISITOR)).thenReturn(streamFrom(List.of(bar)));
+        when(search.aggregateFromTicks(symbol, H1, start, 1, BarVisitor.NO_VISITOR)).thenReturn(streamFrom(List.of(bar)));
+        final TradingSearchPublisher publisher = new TradingSearchPublisher(search, Runnable::run);
+
+        final List<Bar> received = new ArrayList<>();
+        subscribe(publisher.aggregateFromTicks(symbol, H1, start, end, BarVisitor.NO_VISITOR), received).request(5);
+        subscribe(publisher.aggregateFromTicks(symbol, H1, 1, end, BarVisitor.NO_VISITOR), received).request(5);
+        subscribe(publisher.aggregateFromTicks(symbol, H1, start, 1, BarVisitor.NO_VISITOR), received).request(5);
+
+        assertThat(received).containsExactly(bar, bar, bar);
+    }
+
+    private static <T> Flow.Subscription subscribe(Flow.Publisher<T> publisher, List<T> received) {
+        final List<Flow.Subscription> subscription = new ArrayList<>();
+        publisher.subscribe(new Flow.Subscriber<T>() {
+            @Override
+            public void onSubscribe(Flow.Subscription s) {
+                subscription.add(s);
+            }
+
+            @Override
+            public void onNext(T item) {
+                received.add(item);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                throw new AssertionError(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+        return subscription.get(0);
+    }
+}
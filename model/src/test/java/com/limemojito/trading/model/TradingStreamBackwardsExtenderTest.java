@@ -51,9 +51,11 @@ public class TradingStreamBackwardsExtenderTest {
     @Test
     public void shouldStreamBackwardsExtendingSearch() throws Exception {
         when(search.getTheBeginningOfTime()).thenReturn(Instant.parse("2018-01-01T00:00:00Z"));
-        findBars("2021-10-28T05:00:00Z", endTime.toString(), 1);
         final int barCountBefore = 100;
-        findBars("2021-10-24T01:00:00Z", "2021-10-28T05:00:00Z", barCountBefore - 1);
+        // Tuesday to Monday 9am is expected to hold 107 trading hours, 90 are found.
+        findBars("2021-10-26T00:00:00Z", endTime.toString(), 90);
+        // The previous Monday is the next day, no day is searched twice.
+        findBars("2021-10-25T00:00:00Z", "2021-10-26T00:00:00Z", 20);
 
         TradingInputStream<Bar> backwards = TradingInputStreamBackwardsExtender.extend(symbol,
                                                                                        period,
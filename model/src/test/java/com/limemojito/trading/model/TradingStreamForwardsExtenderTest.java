@@ -20,21 +20,30 @@ package com.limemojito.trading.model;
 import com.limemojito.trading.model.bar.Bar;
 import com.limemojito.trading.model.bar.BarListInputStream;
 import com.limemojito.trading.model.bar.BarVisitor;
+import com.limemojito.trading.model.stream.TradingInputForwardSearchStream;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.io.IOException;
+import java.time.Clock;
+import java.time.DayOfWeek;
 import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.List;
 
-import static com.limemojito.trading.model.ModelPrototype.createBarListDescending;
+import static com.limemojito.trading.model.ModelPrototype.createBar;
 import static com.limemojito.trading.model.StreamData.REALTIME_UUID;
 import static com.limemojito.trading.model.bar.Bar.Period.H1;
 import static com.limemojito.trading.model.bar.BarVisitor.NO_VISITOR;
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.Mockito.doReturn;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @SuppressWarnings("resource")
 @ExtendWith(MockitoExtension.class)
@@ -48,20 +57,85 @@ public class TradingStreamForwardsExtenderTest {
     private TradingSearch search;
 
     @Test
-    public void shouldStreamBackwardsExtendingSearch() throws Exception {
-        findBars(startTime.toString(), "2021-11-05T13:00:00Z", 1);
+    public void shouldStreamForwardsExtendingSearchDayByDay() throws Exception {
+        weekdayBarsUntil(Instant.MAX);
         final int barCountAfter = 100;
-        findBars("2021-11-05T13:00:00Z", "2021-11-09T17:00:00Z", barCountAfter - 1);
 
-        TradingInputStream<Bar> backwards = TradingInputStreamForwardsExtender.extend(symbol,
-                                                                                      period,
-                                                                                      startTime,
-                                                                                      barCountAfter,
-                                                                                      visitor,
-                                                                                      search);
+        TradingInputForwardSearchStream<Bar> forwards = TradingInputStreamForwardsExtender.extend(symbol,
+                                                                                                period,
+                                                                                                startTime,
+                                                                                                barCountAfter,
+                                                                                                visitor,
+                                                                                                search);
 
-        assertThat(backwards).isNotNull();
-        assertThat(backwards).hasSize(barCountAfter);
+        final List<Bar> bars = forwards.stream().toList();
+        assertThat(bars).hasSize(barCountAfter);
+        assertThat(bars.get(0).getStartInstant()).isEqualTo(startTime);
+        assertThat(bars.get(barCountAfter - 1).getStartInstant()).isEqualTo("2021-11-05T12:00:00Z");
+        assertThat(forwards.isEndOfData()).isFalse();
+        verify(search).aggregateFromTicks(symbol,
+                                          period,
+                                          startTime,
+                                          Instant.parse("2021-11-02T00:00:00Z").minusNanos(1),
+                                          visitor);
+        verify(search).aggregateFromTicks(symbol,
+                                          period,
+                                          Instant.parse("2021-11-05T00:00:00Z"),
+                                          Instant.parse("2021-11-06T00:00:00Z").minusNanos(1),
+                                          visitor);
+    }
+
+    @Test
+    public void shouldSearchOnCallerThreadByDefault() throws Exception {
+        final Thread caller = Thread.currentThread();
+        final List<Thread> searchThreads = new ArrayList<>();
+        when(search.aggregateFromTicks(eq(symbol), eq(period), any(), any(), eq(visitor))).thenAnswer(invocation -> {
+            searchThreads.add(Thread.currentThread());
+            return new BarListInputStream(List.of(createBar(REALTIME_UUID, symbol, period, startTime.toEpochMilli())),
+                                          visitor);
+        });
+
+        try (TradingInputForwardSearchStream<Bar> forwards = TradingInputStreamForwardsExtender.extend(symbol,
+                                                                                                     period,
+                                                                                                     startTime,
+                                                                                                     3,
+                                                                                                     visitor,
+                                                                                                     search)) {
+            assertThat(forwards.stream().count()).isEqualTo(3);
+        }
+        assertThat(searchThreads).hasSize(3).containsOnly(caller);
+    }
+
+    @Test
+    public void shouldWalkOverDataGaps() throws Exception {
+        weekdayBarsUntil(Instant.MAX);
+        final Instant friday = Instant.parse("2021-11-05T20:00:00Z");
+
+        TradingInputForwardSearchStream<Bar> forwards = extend(friday, 10, Instant.parse("2021-12-01T00:00:00Z"));
+
+        final List<Bar> bars = forwards.stream().toList();
+        assertThat(bars).hasSize(10);
+        assertThat(bars.get(3).getStartInstant()).isEqualTo("2021-11-05T23:00:00Z");
+        assertThat(bars.get(4).getStartInstant()).isEqualTo("2021-11-08T00:00:00Z");
+        assertThat(forwards.isEndOfData()).isFalse();
+    }
+
+    @Test
+    public void shouldStopCleanlyAtNow() throws Exception {
+        final Instant now = Instant.parse("2021-11-02T12:00:00Z");
+        weekdayBarsUntil(now);
+
+        TradingInputForwardSearchStream<Bar> forwards = extend(startTime, 100, now);
+
+        final List<Bar> bars = forwards.stream().toList();
+        assertThat(bars).hasSize(27);
+        assertThat(bars.get(26).getStartInstant()).isEqualTo("2021-11-02T11:00:00Z");
+        assertThat(forwards.isEndOfData()).isTrue();
+        verify(search, never()).aggregateFromTicks(eq(symbol),
+                                                   eq(period),
+                                                   eq(Instant.parse("2021-11-03T00:00:00Z")),
+                                                   any(),
+                                                   eq(visitor));
     }
 
     @Test
@@ -70,11 +144,30 @@ public class TradingStreamForwardsExtenderTest {
         new TradingInputStreamForwardsExtender();
     }
 
-    private void findBars(String startTime, String endTime, int numBars) throws IOException {
-        Instant beforeInstant = Instant.parse(endTime).minusNanos(1);
-        List<Bar> firstBars = createBarListDescending(REALTIME_UUID, symbol, period, beforeInstant.toEpochMilli(), numBars);
-        doReturn(new BarListInputStream(firstBars, visitor))
-                .when(search)
-                .aggregateFromTicks(symbol, period, Instant.parse(startTime), beforeInstant, visitor);
+    private TradingInputForwardSearchStream<Bar> extend(Instant start, int barCount, Instant now) throws IOException {
+        return TradingInputStreamForwardsExtender.extend(symbol,
+                                                         period,
+                                                         start,
+                                                         barCount,
+                                                         visitor,
+                                                         search,
+                                                         Runnable::run,
+                                                         Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    private void weekdayBarsUntil(Instant now) throws IOException {
+        when(search.aggregateFromTicks(eq(symbol), eq(period), any(), any(), eq(visitor))).thenAnswer(invocation -> {
+            final Instant start = invocation.getArgument(2);
+            final Instant end = invocation.getArgument(3);
+            final List<Bar> bars = new ArrayList<>();
+            for (Instant barStart = start; !barStart.isAfter(end) && barStart.isBefore(now);
+                 barStart = barStart.plus(period.getDuration())) {
+                final DayOfWeek day = barStart.atZone(ZoneOffset.UTC).getDayOfWeek();
+                if (day != DayOfWeek.SATURDAY && day != DayOfWeek.SUNDAY) {
+                    bars.add(createBar(REALTIME_UUID, symbol, period, barStart.toEpochMilli()));
+                }
+            }
+            return new BarListInputStream(bars, visitor);
+        });
     }
 }
@@ -0,0 +1,200 @@
+/*
+ * Copyright 2011-2024 Lime Mojito Pty Ltd
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.limemojito.trading.model.bar;
+
+import com.limemojito.trading.model.bar.TickBarNotifyingAggregator.BarNotifier;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static com.limemojito.trading.model.ModelPrototype.createBar;
+import static com.limemojito.trading.model.StreamData.REALTIME_UUID;
+import static com.limemojito.trading.model.bar.AsyncBarNotifier.Backpressure.BLOCK;
+import static com.limemojito.trading.model.bar.AsyncBarNotifier.Backpressure.COALESCE;
+import static com.limemojito.trading.model.bar.AsyncBarNotifier.Backpressure.DROP_OLDEST;
+import static com.limemojito.trading.model.bar.Bar.Period.M5;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class AsyncBarNotifierTest {
+    private static final long START = 1530766800000L;
+
+    @Test
+    public void shouldDeliverInOrderToEverySubscriberAndFlushOnTheirThreads() {
+        final RecordingSubscriber first = new RecordingSubscriber();
+        final RecordingSubscriber second = new RecordingSubscriber();
+        try (AsyncBarNotifier notifier = new AsyncBarNotifier(List.of(first, second), BLOCK, 4, 2)) {
+            final List<Bar> bars = createBars("EURUSD", 10);
+            bars.forEach(notifier::notify);
+
+            notifier.flush();
+
+            assertThat(first.bars).isEqualTo(bars);
+            assertThat(second.bars).isEqualTo(bars);
+            assertThat(first.flushThreads).containsExactly("bar-notifier-0");
+            assertThat(second.flushThreads).containsExactly("bar-notifier-1");
+        }
+    }
+
+    @Test
+    public void shouldDropOldestWhenSubscriberIsSlow() throws Exception {
+        final BlockingSubscriber slow = new BlockingSubscriber();
+        try (AsyncBarNotifier notifier = new AsyncBarNotifier(List.of(slow), DROP_OLDEST, 2)) {
+            final List<Bar> bars = createBars("EURUSD", 5);
+            notifier.notify(bars.get(0));
+            slow.awaitFirstBar();
+            bars.subList(1, 5).forEach(notifier::notify);
+            slow.release();
+            notifier.flush();
+
+            assertThat(slow.bars).containsExactly(bars.get(0), bars.get(3), bars.get(4));
+            assertThat(notifier.getDiscardedCount()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    public void shouldCoalesceByPartitionKey() throws Exception {
+        final BlockingSubscriber slow = new BlockingSubscriber();
+        try (AsyncBarNotifier notifier = new AsyncBarNotifier(List.of(slow), COALESCE, 4)) {
+            final List<Bar> euro = createBars("EURUSD", 3);
+            final Bar aussie = createBar(REALTIME_UUID, "AUDUSD", M5, START);
+            notifier.notify(euro.get(0));
+            slow.awaitFirstBar();
+            notifier.notify(euro.get(1));
+            notifier.notify(aussie);
+            notifier.notify(euro.get(2));
+            slow.release();
+            notifier.flush();
+
+            assertThat(slow.bars).containsExactly(euro.get(0), euro.get(2), aussie);
+            assertThat(notifier.getDiscardedCount()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    public void shouldBlockProducerWhenFull() throws Exception {
+        final BlockingSubscriber slow = new BlockingSubscriber();
+        try (AsyncBarNotifier notifier = new AsyncBarNotifier(List.of(slow), BLOCK, 1)) {
+            final List<Bar> bars = createBars("EURUSD", 3);
+            notifier.notify(bars.get(0));
+            slow.awaitFirstBar();
+            final CompletableFuture<Void> producer = CompletableFuture.runAsync(() -> bars.subList(1, 3)
+                                                                                          .forEach(notifier::notify));
+
+            assertThatThrownBy(() -> producer.get(200, TimeUnit.MILLISECONDS)).isInstanceOf(TimeoutException.class);
+            slow.release();
+            producer.get(5, TimeUnit.SECONDS);
+            notifier.flush();
+
+            assertThat(slow.bars).isEqualTo(bars);
+            assertThat(notifier.getDiscardedCount()).isZero();
+        }
+    }
+
+    @Test
+    public void shouldRejectBarsOnceClosed() {
+        final RecordingSubscriber subscriber = new RecordingSubscriber();
+        final AsyncBarNotifier notifier = new AsyncBarNotifier(List.of(subscriber), BLOCK, 4);
+        notifier.close();
+
+        final Bar bar = createBar(REALTIME_UUID, "EURUSD", M5, START);
+        assertThatThrownBy(() -> notifier.notify(bar)).isInstanceOf(IllegalStateException.class)
+                                                      .hasMessage("Bar notifier bar-notifier-0 is closed");
+        assertThat(subscriber.bars).isEmpty();
+    }
+
+    @Test
+    public void shouldReleaseBlockedProducerOnClose() throws Exception {
+        final BlockingSubscriber slow = new BlockingSubscriber();
+        final AsyncBarNotifier notifier = new AsyncBarNotifier(List.of(slow), BLOCK, 1);
+        final List<Bar> bars = createBars("EURUSD", 3);
+        notifier.notify(bars.get(0));
+        slow.awaitFirstBar();
+        notifier.notify(bars.get(1));
+        final CompletableFuture<Void> producer = CompletableFuture.runAsync(() -> notifier.notify(bars.get(2)));
+        assertThatThrownBy(() -> producer.get(200, TimeUnit.MILLISECONDS)).isInstanceOf(TimeoutException.class);
+
+        final CompletableFuture<Void> closer = CompletableFuture.runAsync(notifier::close);
+
+        assertThatThrownBy(() -> producer.get(5, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class)
+                                                                  .hasCauseInstanceOf(IllegalStateException.class);
+        slow.release();
+        closer.get(5, TimeUnit.SECONDS);
+        assertThat(slow.bars).containsExactly(bars.get(0), bars.get(1));
+    }
+
+    @Test
+    public void shouldFailWithoutSubscribers() {
+        assertThatThrownBy(() -> new AsyncBarNotifier(List.of(), BLOCK, 1)).isInstanceOf(IllegalArgumentException.class)
+                                                                             .hasMessage("At least one subscriber is required");
+    }
+
+    private static List<Bar> createBars(String symbol, int count) {
+        final List<Bar> bars = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            bars.add(createBar(REALTIME_UUID, symbol, M5, START + i * M5.getDurationMilliseconds()));
+        }
+        return bars;
+    }
+
+    private static class RecordingSubscriber implements BarNotifier {
+        protected final List<Bar> bars = new CopyOnWriteArrayList<>();
+        private final List<String> flushThreads = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void notify(Bar bar) {
+            bars.add(bar);
+        }
+
+        @Override
+        public void flush() {
+            flushThreads.add(Thread.currentThread().getName());
+        }
+    }
+
+    private static final class BlockingSubscriber extends RecordingSubscriber {
+        private final CountDownLatch firstBar = new CountDownLatch(1);
+        private final CountDownLatch released = new CountDownLatch(1);
+
+        @Override
+        public void notify(Bar bar) {
+            super.notify(bar);
+            firstBar.countDown();
+            try {
+                released.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void awaitFirstBar() throws InterruptedException {
+            assertThat(firstBar.await(5, TimeUnit.SECONDS)).isTrue();
+        }
+
+        private void release() {
+            released.countDown();
+        }
+    }
+}
@@ -26,7 +26,11 @@ import org.apache.commons.io.IOUtils;
 import org.junit.jupiter.api.Test;
 
 import java.io.*;
+import java.util.List;
 
+import static com.limemojito.trading.model.ModelPrototype.createBar;
+import static com.limemojito.trading.model.StreamData.REALTIME_UUID;
+import static com.limemojito.trading.model.stream.TradingInputStreamMapper.streamFrom;
 import static com.limemojito.trading.model.bar.Bar.Period.*;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -100,6 +104,26 @@ public class BarInputStreamToCsvTest {
         log.info("Converted bars to file://{}", csvOutput.getAbsolutePath());
         assertFileOk("/EURUSD/2018/06/05/05h_H1_bars.csv", csvOutput);
     }
+    @Test
+    public void shouldUseSubclassFieldsOverFastPath() throws Exception {
+        final StringWriter output = new StringWriter();
+        final Bar bar = createBar(REALTIME_UUID, "EURUSD", H1, 1528174800000L);
+        try (BarInputStreamToCsv csv = new BarInputStreamToCsv(streamFrom(List.of(bar)), output) {
+            @Override
+            protected List<String> getHeader() {
+                return List.of("Symbol", "Period");
+            }
+
+            @Override
+            protected List<Object> modelToFields(Bar model) {
+                return List.of(model.getSymbol(), model.getPeriod());
+            }
+        }) {
+            csv.convert();
+        }
+
+        assertThat(output.toString()).startsWith("Symbol,Period\r\n").endsWith("\r\nEURUSD,H1\r\n");
+    }
 
     private FileInputStream tickFileInputStream() throws IOException {
         return new FileInputStream(DukascopyUtils.dukascopyClassResourceToTempFile(tickPath));
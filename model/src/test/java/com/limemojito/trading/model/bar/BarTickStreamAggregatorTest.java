@@ -37,6 +37,10 @@ import static com.limemojito.trading.model.bar.Bar.Period.H1;
 import static com.limemojito.trading.model.bar.Bar.Period.M5;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 public class BarTickStreamAggregatorTest {
 
@@ -91,6 +95,41 @@ public class BarTickStreamAggregatorTest {
                                                                  "Tick EURUSD 2019-02-02T05:20:02Z (1549084802000) is past end of bar 2019-02-02T05:19:59.999Z (1549084799999)");
     }
 
+    @Test
+    public void shouldValidateFirstTickOfBar() {
+        final Tick tick = createTick(symbol, startMillisecondsUtc + 5000, 0, Historical);
+        assertThatThrownBy(() -> barAggregator.add(tick)).isInstanceOf(ConstraintViolationException.class)
+                                                         .hasMessage("bid: must be greater than or equal to 1");
+    }
+
+    @Test
+    public void shouldCheckTickConstraintsAfterFirstTick() {
+        barAggregator.add(createTick(symbol, startMillisecondsUtc + 5000, 116928, Historical));
+
+        assertInvalidLaterTick(laterTick().bid(0).build(), "bid 0");
+        assertInvalidLaterTick(laterTick().ask(0).build(), "ask 0");
+        assertInvalidLaterTick(laterTick().askVolume(-1.0f).build(), "ask volume -1.0");
+        assertInvalidLaterTick(laterTick().bidVolume(-0.5f).build(), "bid volume -0.5");
+        assertInvalidLaterTick(laterTick().source(null).build(), "source null");
+        barAggregator.add(laterTick().build());
+        assertThat(barAggregator.toBar().getClose()).isEqualTo(116930);
+    }
+
+    @Test
+    public void shouldBeanValidateOnlyFirstTickOfBar() {
+        final Validator validator = mock(Validator.class);
+        final BarTickStreamAggregator aggregator = new BarTickStreamAggregator(validator,
+                                                                               REALTIME_UUID,
+                                                                               symbol,
+                                                                               startMillisecondsUtc,
+                                                                               M5);
+        for (int i = 0; i < 10; i++) {
+            aggregator.add(createTick(symbol, startMillisecondsUtc + i * 1000L, 116928 + i, Historical));
+        }
+
+        verify(validator, times(1)).validate(any(Tick.class));
+    }
+
     @Test
     public void shouldRoundStartTime() {
         BarTickStreamAggregator aggregator = new BarTickStreamAggregator(DukascopyUtils.setupValidator(),
@@ -174,4 +213,22 @@ public class BarTickStreamAggregatorTest {
                           expectedClose
         );
     }
+
+    private void assertInvalidLaterTick(Tick tick, String invalid) {
+        assertThatThrownBy(() -> barAggregator.add(tick)).isInstanceOf(ConstraintViolationException.class)
+                                                         .hasMessage("Tick EURUSD 2019-02-02T05:16:38Z (1549084598000) has invalid "
+                                                                     + invalid);
+    }
+
+    private Tick.TickBuilder laterTick() {
+        return Tick.builder()
+                   .streamId(REALTIME_UUID)
+                   .symbol(symbol)
+                   .millisecondsUtc(startMillisecondsUtc + 6000)
+                   .ask(116935)
+                   .bid(116930)
+                   .askVolume(1.0f)
+                   .bidVolume(1.0f)
+                   .source(Historical);
+    }
 }
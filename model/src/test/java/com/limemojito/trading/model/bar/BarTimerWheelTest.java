@@ -0,0 +1,106 @@
+/*
+ * Copyright 2011-2024 Lime Mojito Pty Ltd
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.limemojito.trading.model.bar;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class BarTimerWheelTest {
+    private static final long START = 1530766800000L;
+    private static final long RESOLUTION = 1000L;
+
+    private final BarTimerWheel<Long> wheel = new BarTimerWheel<>(RESOLUTION, START);
+
+    @Test
+    public void shouldExpireOnlyOnceDeadlinePassed() {
+        wheel.schedule(START + 5_000L, 1L);
+        final List<Long> expired = new ArrayList<>();
+
+        wheel.advance(START + 4_999L, expired::add);
+        assertThat(expired).isEmpty();
+
+        wheel.advance(START + 5_000L, expired::add);
+        assertThat(expired).containsExactly(1L);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    public void shouldExpirePastDeadlinesOnNextAdvance() {
+        wheel.schedule(START - 60_000L, 1L);
+        final List<Long> expired = new ArrayList<>();
+
+        wheel.advance(START, expired::add);
+
+        assertThat(expired).containsExactly(1L);
+    }
+
+    @Test
+    public void shouldStartFromFirstAdvanceWhenCreatedWithoutStart() {
+        final BarTimerWheel<Long> unstarted = new BarTimerWheel<>(RESOLUTION);
+        unstarted.schedule(START + 5_000L, 1L);
+        unstarted.schedule(START - 5_000L, 2L);
+        final List<Long> expired = new ArrayList<>();
+
+        unstarted.advance(START, expired::add);
+        assertThat(expired).containsExactly(2L);
+
+        unstarted.advance(START + 5_000L, expired::add);
+        assertThat(expired).containsExactly(2L, 1L);
+        assertThat(unstarted.size()).isZero();
+    }
+
+    @Test
+    public void shouldCascadeAcrossLevelsAndOverflow() {
+        final Random random = new Random(42L);
+        final long maxDelay = 30L * 24 * 60 * 60 * 1000;
+        final List<Long> deadlines = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            final long deadline = START + (long) (random.nextDouble() * maxDelay);
+            deadlines.add(deadline);
+            wheel.schedule(deadline, deadline);
+        }
+        final Set<Long> expired = new HashSet<>();
+        long now = START;
+        while (now < START + maxDelay + RESOLUTION) {
+            now += random.nextInt(6 * 60 * 60 * 1000);
+            final long at = now;
+            wheel.advance(now, deadline -> {
+                assertThat(deadline).isLessThanOrEqualTo(at);
+                expired.add(deadline);
+            });
+            final long mustHaveExpired = now - RESOLUTION;
+            assertThat(deadlines.stream().filter(deadline -> deadline <= mustHaveExpired))
+                    .allMatch(expired::contains);
+        }
+        assertThat(expired).containsExactlyInAnyOrderElementsOf(deadlines);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    public void shouldFailOnBadResolution() {
+        assertThatThrownBy(() -> new BarTimerWheel<>(0, START)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2011-2024 Lime Mojito Pty Ltd
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.limemojito.trading.model.bar;
+
+import com.limemojito.trading.model.ModelPrototype;
+import com.limemojito.trading.model.tick.dukascopy.DukascopyUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.limemojito.trading.model.StreamData.StreamSource.Historical;
+import static com.limemojito.trading.model.bar.Bar.Period.M5;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConcurrentTickBarNotifyingAggregatorTest {
+
+    @Test
+    public void shouldAggregateSymbolsAddedFromManyThreads() throws Exception {
+        final List<Bar> bars = Collections.synchronizedList(new ArrayList<>());
+        final TickBarNotifyingAggregator aggregator = new ConcurrentTickBarNotifyingAggregator(DukascopyUtils.setupValidator(),
+                                                                                               bars::add,
+                                                                                               M5);
+        final long start = 1530766800000L;
+        final int ticksPerSymbol = 10_000;
+        final List<String> symbols = List.of("EURUSD", "AUDUSD", "USDJPY", "GBPUSD");
+        final ExecutorService executor = Executors.newFixedThreadPool(symbols.size());
+        try {
+            aggregator.loadStart();
+            final List<Future<?>> futures = new ArrayList<>();
+            for (String symbol : symbols) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < ticksPerSymbol; i++) {
+                        aggregator.add(ModelPrototype.createTick(symbol, start + i, 100_000 + i, Historical));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            aggregator.loadEnd();
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(bars).hasSize(symbols.size());
+        assertThat(bars).extracting(Bar::getSymbol).containsExactlyInAnyOrderElementsOf(symbols);
+        assertThat(bars).allSatisfy(bar -> {
+            assertThat(bar.getOpen()).isEqualTo(100_000);
+            assertThat(bar.getClose()).isEqualTo(100_000 + ticksPerSymbol - 1);
+        });
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2011-2024 Lime Mojito Pty Ltd
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.limemojito.trading.model.bar;
+
+import com.limemojito.trading.model.ModelPrototype;
+import com.limemojito.trading.model.TradingInputStream;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.limemojito.trading.model.StreamData.REALTIME_UUID;
+import static com.limemojito.trading.model.StreamData.StreamSource.Historical;
+import static com.limemojito.trading.model.bar.Bar.Period.M5;
+import static com.limemojito.trading.model.bar.Bar.Period.M15;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CsvToBarInputStreamTest {
+
+    @Test
+    public void shouldReadBarCsvResource() throws Exception {
+        try (InputStream inputStream = getClass().getResourceAsStream("/EURUSD/2018/06/05/05h_M5_bars.csv");
+             TradingInputStream<Bar> read = new CsvToBarInputStream(inputStream)) {
+            final List<Bar> bars = read.stream().collect(Collectors.toList());
+            assertThat(bars).hasSize(12);
+            assertThat(bars.get(0)).usingRecursiveComparison().isEqualTo(Bar.builder()
+                                                                            .startMillisecondsUtc(1530766800000L)
+                                                                            .streamId(REALTIME_UUID)
+                                                                            .symbol("EURUSD")
+                                                                            .period(M5)
+                                                                            .open(116568)
+                                                                            .high(116571)
+                                                                            .low(116535)
+                                                                            .close(116545)
+                                                                            .source(Historical)
+                                                                            .build());
+        }
+    }
+
+    @Test
+    public void shouldReadBackWrittenCsv() throws Exception {
+        final List<Bar> bars = ModelPrototype.createBarListDescending(REALTIME_UUID, "CHFUSD", M15, 1638319200000L, 34);
+
+        try (TradingInputStream<Bar> read = new CsvToBarInputStream(new ByteArrayInputStream(toCsv(bars)))) {
+            assertThat(read.stream().collect(Collectors.toList())).usingRecursiveFieldByFieldElementComparator()
+                                                                  .isEqualTo(bars);
+        }
+    }
+
+    @Test
+    public void shouldReadMappedSplitsInParallel() throws Exception {
+        final List<Bar> bars = ModelPrototype.createBarListDescending(REALTIME_UUID, "CHFUSD", M15, 1638319200000L, 500);
+        final Path csv = Files.createTempFile("bars", ".csv");
+        Files.write(csv, toCsv(bars));
+
+        try (TradingInputStream<Bar> read = CsvToBarInputStream.fromFile(csv, 5, BarVisitor.NO_VISITOR)) {
+            assertThat(read.stream().parallel().collect(Collectors.toList()))
+                    .usingRecursiveFieldByFieldElementComparator()
+                    .isEqualTo(bars);
+        } finally {
+            Files.delete(csv);
+        }
+    }
+
+    private static byte[] toCsv(List<Bar> bars) throws IOException {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (BarInputStreamToCsv csv = new BarInputStreamToCsv(new BarListInputStream(bars, BarVisitor.NO_VISITOR),
+                                                               outputStream)) {
+            csv.convert();
+        }
+        return outputStream.toByteArray();
+    }
+}
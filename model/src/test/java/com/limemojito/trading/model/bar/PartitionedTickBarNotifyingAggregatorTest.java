@@ -0,0 +1,125 @@
+/*
+ * Copyright 2011-2024 Lime Mojito Pty Ltd
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.limemojito.trading.model.bar;
+
+import com.limemojito.trading.model.ModelPrototype;
+import com.limemojito.trading.model.tick.Tick;
+import com.limemojito.trading.model.tick.dukascopy.DukascopyUtils;
+import org.junit.jupiter.api.Test;
+
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.limemojito.trading.model.StreamData.StreamSource.Live;
+import static com.limemojito.trading.model.bar.Bar.Period.M5;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class PartitionedTickBarNotifyingAggregatorTest {
+    private static final Validator VALIDATOR = DukascopyUtils.setupValidator();
+    private static final long START = 1530766800000L;
+    private static final List<String> SYMBOLS = List.of("EURUSD", "AUDUSD", "USDJPY", "GBPUSD",
+                                                        "NZDUSD", "USDCAD", "EURGBP", "AUDNZD");
+
+    @Test
+    public void shouldMatchSingleWriterAggregationAcrossLanes() throws Exception {
+        final List<Bar> expected = new ArrayList<>();
+        final TickBarNotifyingAggregator single = new TickBarNotifyingAggregator(VALIDATOR, expected::add, M5);
+        single.loadStart();
+        for (String symbol : SYMBOLS) {
+            createTicks(symbol).forEach(single::add);
+        }
+        single.loadEnd();
+
+        final List<Bar> bars = Collections.synchronizedList(new ArrayList<>());
+        final AtomicInteger flushes = new AtomicInteger();
+        final TickBarNotifyingAggregator.BarNotifier notifier = new TickBarNotifyingAggregator.BarNotifier() {
+            @Override
+            public void notify(Bar bar) {
+                bars.add(bar);
+            }
+
+            @Override
+            public void flush() {
+                flushes.incrementAndGet();
+            }
+        };
+        final ExecutorService producers = Executors.newFixedThreadPool(SYMBOLS.size() / 2);
+        try (PartitionedTickBarNotifyingAggregator partitioned = new PartitionedTickBarNotifyingAggregator(VALIDATOR,
+                                                                                                          notifier,
+                                                                                                          M5,
+                                                                                                          3)) {
+            partitioned.loadStart();
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < SYMBOLS.size(); i += 2) {
+                final List<String> producerSymbols = SYMBOLS.subList(i, i + 2);
+                futures.add(producers.submit(() -> producerSymbols.forEach(symbol -> createTicks(symbol).forEach(partitioned::add))));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            partitioned.loadEnd();
+        } finally {
+            producers.shutdown();
+        }
+
+        assertThat(expected).hasSize(SYMBOLS.size() * 3);
+        assertThat(bars).containsExactlyInAnyOrderElementsOf(expected);
+        assertThat(flushes).hasValue(1);
+    }
+
+    @Test
+    public void shouldReportLaneFailureAtLoadEnd() throws Exception {
+        try (PartitionedTickBarNotifyingAggregator partitioned = new PartitionedTickBarNotifyingAggregator(VALIDATOR,
+                                                                                                          bar -> {
+                                                                                                          },
+                                                                                                          M5,
+                                                                                                          2)) {
+            partitioned.add(ModelPrototype.createTick("EURUSD", START + 1000, 116568, Live));
+            partitioned.add(ModelPrototype.createTick("EURUSD", START - 1000, 116568, Live));
+
+            assertThatThrownBy(partitioned::loadEnd).isInstanceOf(IllegalStateException.class)
+                                                    .hasMessage("Lane failed to aggregate ticks")
+                                                    .hasCauseInstanceOf(ConstraintViolationException.class);
+        }
+    }
+
+    @Test
+    public void shouldFailWithNoLanes() {
+        assertThatThrownBy(() -> new PartitionedTickBarNotifyingAggregator(VALIDATOR, bar -> {
+        }, M5, 0)).isInstanceOf(IllegalArgumentException.class)
+                  .hasMessage("Lane count must be at least 1 but was 0");
+    }
+
+    private static List<Tick> createTicks(String symbol) {
+        final List<Tick> ticks = new ArrayList<>();
+        final int tickCount = 3_000;
+        final long spacing = 3 * M5.getDurationMilliseconds() / tickCount;
+        for (int i = 0; i < tickCount; i++) {
+            ticks.add(ModelPrototype.createTick(symbol, START + i * spacing, 100_000 + (i * 37 + symbol.hashCode()) % 500, Live));
+        }
+        return ticks;
+    }
+}
@@ -18,12 +18,16 @@
 package com.limemojito.trading.model.bar;
 
 import com.limemojito.trading.model.ModelPrototype;
+import com.limemojito.trading.model.TradingInputStream;
 import com.limemojito.trading.model.tick.dukascopy.DukascopyUtils;
 import org.junit.jupiter.api.Test;
 
 import jakarta.validation.Validator;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
 import static com.limemojito.trading.model.ModelPrototype.createBar;
 import static com.limemojito.trading.model.StreamData.REALTIME_UUID;
@@ -32,6 +36,7 @@ import static com.limemojito.trading.model.bar.Bar.Period.H1;
 import static com.limemojito.trading.model.bar.Bar.Period.M10;
 import static com.limemojito.trading.model.bar.Bar.Period.M5;
 import static com.limemojito.trading.model.bar.BarTest.assertBar;
+import static com.limemojito.trading.model.stream.TradingInputStreamMapper.streamFrom;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
@@ -73,6 +78,25 @@ public class SmallToLargeBarAggregatorTest {
                             "BarAggregator does not support bars with different symbols.  First was EURUSD");
     }
 
+    @Test
+    public void shouldKeepStreamIdOfSmallerBarsForListsAndStreams() throws Exception {
+        final UUID backtest = UUID.randomUUID();
+        final List<Bar> descending = ModelPrototype.createBarListDescending(backtest, "EURUSD", M5, 1528174800000L, 24);
+        final List<Bar> ascending = new ArrayList<>(descending);
+        Collections.reverse(ascending);
+        final SmallToLargeBarAggregator aggregator = new SmallToLargeBarAggregator(VALIDATOR);
+
+        final List<Bar> fromList = aggregator.aggregate(H1, descending);
+        final List<Bar> fromStream;
+        try (TradingInputStream<Bar> stream = aggregator.aggregate(H1, streamFrom(ascending))) {
+            fromStream = stream.stream().collect(Collectors.toList());
+        }
+
+        assertThat(fromList).extracting(Bar::getStreamId).containsOnly(backtest);
+        assertThat(fromStream).extracting(Bar::getStreamId).containsOnly(backtest);
+        assertThat(aggregator.aggregate(H1, descending.subList(0, 1))).extracting(Bar::getStreamId).containsOnly(backtest);
+    }
+
     @Test
     public void shouldAggregateZeroBarsOk() {
         List<Bar> aggregated1H = new SmallToLargeBarAggregator(VALIDATOR).aggregate(H1, Collections.emptyList());
@@ -162,7 +186,7 @@ public class SmallToLargeBarAggregatorTest {
     public void shouldNotAggregateLargeToSmall() {
         final List<Bar> m5Bars = List.of(createBar(REALTIME_UUID, "EURUSD", D1, 1528174800000L));
         assertThrownMessage(m5Bars,
-                            "BarAggregator does not support bars with larger periods D1 that the target H1.");
+                            "BarAggregator does not support bars with larger periods D1 than the target H1.");
 
     }
 
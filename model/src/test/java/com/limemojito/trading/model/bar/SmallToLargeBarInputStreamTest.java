@@ -0,0 +1,125 @@
+/*
+ * Copyright 2011-2024 Lime Mojito Pty Ltd
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.limemojito.trading.model.bar;
+
+import com.limemojito.trading.model.TradingInputStream;
+import com.limemojito.trading.model.tick.dukascopy.DukascopyUtils;
+import org.junit.jupiter.api.Test;
+
+import jakarta.validation.Validator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static com.limemojito.trading.model.ModelPrototype.createBar;
+import static com.limemojito.trading.model.StreamData.REALTIME_UUID;
+import static com.limemojito.trading.model.bar.Bar.Period.H1;
+import static com.limemojito.trading.model.bar.Bar.Period.H4;
+import static com.limemojito.trading.model.bar.Bar.Period.M5;
+import static com.limemojito.trading.model.stream.TradingInputStreamMapper.streamFrom;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class SmallToLargeBarInputStreamTest {
+
+    private static final Validator VALIDATOR = DukascopyUtils.setupValidator();
+    private static final long START = 1528174800000L;
+
+    private final SmallToLargeBarAggregator aggregator = new SmallToLargeBarAggregator(VALIDATOR);
+
+    @Test
+    public void shouldMatchDescendingListAggregation() throws Exception {
+        final List<Bar> ascending = createVaryingBarsAscending(M5, 100);
+        final List<Bar> descending = new ArrayList<>(ascending);
+        Collections.reverse(descending);
+        final List<Bar> expected = new ArrayList<>(aggregator.aggregate(H1, descending));
+        Collections.reverse(expected);
+
+        final List<Bar> visited = new ArrayList<>();
+        final List<Bar> streamed = new ArrayList<>();
+        try (TradingInputStream<Bar> h1 = aggregator.aggregate(H1, visited::add, streamFrom(ascending))) {
+            h1.forEach(streamed::add);
+        }
+
+        assertThat(streamed).hasSize(9).isEqualTo(expected);
+        assertThat(visited).isEqualTo(streamed);
+    }
+
+    @Test
+    public void shouldChainRollUps() throws Exception {
+        final List<Bar> ascending = createVaryingBarsAscending(M5, 12 * 8);
+
+        try (TradingInputStream<Bar> h4 = aggregator.aggregate(H4, aggregator.aggregate(H1, streamFrom(ascending)))) {
+            final Bar first = h4.next();
+            assertThat(first.getStartMillisecondsUtc()).isEqualTo(Bar.startMilliSecondsFor(H4, START));
+            assertThat(first.getOpen()).isEqualTo(ascending.get(0).getOpen());
+            assertThat(h4.hasNext()).isTrue();
+        }
+    }
+
+    @Test
+    public void shouldBeEmptyForNoBars() throws Exception {
+        try (TradingInputStream<Bar> h1 = aggregator.aggregate(H1, streamFrom(Collections.<Bar>emptyList()))) {
+            assertThat(h1.hasNext()).isFalse();
+        }
+    }
+
+    @Test
+    public void shouldFailOnDescendingBars() {
+        final List<Bar> bars = List.of(createBar(REALTIME_UUID, "EURUSD", M5, START + M5.getDurationMilliseconds()),
+                                       createBar(REALTIME_UUID, "EURUSD", M5, START));
+        final TradingInputStream<Bar> h1 = aggregator.aggregate(H1, streamFrom(bars));
+
+        assertThatThrownBy(h1::next).isInstanceOf(IllegalArgumentException.class)
+                                    .hasMessage("BarAggregator requires bars sorted in ascending time");
+    }
+
+    @Test
+    public void shouldFailOnMixedSymbols() {
+        final List<Bar> bars = List.of(createBar(REALTIME_UUID, "EURUSD", M5, START),
+                                       createBar(REALTIME_UUID, "AUDUSD", M5, START + M5.getDurationMilliseconds()));
+        final TradingInputStream<Bar> h1 = aggregator.aggregate(H1, streamFrom(bars));
+
+        assertThatThrownBy(h1::next).isInstanceOf(IllegalArgumentException.class)
+                                    .hasMessage("BarAggregator does not support bars with different symbols.  First was EURUSD");
+    }
+
+    @Test
+    public void shouldFailOnLargerPeriods() {
+        final List<Bar> bars = List.of(createBar(REALTIME_UUID, "EURUSD", H4, START));
+        final TradingInputStream<Bar> h1 = aggregator.aggregate(H1, streamFrom(bars));
+
+        assertThatThrownBy(h1::next).isInstanceOf(IllegalArgumentException.class)
+                                    .hasMessage("BarAggregator does not support bars with larger periods H4 than the target H1.");
+    }
+
+    private static List<Bar> createVaryingBarsAscending(Bar.Period period, int numBars) {
+        final List<Bar> bars = new ArrayList<>();
+        for (int i = 0; i < numBars; i++) {
+            final int base = 116000 + (i * 7) % 50;
+            bars.add(createBar(REALTIME_UUID, "EURUSD", period, START + i * period.getDurationMilliseconds())
+                             .toBuilder()
+                             .open(base)
+                             .high(base + 20 + i % 3)
+                             .low(base - 10 - i % 5)
+                             .close(base + 5)
+                             .build());
+        }
+        return bars;
+    }
+}
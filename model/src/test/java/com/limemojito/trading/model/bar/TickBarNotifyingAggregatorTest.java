@@ -31,7 +31,12 @@ import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
 import java.util.List;
+import java.util.UUID;
 
 import static com.limemojito.trading.model.StreamData.REALTIME_UUID;
 import static com.limemojito.trading.model.StreamData.StreamSource.Historical;
@@ -96,6 +101,123 @@ public class TickBarNotifyingAggregatorTest {
         assert7amBar(bars.get(24));
     }
 
+    @Test
+    public void shouldAggregateInterleavedPartitionsSeparately() {
+        final long start = 1530766800000L;
+        final UUID otherStream = UUID.randomUUID();
+        aggregator.loadStart();
+        aggregator.add(ModelPrototype.createTick("EURUSD", start, 116568, Historical));
+        aggregator.add(ModelPrototype.createTick("AUDUSD", start + 1, 70000, Historical));
+        aggregator.add(ModelPrototype.createTick(otherStream, "EURUSD", start + 2, 116000, Historical));
+        aggregator.add(ModelPrototype.createTick("EURUSD", start + 3, 116571, Historical));
+        aggregator.add(ModelPrototype.createTick("AUDUSD", start + 4, 70010, Historical));
+        aggregator.add(ModelPrototype.createTick("EURUSD", start + M5.getDurationMilliseconds(), 116600, Historical));
+        aggregator.loadEnd();
+
+        verify(barSender, Mockito.times(4)).notify(barCaptor.capture());
+        verify(barSender).flush();
+        final List<Bar> bars = barCaptor.getAllValues();
+        Assertions.assertThat(bars.get(0)).extracting(Bar::getSymbol, Bar::getOpen, Bar::getClose)
+                  .containsExactly("EURUSD", 116568, 116571);
+        Assertions.assertThat(bars.subList(1, 4))
+                  .extracting(Bar::getStreamId, Bar::getSymbol, Bar::getOpen, Bar::getClose)
+                  .containsExactlyInAnyOrder(Assertions.tuple(REALTIME_UUID, "EURUSD", 116600, 116600),
+                                             Assertions.tuple(REALTIME_UUID, "AUDUSD", 70000, 70010),
+                                             Assertions.tuple(otherStream, "EURUSD", 116000, 116000));
+    }
+
+    @Test
+    public void shouldCloseQuietBarByTimeAndDropLateTicks() {
+        final TickBarNotifyingAggregator timed = createTimedAggregator(Duration.ZERO);
+        final long barStart = Bar.startMilliSecondsFor(M5, System.currentTimeMillis() - Duration.ofMinutes(20).toMillis());
+        timed.add(ModelPrototype.createTick("EURUSD", barStart, 116568, Historical));
+
+        timed.closeExpired(System.currentTimeMillis());
+        verify(barSender).notify(barCaptor.capture());
+        Assertions.assertThat(barCaptor.getValue().getStartMillisecondsUtc()).isEqualTo(barStart);
+
+        timed.add(ModelPrototype.createTick("EURUSD", barStart + 1, 116570, Historical));
+        timed.add(ModelPrototype.createTick("EURUSD", barStart + M5.getDurationMilliseconds(), 116600, Historical));
+        timed.loadEnd();
+
+        verify(barSender, Mockito.times(2)).notify(barCaptor.capture());
+        verify(barSender).flush();
+        Assertions.assertThat(barCaptor.getAllValues().get(2).getClose()).isEqualTo(116600);
+    }
+
+    @Test
+    public void shouldWaitForGraceBeforeClosingByTime() {
+        final Duration grace = Duration.ofSeconds(30);
+        final TickBarNotifyingAggregator timed = createTimedAggregator(grace);
+        final long now = System.currentTimeMillis();
+        timed.add(ModelPrototype.createTick("EURUSD", now, 116568, Historical));
+        final long barEnd = Bar.endMilliSecondsFor(M5, now);
+
+        timed.closeExpired(barEnd + grace.toMillis());
+        Mockito.verifyNoInteractions(barSender);
+
+        timed.closeExpired(barEnd + grace.toMillis() + 1);
+        verify(barSender).notify(barCaptor.capture());
+        Assertions.assertThat(barCaptor.getValue().getStartMillisecondsUtc())
+                  .isEqualTo(Bar.startMilliSecondsFor(M5, now));
+    }
+
+    @Test
+    public void shouldCloseByTimeOnClockBehindWallClock() {
+        final Duration grace = Duration.ofSeconds(1);
+        final TickBarNotifyingAggregator timed = createTimedAggregator(grace);
+        final long barStart = 1530766800000L;
+        final long barEnd = Bar.endMilliSecondsFor(M5, barStart);
+        timed.add(ModelPrototype.createTick("EURUSD", barStart, 116568, Historical));
+
+        timed.closeExpired(replayClock(barStart + 60_000L).millis());
+        Mockito.verifyNoInteractions(barSender);
+
+        timed.closeExpired(replayClock(barEnd + grace.toMillis() + 1).millis());
+        verify(barSender).notify(barCaptor.capture());
+        Assertions.assertThat(barCaptor.getValue().getStartMillisecondsUtc()).isEqualTo(barStart);
+    }
+
+    @Test
+    public void shouldCloseLaterBarByTimeAfterPartitionMovesOn() {
+        final TickBarNotifyingAggregator timed = createTimedAggregator(Duration.ZERO);
+        final long firstBar = 1530766800000L;
+        final long secondBar = firstBar + M5.getDurationMilliseconds();
+        timed.add(ModelPrototype.createTick("EURUSD", firstBar, 116568, Historical));
+        timed.add(ModelPrototype.createTick("EURUSD", secondBar, 116600, Historical));
+        verify(barSender).notify(barCaptor.capture());
+
+        timed.closeExpired(secondBar + 1_000L);
+        verify(barSender).notify(barCaptor.capture());
+
+        timed.closeExpired(secondBar + M5.getDurationMilliseconds());
+        verify(barSender, Mockito.times(2)).notify(barCaptor.capture());
+        Assertions.assertThat(barCaptor.getValue().getStartMillisecondsUtc()).isEqualTo(secondBar);
+    }
+
+    @Test
+    public void shouldNotCloseByTimeDuringLoad() {
+        final TickBarNotifyingAggregator timed = createTimedAggregator(Duration.ZERO);
+        final long barStart = Bar.startMilliSecondsFor(M5, System.currentTimeMillis() - Duration.ofMinutes(20).toMillis());
+        timed.loadStart();
+        timed.add(ModelPrototype.createTick("EURUSD", barStart, 116568, Historical));
+        timed.closeExpired(System.currentTimeMillis());
+        Mockito.verifyNoInteractions(barSender);
+
+        timed.loadEnd();
+        timed.closeExpired(System.currentTimeMillis());
+
+        verify(barSender).notify(barCaptor.capture());
+        verify(barSender).flush();
+    }
+
+    @Test
+    public void shouldFailToCloseByTimeWithoutGrace() {
+        Assertions.assertThatThrownBy(() -> aggregator.closeExpired(System.currentTimeMillis()))
+                  .isInstanceOf(IllegalStateException.class)
+                  .hasMessage("Aggregator was not created with a close grace");
+    }
+
     @Test
     public void shouldCoverDefaultMethod() {
         final TickBarNotifyingAggregator.BarNotifier notifier = System.out::println;
@@ -104,6 +226,14 @@ public class TickBarNotifyingAggregatorTest {
         notifier.flush();
     }
 
+    private static Clock replayClock(long epochMillis) {
+        return Clock.fixed(Instant.ofEpochMilli(epochMillis), ZoneOffset.UTC);
+    }
+
+    private TickBarNotifyingAggregator createTimedAggregator(Duration grace) {
+        return new TickBarNotifyingAggregator(DukascopyUtils.setupValidator(), barSender, aggPeriod, grace);
+    }
+
     private void performLoad(String... paths) throws IOException {
         aggregator.loadStart();
         for (String path : paths) {
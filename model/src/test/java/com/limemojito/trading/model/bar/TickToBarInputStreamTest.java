@@ -17,7 +17,9 @@
 
 package com.limemojito.trading.model.bar;
 
+import com.limemojito.trading.model.TickDataLoader;
 import com.limemojito.trading.model.TradingInputStream;
+import com.limemojito.trading.model.stream.TradingInputStreamMapper;
 import com.limemojito.trading.model.tick.Tick;
 import com.limemojito.trading.model.tick.dukascopy.DukascopyTickInputStream;
 import com.limemojito.trading.model.tick.dukascopy.cache.DirectDukascopyNoCache;
@@ -28,8 +30,12 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import jakarta.validation.Validator;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import static com.limemojito.trading.model.TickDataLoader.createTickInputStreamFromClasspath;
 import static com.limemojito.trading.model.bar.Bar.Period.M5;
 import static com.limemojito.trading.model.tick.dukascopy.DukascopyUtils.setupValidator;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -82,6 +88,44 @@ public class TickToBarInputStreamTest {
         }
     }
 
+    @Test
+    public void shouldEmitFirstBarBeforeReadingAllTicks() throws Exception {
+        final String path = "EURUSD/2018/06/05/05h_ticks.bi5";
+        final int totalTicks = TickDataLoader.loadTickData(path).size();
+        final AtomicInteger ticksRead = new AtomicInteger();
+        try (TradingInputStream<Tick> ticks = TradingInputStreamMapper.map(createTickInputStreamFromClasspath(path),
+                                                                           tick -> {
+                                                                               ticksRead.incrementAndGet();
+                                                                               return tick;
+                                                                           });
+             TickToBarInputStream barStream = new TickToBarInputStream(VALIDATOR, M5, ticks)) {
+            final Bar first = barStream.next();
+
+            assertThat(first.getStartInstant()).isEqualTo("2018-07-05T05:00:00Z");
+            assertThat(ticksRead.get()).isLessThan(totalTicks);
+        }
+    }
+
+    @Test
+    public void shouldMatchInMemoryConversion() throws Exception {
+        final String path = "EURUSD/2018/06/05/05h_ticks.bi5";
+        final List<Bar> expected;
+        try (TickToBarList list = new TickToBarList(VALIDATOR, M5, createTickInputStreamFromClasspath(path))) {
+            expected = list.convert();
+        }
+        final List<Bar> visited = new ArrayList<>();
+        final List<Bar> streamed = new ArrayList<>();
+        try (TickToBarInputStream barStream = new TickToBarInputStream(VALIDATOR,
+                                                                       M5,
+                                                                       visited::add,
+                                                                       createTickInputStreamFromClasspath(path))) {
+            barStream.forEach(streamed::add);
+        }
+
+        assertThat(streamed).hasSize(12).isEqualTo(expected);
+        assertThat(visited).isEqualTo(streamed);
+    }
+
     private TickToBarInputStream create() {
         return new TickToBarInputStream(VALIDATOR, M5, tickInputStream);
     }
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2011-2024 Lime Mojito Pty Ltd
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.limemojito.trading.model.bar;
+
+import com.limemojito.trading.model.ModelPrototype;
+import com.limemojito.trading.model.tick.dukascopy.DukascopyUtils;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static com.limemojito.trading.model.StreamData.StreamSource.Live;
+import static com.limemojito.trading.model.bar.Bar.Period.M5;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TimedBarCloserTest {
+
+    @Test
+    public void shouldCloseQuietBarsFromClock() throws Exception {
+        final List<Bar> bars = new CopyOnWriteArrayList<>();
+        final ConcurrentTickBarNotifyingAggregator aggregator = new ConcurrentTickBarNotifyingAggregator(DukascopyUtils.setupValidator(),
+                                                                                                         bars::add,
+                                                                                                         M5,
+                                                                                                         Duration.ofSeconds(1));
+        final long quietStart = System.currentTimeMillis() - Duration.ofMinutes(10).toMillis();
+        aggregator.add(ModelPrototype.createTick("AUDNZD", quietStart, 108000, Live));
+        final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        final TimedBarCloser closer = new TimedBarCloser(aggregator, scheduler, Duration.ofMillis(10), Clock.systemUTC());
+        try {
+            final long waitUntil = System.currentTimeMillis() + 5_000L;
+            while (bars.isEmpty() && System.currentTimeMillis() < waitUntil) {
+                Thread.sleep(10L);
+            }
+        } finally {
+            closer.close();
+            scheduler.shutdown();
+        }
+
+        assertThat(bars).hasSize(1);
+        assertThat(bars.get(0).getSymbol()).isEqualTo("AUDNZD");
+        assertThat(bars.get(0).getStartMillisecondsUtc()).isEqualTo(Bar.startMilliSecondsFor(M5, quietStart));
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2011-2024 Lime Mojito Pty Ltd
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.limemojito.trading.model.stream;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.limemojito.test.ObjectMapperPrototype;
+import com.limemojito.trading.model.TickDataLoader;
+import com.limemojito.trading.model.TradingInputStream;
+import com.limemojito.trading.model.tick.Tick;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ChunkedNdJsonInputStreamTest {
+    private final ObjectMapper mapper = ObjectMapperPrototype.buildBootLikeMapper();
+    private final TradingInputJsonStreams jsonStreams = new TradingInputJsonStreams(mapper);
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    private final List<Tick> ticks;
+
+    public ChunkedNdJsonInputStreamTest() throws IOException {
+        ticks = TickDataLoader.loadTickData("EURUSD/2018/06/05/05h_ticks.bi5");
+    }
+
+    @AfterEach
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void shouldWriteOneModelPerLine() throws Exception {
+        final String ndJson = writeNdJson();
+
+        final String[] lines = ndJson.split("\n");
+        assertThat(ndJson).endsWith("}\n");
+        assertThat(lines).hasSize(ticks.size());
+        assertThat(mapper.readValue(lines[10], Tick.class)).isEqualTo(ticks.get(10));
+        assertThat(lines[10]).isEqualTo(mapper.writeValueAsString(ticks.get(10)));
+    }
+
+    @Test
+    public void shouldReadInOrderOnCallingThread() throws Exception {
+        final AtomicInteger visited = new AtomicInteger();
+        try (TradingInputStream<Tick> read = jsonStreams.createNdJsonStream(input(writeNdJson()),
+                                                                            Tick.class,
+                                                                            tick -> visited.incrementAndGet())) {
+            assertThat(read.stream().collect(Collectors.toList())).isEqualTo(ticks);
+        }
+        assertThat(visited.get()).isEqualTo(ticks.size());
+    }
+
+    @Test
+    public void shouldParseSmallChunksInParallelInOrder() throws Exception {
+        final List<Thread> visitThreads = new ArrayList<>();
+        try (TradingInputStream<Tick> read = chunked(writeNdJson(),
+                                                     4,
+                                                     4096,
+                                                     tick -> visitThreads.add(Thread.currentThread()))) {
+            assertThat(read.stream().collect(Collectors.toList())).isEqualTo(ticks);
+        }
+        assertThat(visitThreads).hasSize(ticks.size()).containsOnly(Thread.currentThread());
+    }
+
+    @Test
+    public void shouldGrowChunksForLinesLongerThanChunk() throws Exception {
+        try (TradingInputStream<Tick> read = chunked(writeNdJson(), 2, 16, tick -> { })) {
+            assertThat(read.stream().collect(Collectors.toList())).isEqualTo(ticks);
+        }
+    }
+
+    @Test
+    public void shouldReadWithoutTrailingNewLineAndWithBlankLines() throws Exception {
+        final String ndJson = mapper.writeValueAsString(ticks.get(0))
+                + "\r\n\n"
+                + mapper.writeValueAsString(ticks.get(1));
+        try (TradingInputStream<Tick> read = chunked(ndJson, 2, 8, tick -> { })) {
+            assertThat(read.stream().collect(Collectors.toList())).containsExactly(ticks.get(0), ticks.get(1));
+        }
+    }
+
+    @Test
+    public void shouldReadEmptyInput() throws Exception {
+        final ByteArrayOutputStream empty = new ByteArrayOutputStream();
+        jsonStreams.writeAsNdJson(List.<Tick>of(), empty);
+        assertThat(empty.size()).isZero();
+
+        try (TradingInputStream<Tick> read = chunked("", 2, 8, tick -> { })) {
+            assertThat(read.hasNext()).isFalse();
+        }
+    }
+
+    @Test
+    public void shouldFailOnBadLine() throws Exception {
+        final String ndJson = mapper.writeValueAsString(ticks.get(0)) + "\n{\"bid\":\n";
+        try (TradingInputStream<Tick> read = chunked(ndJson, 2, 4096, tick -> { })) {
+            assertThatThrownBy(read::hasNext).isInstanceOf(UncheckedIOException.class)
+                                             .hasCauseInstanceOf(JsonProcessingException.class);
+        }
+    }
+
+    private TradingInputStream<Tick> chunked(String ndJson,
+                                             int chunksInFlight,
+                                             int chunkSize,
+                                             TradingInputStreamMapper.Visitor<Tick> visitor) {
+        return new ChunkedNdJsonInputStream<>(input(ndJson),
+                                              mapper.readerFor(Tick.class),
+                                              visitor,
+                                              executor,
+                                              chunksInFlight,
+                                              chunkSize);
+    }
+
+    private String writeNdJson() throws IOException {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (TradingInputStream<Tick> stream = TradingInputStreamMapper.streamFrom(ticks)) {
+            jsonStreams.writeAsNdJson(stream, outputStream);
+        }
+        return outputStream.toString(UTF_8);
+    }
+
+    private static ByteArrayInputStream input(String ndJson) {
+        return new ByteArrayInputStream(ndJson.getBytes(UTF_8));
+    }
+}
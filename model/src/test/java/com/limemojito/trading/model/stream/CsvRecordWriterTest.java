@@ -0,0 +1,101 @@
+/*
+ * Copyright 2011-2024 Lime Mojito Pty Ltd
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.limemojito.trading.model.stream;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Random;
+
+import static java.time.format.DateTimeFormatter.ISO_LOCAL_DATE;
+import static java.time.format.DateTimeFormatter.ISO_LOCAL_TIME;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CsvRecordWriterTest {
+
+    @Test
+    public void shouldFormatDateTimesAsIsoLocalDateAndTime() throws Exception {
+        final long[] instants = {0L,
+                                 -1L,
+                                 1530766801080L,
+                                 1530766801100L,
+                                 1530766801005L,
+                                 1530766801999L,
+                                 Instant.parse("2018-12-31T23:59:59.010Z").toEpochMilli(),
+                                 Instant.parse("1969-12-31T00:00:00Z").toEpochMilli()};
+        final StringWriter fast = new StringWriter();
+        final CsvRecordWriter writer = new CsvRecordWriter(fast);
+        final StringWriter expected = new StringWriter();
+        final CSVPrinter printer = new CSVPrinter(expected, CSVFormat.EXCEL);
+        for (long instant : instants) {
+            writer.dateTimeUtc(instant).endRecord();
+            final LocalDateTime dateTime = LocalDateTime.ofInstant(Instant.ofEpochMilli(instant), ZoneOffset.UTC);
+            printer.printRecord(ISO_LOCAL_DATE.format(dateTime) + " " + ISO_LOCAL_TIME.format(dateTime));
+        }
+        writer.flush();
+
+        assertThat(fast.toString()).isEqualTo(expected.toString());
+    }
+
+    @Test
+    public void shouldMatchCommonsCsvForFields() throws Exception {
+        final Random random = new Random(42);
+        final StringWriter fast = new StringWriter();
+        final CsvRecordWriter writer = new CsvRecordWriter(fast);
+        final StringWriter expected = new StringWriter();
+        final CSVPrinter printer = new CSVPrinter(expected, CSVFormat.EXCEL);
+        final String[] strings = {"EURUSD", "M10", "", null, "A,B", "say \"hi\"", " lead", "trail ", "#x", "line\nbreak"};
+        for (String string : strings) {
+            writer.field(string).field(1).endRecord();
+            printer.printRecord(string, 1);
+            writer.field(2).field(string).endRecord();
+            printer.printRecord(2, string);
+        }
+        for (int i = 0; i < 10_000; i++) {
+            final int value = random.nextInt();
+            final float volume = random.nextFloat() * 100;
+            writer.field(value).field(volume).field(-value).endRecord();
+            printer.printRecord(value, volume, -value);
+        }
+        writer.field(Integer.MIN_VALUE).field(Integer.MAX_VALUE).field(0).field(0.0f).endRecord();
+        printer.printRecord(Integer.MIN_VALUE, Integer.MAX_VALUE, 0, 0.0f);
+        writer.flush();
+
+        assertThat(fast.toString()).isEqualTo(expected.toString());
+    }
+
+    @Test
+    public void shouldWriteFieldsLargerThanBuffer() throws Exception {
+        final char[] large = new char[40_000];
+        Arrays.fill(large, 'x');
+        final String value = new String(large);
+        final StringWriter fast = new StringWriter();
+        final CsvRecordWriter writer = new CsvRecordWriter(fast);
+
+        writer.field(1).field(value).endRecord();
+        writer.flush();
+
+        assertThat(fast.toString()).isEqualTo("1," + value + "\r\n");
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2011-2024 Lime Mojito Pty Ltd
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.limemojito.trading.model.stream;
+
+import com.limemojito.test.ObjectMapperPrototype;
+import com.limemojito.trading.model.TickDataLoader;
+import com.limemojito.trading.model.TradingInputStream;
+import com.limemojito.trading.model.tick.Tick;
+import com.limemojito.trading.model.tick.TickInputStreamToCsv;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ParallelGzipOutputStreamTest {
+    private static final String TICK_PATH = "EURUSD/2018/06/05/06h_ticks.bi5";
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void shouldWriteConcatenatedGzipMembersInOrder() throws Exception {
+        final byte[] data = new byte[100_000];
+        new Random(42).nextBytes(data);
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        try (ParallelGzipOutputStream gzip = new ParallelGzipOutputStream(outputStream, executor, 4096, 3)) {
+            gzip.write(data, 0, 10);
+            gzip.write(data[10]);
+            gzip.write(data, 11, data.length - 11);
+        }
+
+        assertThat(gunzip(outputStream.toByteArray())).isEqualTo(data);
+        assertThat(countGzipMembers(outputStream.toByteArray())).isEqualTo(25);
+    }
+
+    @Test
+    public void shouldCompressCsvExport() throws Exception {
+        final ByteArrayOutputStream plain = new ByteArrayOutputStream();
+        try (TickInputStreamToCsv csv = new TickInputStreamToCsv(TickDataLoader.createTickInputStreamFromClasspath(
+                TICK_PATH), plain)) {
+            csv.convert();
+        }
+        final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (TickInputStreamToCsv csv = new TickInputStreamToCsv(TickDataLoader.createTickInputStreamFromClasspath(
+                TICK_PATH), new ParallelGzipOutputStream(compressed, executor, 8192, 4))) {
+            csv.convert();
+        }
+
+        assertThat(withoutComments(new String(gunzip(compressed.toByteArray()), UTF_8)))
+                .isEqualTo(withoutComments(plain.toString(UTF_8)));
+    }
+
+    @Test
+    public void shouldCompressNdJsonExport() throws Exception {
+        final TradingInputJsonStreams jsonStreams = new TradingInputJsonStreams(ObjectMapperPrototype.buildBootLikeMapper());
+        final List<Tick> ticks = TickDataLoader.loadTickData(TICK_PATH);
+        final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (ParallelGzipOutputStream gzip = new ParallelGzipOutputStream(compressed, executor)) {
+            jsonStreams.writeAsNdJson(ticks, gzip);
+        }
+
+        try (TradingInputStream<Tick> read = jsonStreams.createNdJsonStream(new GZIPInputStream(new ByteArrayInputStream(
+                compressed.toByteArray())), Tick.class)) {
+            assertThat(read.stream().collect(Collectors.toList())).isEqualTo(ticks);
+        }
+    }
+
+    @Test
+    public void shouldWriteEmptyStreamForNoData() throws Exception {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        new ParallelGzipOutputStream(outputStream, executor).close();
+
+        assertThat(outputStream.size()).isZero();
+    }
+
+    @Test
+    public void shouldFailWriteAfterClose() throws Exception {
+        final ParallelGzipOutputStream gzip = new ParallelGzipOutputStream(new ByteArrayOutputStream(), executor);
+        gzip.close();
+
+        assertThatThrownBy(() -> gzip.write(1)).isInstanceOf(IOException.class).hasMessage("Stream closed");
+    }
+
+    private static byte[] gunzip(byte[] compressed) throws IOException {
+        try (InputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return inputStream.readAllBytes();
+        }
+    }
+
+    private static int countGzipMembers(byte[] compressed) {
+        int members = 0;
+        for (int i = 0; i < compressed.length - 2; i++) {
+            if (compressed[i] == (byte) 0x1f && compressed[i + 1] == (byte) 0x8b && compressed[i + 2] == 8) {
+                members++;
+            }
+        }
+        return members;
+    }
+
+    private static String withoutComments(String csv) {
+        return csv.lines().filter(line -> !line.startsWith("#")).collect(Collectors.joining("\n"));
+    }
+}
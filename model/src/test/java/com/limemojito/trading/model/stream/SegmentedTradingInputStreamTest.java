@@ -0,0 +1,126 @@
+/*
+ * Copyright 2011-2024 Lime Mojito Pty Ltd
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.limemojito.trading.model.stream;
+
+import com.limemojito.trading.model.TradingInputStream;
+import com.limemojito.trading.model.tick.Tick;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static com.limemojito.trading.model.ModelPrototype.createTick;
+import static com.limemojito.trading.model.StreamData.StreamSource.Historical;
+import static com.limemojito.trading.model.TickDataLoader.createTickInputStreamFromClasspath;
+import static com.limemojito.trading.model.stream.TradingInputStreamMapper.streamFrom;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SegmentedTradingInputStreamTest {
+    private static final List<String> HOURS = List.of("EURUSD/2018/06/05/05h_ticks.bi5",
+                                                      "EURUSD/2018/06/05/06h_ticks.bi5",
+                                                      "EURUSD/2018/06/05/07h_ticks.bi5");
+    private static final long START = 1530766800000L;
+
+    @Test
+    public void shouldKeepOrderInParallelStream() throws Exception {
+        final List<Tick> sequential = new ArrayList<>();
+        try (TradingInputStream<Tick> ticks = createHourStream()) {
+            ticks.forEach(sequential::add);
+        }
+
+        final List<Tick> parallel;
+        try (TradingInputStream<Tick> ticks = createHourStream()) {
+            parallel = ticks.stream().parallel().collect(Collectors.toList());
+        }
+
+        assertThat(sequential).hasSizeGreaterThan(10_000);
+        assertThat(parallel).isEqualTo(sequential);
+    }
+
+    @Test
+    public void shouldSplitOnSegmentsWithoutSizeWhenUnknown() throws Exception {
+        try (TradingInputStream<Tick> ticks = createHourStream()) {
+            final Spliterator<Tick> spliterator = ticks.spliterator();
+
+            assertThat(spliterator.characteristics()).isEqualTo(Spliterator.ORDERED | Spliterator.NONNULL);
+            assertThat(spliterator.trySplit()).isNotNull();
+            assertThat(spliterator.trySplit()).isNotNull();
+            assertThat(spliterator.trySplit()).isNull();
+        }
+    }
+
+    @Test
+    public void shouldBeSizedWhenSegmentSizesKnown() throws Exception {
+        final List<Tick> first = ticks("EURUSD", 0, 10, 20);
+        final List<Tick> second = ticks("EURUSD", 30, 40);
+        final List<Supplier<TradingInputStream<Tick>>> segments = List.of(() -> streamFrom(first),
+                                                                          () -> streamFrom(second));
+        try (TradingInputStream<Tick> ticks = new SegmentedTradingInputStream<>(segments, tick -> true, new long[]{3, 2})) {
+            final Spliterator<Tick> spliterator = ticks.spliterator();
+            assertThat(spliterator.hasCharacteristics(Spliterator.SIZED)).isTrue();
+            assertThat(spliterator.getExactSizeIfKnown()).isEqualTo(5);
+
+            assertThat(spliterator.tryAdvance(tick -> {
+            })).isTrue();
+            assertThat(spliterator.getExactSizeIfKnown()).isEqualTo(4);
+
+            assertThat(ticks.stream().parallel().count()).isEqualTo(5);
+        }
+    }
+
+    @Test
+    public void shouldFilterAndCloseSegments() throws Exception {
+        final AtomicInteger closed = new AtomicInteger();
+        final List<Supplier<TradingInputStream<Tick>>> segments = List.of(
+                () -> streamFrom(ticks("EURUSD", 0, 10), tick -> {
+                }, closed::incrementAndGet),
+                () -> streamFrom(ticks("EURUSD", 20, 30), tick -> {
+                }, closed::incrementAndGet));
+        try (TradingInputStream<Tick> ticks = new SegmentedTradingInputStream<>(segments,
+                                                                              tick -> tick.getMillisecondsUtc() != START + 10)) {
+            final Spliterator<Tick> spliterator = ticks.spliterator();
+            final List<Tick> found = new ArrayList<>();
+            spliterator.tryAdvance(found::add);
+            spliterator.tryAdvance(found::add);
+
+            assertThat(found).extracting(Tick::getMillisecondsUtc).containsExactly(START, START + 20);
+            assertThat(closed).hasValue(1);
+        }
+        assertThat(closed).hasValue(2);
+    }
+
+    private static TradingInputStream<Tick> createHourStream() {
+        final List<Supplier<TradingInputStream<Tick>>> segments = new ArrayList<>();
+        for (String hour : HOURS) {
+            segments.add(() -> createTickInputStreamFromClasspath(hour));
+        }
+        return new SegmentedTradingInputStream<>(segments, tick -> true);
+    }
+
+    private static List<Tick> ticks(String symbol, long... offsets) {
+        final List<Tick> ticks = new ArrayList<>();
+        for (long offset : offsets) {
+            ticks.add(createTick(symbol, START + offset, 116000, Historical));
+        }
+        return ticks;
+    }
+}
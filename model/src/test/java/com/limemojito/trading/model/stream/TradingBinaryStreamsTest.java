@@ -0,0 +1,169 @@
+/*
+ * Copyright 2011-2024 Lime Mojito Pty Ltd
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.limemojito.trading.model.stream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.limemojito.test.ObjectMapperPrototype;
+import com.limemojito.trading.model.ModelPrototype;
+import com.limemojito.trading.model.TickDataLoader;
+import com.limemojito.trading.model.TradingInputStream;
+import com.limemojito.trading.model.bar.Bar;
+import com.limemojito.trading.model.tick.Tick;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static com.limemojito.trading.model.StreamData.REALTIME_UUID;
+import static com.limemojito.trading.model.StreamData.StreamSource.Historical;
+import static com.limemojito.trading.model.StreamData.StreamSource.Live;
+import static com.limemojito.trading.model.bar.Bar.Period.H1;
+import static com.limemojito.trading.model.bar.Bar.Period.M15;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+public class TradingBinaryStreamsTest {
+
+    private final ObjectMapper mapper = ObjectMapperPrototype.buildBootLikeMapper();
+
+    @Test
+    public void shouldRoundTripTicksInOrder() throws Exception {
+        final List<Tick> ticks = TickDataLoader.loadTickData("EURUSD/2018/06/05/06h_ticks.bi5");
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        final long written = TradingBinaryStreams.writeTicks(TradingInputStreamMapper.streamFrom(ticks), outputStream);
+
+        assertThat(written).isEqualTo(ticks.size());
+        final AtomicInteger visited = new AtomicInteger();
+        try (TradingInputStream<Tick> read = TradingBinaryStreams.createTickStream(toInput(outputStream),
+                                                                                   tick -> visited.incrementAndGet())) {
+            assertThat(read.stream().collect(Collectors.toList())).isEqualTo(ticks);
+        }
+        assertThat(visited.get()).isEqualTo(ticks.size());
+    }
+
+    @Test
+    public void shouldRoundTripBars() throws Exception {
+        final List<Bar> bars = ModelPrototype.createBarListDescending(REALTIME_UUID, "CHFUSD", M15, 1638319200000L, 34);
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        TradingBinaryStreams.writeBars(TradingInputStreamMapper.streamFrom(bars), outputStream);
+
+        try (TradingInputStream<Bar> read = TradingBinaryStreams.createBarStream(toInput(outputStream))) {
+            assertThat(read.stream().collect(Collectors.toList())).isEqualTo(bars);
+        }
+    }
+
+    @Test
+    public void shouldKeepIdentityOfInterleavedStreams() throws Exception {
+        final UUID otherStream = UUID.randomUUID();
+        final List<Tick> ticks = Arrays.asList(ModelPrototype.createTick("EURUSD", 1000L, 116000, Historical),
+                                               ModelPrototype.createTick(otherStream, "AUDUSD", 1001L, 71000, Live),
+                                               ModelPrototype.createTick("EURUSD", 999L, 116001, Historical),
+                                               ModelPrototype.createTick(otherStream, "AUDUSD", 4_000_000_000L, 71001, Live),
+                                               ModelPrototype.createTick("EURUSD", 0L, 116002, Historical));
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        TradingBinaryStreams.writeTicks(TradingInputStreamMapper.streamFrom(ticks), outputStream);
+
+        try (TradingInputStream<Tick> read = TradingBinaryStreams.createTickStream(toInput(outputStream))) {
+            assertThat(read.stream().collect(Collectors.toList())).isEqualTo(ticks);
+        }
+    }
+
+    @Test
+    public void shouldKeepSourceAndPeriodWhenOnlyTheyChange() throws Exception {
+        final Bar m15 = ModelPrototype.createBar(REALTIME_UUID, "EURUSD", M15, 1638319200000L);
+        final Bar h1 = ModelPrototype.createBar(REALTIME_UUID, "EURUSD", H1, 1638319200000L);
+        final List<Bar> bars = List.of(m15,
+                                       Bar.builder()
+                                          .streamId(m15.getStreamId())
+                                          .symbol(m15.getSymbol())
+                                          .period(M15)
+                                          .startMillisecondsUtc(m15.getStartMillisecondsUtc() + M15.getDurationMilliseconds())
+                                          .open(m15.getOpen())
+                                          .high(m15.getHigh())
+                                          .low(m15.getLow())
+                                          .close(m15.getClose())
+                                          .source(m15.getSource() == Live ? Historical : Live)
+                                          .build(),
+                                       h1);
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        TradingBinaryStreams.writeBars(TradingInputStreamMapper.streamFrom(bars), outputStream);
+
+        try (TradingInputStream<Bar> read = TradingBinaryStreams.createBarStream(toInput(outputStream))) {
+            assertThat(read.stream().collect(Collectors.toList()))
+                    .extracting(Bar::getSource, Bar::getPeriod)
+                    .containsExactlyElementsOf(bars.stream()
+                                                   .map(bar -> tuple(bar.getSource(), bar.getPeriod()))
+                                                   .collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void shouldBeMuchSmallerThanJson() throws Exception {
+        final List<Tick> ticks = TickDataLoader.loadTickData("EURUSD/2018/06/05/06h_ticks.bi5");
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        TradingBinaryStreams.writeTicks(TradingInputStreamMapper.streamFrom(ticks), outputStream);
+
+        assertThat(outputStream.size()).isLessThan(mapper.writeValueAsBytes(ticks).length / 5);
+    }
+
+    @Test
+    public void shouldFailOnTruncatedStream() throws Exception {
+        final List<Bar> bars = ModelPrototype.createBarListDescending(REALTIME_UUID, "CHFUSD", M15, 1638319200000L, 3);
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        TradingBinaryStreams.writeBars(TradingInputStreamMapper.streamFrom(bars), outputStream);
+        final byte[] truncated = Arrays.copyOf(outputStream.toByteArray(), outputStream.size() - 1);
+
+        try (TradingInputStream<Bar> read = TradingBinaryStreams.createBarStream(new ByteArrayInputStream(truncated))) {
+            assertThatThrownBy(() -> read.stream().collect(Collectors.toList())).isInstanceOf(EOFException.class);
+        }
+    }
+
+    @Test
+    public void shouldRejectWrongModelType() throws Exception {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        TradingBinaryStreams.writeBars(TradingInputStreamMapper.streamFrom(List.of()), outputStream);
+
+        assertThatThrownBy(() -> TradingBinaryStreams.createTickStream(toInput(outputStream)))
+                .isInstanceOf(IOException.class)
+                .hasMessage("Binary stream holds model type 2 not 1");
+    }
+
+    @Test
+    public void shouldRejectNonBinaryData() {
+        assertThatThrownBy(() -> TradingBinaryStreams.createTickStream(new ByteArrayInputStream("[{}]\n".getBytes())))
+                .isInstanceOf(IOException.class)
+                .hasMessageStartingWith("Not a binary trading stream");
+    }
+
+    private static ByteArrayInputStream toInput(ByteArrayOutputStream outputStream) {
+        return new ByteArrayInputStream(outputStream.toByteArray());
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2011-2024 Lime Mojito Pty Ltd
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.limemojito.trading.model.stream;
+
+import com.limemojito.trading.model.TradingInputStream;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.limemojito.trading.model.stream.TradingInputStreamMapper.streamFrom;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TradingInputBackwardsSearchStreamTest {
+
+    @Test
+    public void shouldKeepNewestItemsInOrderWhenLastWindowOvershoots() throws Exception {
+        final TradingInputStream<Integer> stream = new TradingInputBackwardsSearchStream<>(25,
+                                                                                            new WindowSearch(100, 10, false));
+
+        assertThat(toList(stream)).isEqualTo(range(76, 100));
+    }
+
+    @Test
+    public void shouldKeepNewestWhenFirstWindowExceedsMax() throws Exception {
+        final TradingInputStream<Integer> stream = new TradingInputBackwardsSearchStream<>(7,
+                                                                                            new WindowSearch(100, 30, false));
+
+        assertThat(toList(stream)).isEqualTo(range(94, 100));
+    }
+
+    @Test
+    public void shouldStopOnFinalSearch() throws Exception {
+        final TradingInputStream<Integer> stream = new TradingInputBackwardsSearchStream<>(50,
+                                                                                            new WindowSearch(100, 10, true));
+
+        assertThat(toList(stream)).isEqualTo(range(91, 100));
+        assertThatThrownBy(stream::next).isInstanceOf(NoSuchElementException.class);
+    }
+
+    @Test
+    public void shouldRetainNothingForZeroMax() throws Exception {
+        try (TradingInputStream<Integer> stream = new TradingInputBackwardsSearchStream<>(0,
+                                                                                           new WindowSearch(100, 10, false))) {
+            assertThat(stream.hasNext()).isFalse();
+        }
+    }
+
+    private static List<Integer> toList(TradingInputStream<Integer> stream) throws IOException {
+        final List<Integer> items = new ArrayList<>();
+        try (stream) {
+            stream.forEach(items::add);
+        }
+        return items;
+    }
+
+    private static List<Integer> range(int first, int last) {
+        return IntStream.rangeClosed(first, last).boxed().collect(Collectors.toList());
+    }
+
+    /**
+     * Windows of ascending integers ending at newest, each window older than the last.
+     */
+    private static final class WindowSearch implements TradingInputBackwardsSearchStream.Search<Integer> {
+        private final int newest;
+        private final int windowSize;
+        private final boolean firstIsFinal;
+        private int windowEnd;
+
+        private WindowSearch(int newest, int windowSize, boolean firstIsFinal) {
+            this.newest = newest;
+            this.windowSize = windowSize;
+            this.firstIsFinal = firstIsFinal;
+        }
+
+        @Override
+        public boolean prepare(int searchCount) {
+            windowEnd = newest - searchCount * windowSize;
+            return firstIsFinal;
+        }
+
+        @Override
+        public TradingInputStream<Integer> perform() {
+            return streamFrom(range(windowEnd - windowSize + 1, windowEnd));
+        }
+    }
+}
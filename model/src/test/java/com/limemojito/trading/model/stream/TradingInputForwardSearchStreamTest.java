@@ -0,0 +1,114 @@
+/*
+ * Copyright 2011-2024 Lime Mojito Pty Ltd
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.limemojito.trading.model.stream;
+
+import com.limemojito.trading.model.TradingInputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.InterruptedIOException;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static com.limemojito.trading.model.stream.TradingInputStreamMapper.streamFrom;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TradingInputForwardSearchStreamTest {
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @AfterEach
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void shouldCloseWindowPrefetchedWhileClosing() throws Exception {
+        final CountDownLatch searching = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch prefetchClosed = new CountDownLatch(1);
+        final TradingInputForwardSearchStream<Integer> stream = new TradingInputForwardSearchStream<>(100, searchCount -> {
+            if (searchCount == 0) {
+                return streamFrom(List.of(1));
+            }
+            searching.countDown();
+            await(release);
+            return streamFrom(List.of(2), null, prefetchClosed::countDown);
+        }, executor);
+        assertThat(searching.await(5, TimeUnit.SECONDS)).isTrue();
+
+        stream.close();
+        release.countDown();
+
+        assertThat(prefetchClosed.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    public void shouldCloseWindowPrefetchedBeforeClosing() throws Exception {
+        final CountDownLatch prefetchClosed = new CountDownLatch(1);
+        final CountDownLatch searched = new CountDownLatch(1);
+        final TradingInputForwardSearchStream<Integer> stream = new TradingInputForwardSearchStream<>(100, searchCount -> {
+            if (searchCount == 0) {
+                return streamFrom(List.of(1));
+            }
+            searched.countDown();
+            return streamFrom(List.of(2), null, prefetchClosed::countDown);
+        }, executor);
+        assertThat(searched.await(5, TimeUnit.SECONDS)).isTrue();
+        executor.submit(() -> null).get();
+
+        stream.close();
+
+        assertThat(prefetchClosed.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    public void shouldNotSearchWhenCancelledBeforePrefetchStarts() throws Exception {
+        final CountDownLatch blocked = new CountDownLatch(1);
+        executor.execute(() -> {
+            try {
+                blocked.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        final int[] searches = new int[1];
+        final TradingInputForwardSearchStream<Integer> stream = new TradingInputForwardSearchStream<>(100, searchCount -> {
+            searches[0]++;
+            return streamFrom(List.of(searchCount));
+        }, executor);
+
+        stream.close();
+        blocked.countDown();
+        executor.submit(() -> null).get();
+
+        assertThat(searches[0]).isEqualTo(1);
+    }
+
+    private static void await(CountDownLatch latch) throws InterruptedIOException {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(e.getMessage());
+        }
+    }
+}
@@ -39,6 +39,7 @@ import java.util.stream.Collectors;
 import static com.limemojito.trading.model.StreamData.REALTIME_UUID;
 import static com.limemojito.trading.model.StreamData.StreamSource.Historical;
 import static com.limemojito.trading.model.bar.Bar.Period.*;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
@@ -76,6 +77,16 @@ public class TradingInputJsonStreamsTest {
         }
     }
 
+    @Test
+    public void shouldWriteSameJsonAsListSerialization() throws Exception {
+        List<Bar> bars = ModelPrototype.createBarListDescending(REALTIME_UUID, "CHFUSD", M15, 1638319200000L, 5);
+        try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
+            jsonStreams.writeAsJsonArray(bars, outputStream);
+            outputStream.write('!');
+            assertThat(outputStream.toString(UTF_8)).isEqualTo(mapper.writeValueAsString(bars) + "!");
+        }
+    }
+
     @Test
     public void shouldWriteCollectionToJsonArray() throws Exception {
         List<Bar> bars = ModelPrototype.createBarListDescending(REALTIME_UUID, "AUDUSD", H4, 1638319200000L, 34);
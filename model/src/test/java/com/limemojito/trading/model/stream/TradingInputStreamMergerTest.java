@@ -0,0 +1,116 @@
+/*
+ * Copyright 2011-2024 Lime Mojito Pty Ltd
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.limemojito.trading.model.stream;
+
+import com.limemojito.trading.model.TradingInputStream;
+import com.limemojito.trading.model.tick.Tick;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.limemojito.trading.model.ModelPrototype.createTick;
+import static com.limemojito.trading.model.StreamData.StreamSource.Historical;
+import static com.limemojito.trading.model.stream.TradingInputStreamMapper.streamFrom;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TradingInputStreamMergerTest {
+    private static final long START = 1530766800000L;
+
+    @Test
+    public void shouldMergeSymbolsInTimeOrderWithStableTies() throws Exception {
+        final List<Tick> euro = ticks("EURUSD", 0, 10, 20, 30);
+        final List<Tick> pound = ticks("GBPUSD", 5, 10, 25);
+        final List<Tick> yen = ticks("USDJPY", 10, 40);
+
+        final List<Tick> merged = new ArrayList<>();
+        try (TradingInputStream<Tick> stream = TradingInputStream.mergeByTime(List.of(streamFrom(euro),
+                                                                                     streamFrom(pound),
+                                                                                     streamFrom(yen)),
+                                                                             Tick::getMillisecondsUtc)) {
+            stream.forEach(merged::add);
+        }
+
+        assertThat(merged).containsExactly(euro.get(0),
+                                           pound.get(0),
+                                           euro.get(1),
+                                           pound.get(1),
+                                           yen.get(0),
+                                           euro.get(2),
+                                           pound.get(2),
+                                           euro.get(3),
+                                           yen.get(1));
+    }
+
+    @Test
+    public void shouldOpenInputsLazilyAndCloseWhenExhausted() throws Exception {
+        final AtomicInteger opened = new AtomicInteger();
+        final AtomicInteger closed = new AtomicInteger();
+        final List<TradingInputStreamOpener<Tick>> openers = List.of(
+                () -> {
+                    opened.incrementAndGet();
+                    return streamFrom(ticks("EURUSD", 0), t -> {
+                    }, closed::incrementAndGet);
+                },
+                () -> {
+                    opened.incrementAndGet();
+                    return streamFrom(ticks("GBPUSD", 5, 15), t -> {
+                    }, closed::incrementAndGet);
+                });
+        try (TradingInputStreamMerger<Tick> merger = new TradingInputStreamMerger<>(openers, Tick::getMillisecondsUtc)) {
+            assertThat(opened).hasValue(0);
+
+            assertThat(merger.next().getSymbol()).isEqualTo("EURUSD");
+            assertThat(opened).hasValue(2);
+            assertThat(closed).hasValue(1);
+            merger.next();
+            merger.next();
+            assertThat(merger.hasNext()).isFalse();
+            assertThat(closed).hasValue(2);
+            assertThatThrownBy(merger::next).isInstanceOf(NoSuchElementException.class);
+        }
+    }
+
+    @Test
+    public void shouldMergeNoInputs() throws Exception {
+        try (TradingInputStream<Tick> stream = TradingInputStream.mergeByTime(List.of(streamFrom(List.<Tick>of())),
+                                                                             Tick::getMillisecondsUtc)) {
+            assertThat(stream.hasNext()).isFalse();
+        }
+    }
+
+    @Test
+    public void shouldFailOnInputOutOfTimeOrder() throws Exception {
+        try (TradingInputStream<Tick> stream = TradingInputStream.mergeByTime(List.of(streamFrom(ticks("EURUSD", 10, 0))),
+                                                                             Tick::getMillisecondsUtc)) {
+            assertThatThrownBy(stream::next).isInstanceOf(IllegalStateException.class)
+                                            .hasMessage("Input 0 is not in time order at " + START);
+        }
+    }
+
+    private static List<Tick> ticks(String symbol, long... offsets) {
+        final List<Tick> ticks = new ArrayList<>();
+        for (long offset : offsets) {
+            ticks.add(createTick(symbol, START + offset, 116000, Historical));
+        }
+        return ticks;
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2011-2024 Lime Mojito Pty Ltd
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.limemojito.trading.model.stream;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.limemojito.trading.model.stream.TradingInputStreamMapper.streamFrom;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TradingInputStreamPublisherTest {
+    private final List<Integer> data = IntStream.range(0, 10).boxed().collect(Collectors.toList());
+    private final AtomicInteger opened = new AtomicInteger();
+    private final AtomicInteger pulled = new AtomicInteger();
+    private final AtomicInteger closed = new AtomicInteger();
+
+    @Test
+    public void shouldOnlyOpenAndPullOnDemand() {
+        final RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher(Runnable::run, 256).subscribe(subscriber);
+
+        assertThat(opened).hasValue(0);
+
+        subscriber.subscription.request(3);
+        assertThat(opened).hasValue(1);
+        assertThat(pulled).hasValue(3);
+        assertThat(subscriber.items).containsExactly(0, 1, 2);
+        assertThat(subscriber.completed).isFalse();
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertThat(subscriber.items).isEqualTo(data);
+        assertThat(subscriber.completed).isTrue();
+        assertThat(closed).hasValue(1);
+    }
+
+    @Test
+    public void shouldCloseOnCancel() {
+        final RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher(Runnable::run, 256).subscribe(subscriber);
+        subscriber.subscription.request(2);
+
+        subscriber.subscription.cancel();
+        subscriber.subscription.request(2);
+
+        assertThat(subscriber.items).containsExactly(0, 1);
+        assertThat(subscriber.completed).isFalse();
+        assertThat(closed).hasValue(1);
+    }
+
+    @Test
+    public void shouldDrainRequestsMadeDuringOnSubscribeAfterItReturns() {
+        final RecordingSubscriber subscriber = new RecordingSubscriber() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                super.onSubscribe(subscription);
+                subscription.request(1);
+                assertThat(items).isEmpty();
+            }
+        };
+
+        publisher(Runnable::run, 256).subscribe(subscriber);
+
+        assertThat(subscriber.items).containsExactly(0);
+    }
+
+    @Test
+    public void shouldYieldExecutorBetweenBatches() {
+        final Queue<Runnable> tasks = new ArrayDeque<>();
+        final RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher(tasks::add, 4).subscribe(subscriber);
+        subscriber.subscription.request(Long.MAX_VALUE);
+
+        int runs = 0;
+        while (!tasks.isEmpty()) {
+            tasks.remove().run();
+            runs++;
+            assertThat(subscriber.items.size()).isLessThanOrEqualTo(runs * 4);
+        }
+
+        assertThat(runs).isEqualTo(3);
+        assertThat(subscriber.items).isEqualTo(data);
+        assertThat(subscriber.completed).isTrue();
+    }
+
+    @Test
+    public void shouldSignalErrorForNonPositiveRequest() {
+        final RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher(Runnable::run, 256).subscribe(subscriber);
+
+        subscriber.subscription.request(0);
+
+        assertThat(subscriber.error).isInstanceOf(IllegalArgumentException.class)
+                                    .hasMessage("Request must be positive but was 0");
+    }
+
+    @Test
+    public void shouldSignalOpenFailure() {
+        final RecordingSubscriber subscriber = new RecordingSubscriber();
+        new TradingInputStreamPublisher<Integer>(() -> {
+            throw new IOException("No data");
+        }, Runnable::run).subscribe(subscriber);
+
+        subscriber.subscription.request(1);
+
+        assertThat(subscriber.error).isInstanceOf(IOException.class).hasMessage("No data");
+    }
+
+    @Test
+    public void shouldFailOnBadBatchSize() {
+        assertThatThrownBy(() -> publisher(Runnable::run, 0)).isInstanceOf(IllegalArgumentException.class)
+                                                            .hasMessage("Batch size must be at least 1");
+    }
+
+    @Test
+    public void shouldServeManySlowSubscribersFromSmallPool() throws Exception {
+        final int subscriberCount = 200;
+        final ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            final TradingInputStreamPublisher<Integer> publisher = publisher(pool, 256);
+            final CountDownLatch done = new CountDownLatch(subscriberCount);
+            final List<RecordingSubscriber> subscribers = new ArrayList<>();
+            for (int i = 0; i < subscriberCount; i++) {
+                final RecordingSubscriber subscriber = new RecordingSubscriber() {
+                    @Override
+                    public void onNext(Integer item) {
+                        super.onNext(item);
+                        subscription.request(1);
+                    }
+
+                    @Override
+                    public void onComplete() {
+                        super.onComplete();
+                        done.countDown();
+                    }
+                };
+                subscribers.add(subscriber);
+                publisher.subscribe(subscriber);
+                subscriber.subscription.request(1);
+            }
+
+            assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+            assertThat(subscribers).allSatisfy(s -> assertThat(s.items).isEqualTo(data));
+            assertThat(closed).hasValue(subscriberCount);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private TradingInputStreamPublisher<Integer> publisher(Executor executor, int batchSize) {
+        return new TradingInputStreamPublisher<>(() -> {
+            opened.incrementAndGet();
+            return streamFrom(data, i -> pulled.incrementAndGet(), closed::incrementAndGet);
+        }, executor, batchSize);
+    }
+
+    private static class RecordingSubscriber implements Flow.Subscriber<Integer> {
+        protected final List<Integer> items = new ArrayList<>();
+        protected volatile Flow.Subscription subscription;
+        private volatile boolean completed;
+        private volatile Throwable error;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(Integer item) {
+            items.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+}
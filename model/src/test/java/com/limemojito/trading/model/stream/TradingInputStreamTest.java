@@ -17,16 +17,20 @@
 
 package com.limemojito.trading.model.stream;
 
+import com.limemojito.trading.model.TickDataLoader;
 import com.limemojito.trading.model.TradingInputStream;
 import com.limemojito.trading.model.tick.Tick;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static com.limemojito.trading.model.TickDataLoader.createTickInputStreamFromClasspath;
@@ -80,6 +84,59 @@ public class TradingInputStreamTest {
         performTickCount(TradingInputStream.combine(streams, filter), knownBidCount * 2);
     }
 
+    @Test
+    public void shouldDrainCombinedFilteredStreamsInBatches() throws Exception {
+        final Predicate<Tick> filter = (tick) -> tick.getBid() == 116938;
+        final List<Tick> expected = TickDataLoader.loadTickData("EURUSD/2018/06/05/06h_ticks.bi5")
+                                                  .stream()
+                                                  .filter(filter)
+                                                  .collect(Collectors.toList());
+        final List<Tick> drained = new ArrayList<>();
+        try (TradingInputStream<Tick> combined = TradingInputStream.combine(List.of(createInputStream(),
+                                                                                  createEmptyStream(),
+                                                                                  createInputStream()),
+                                                                          filter)) {
+            assertThat(combined.hasNext()).isTrue();
+            final Tick[] buffer = new Tick[10];
+            int read;
+            while ((read = combined.drainTo(buffer, 1, 9)) > 0) {
+                assertThat(buffer[0]).isNull();
+                drained.addAll(Arrays.asList(buffer).subList(1, 1 + read));
+            }
+        }
+
+        assertThat(drained).hasSize(knownBidCount * 2);
+        assertThat(drained.subList(0, knownBidCount)).isEqualTo(expected);
+        assertThat(drained.subList(knownBidCount, knownBidCount * 2)).isEqualTo(expected);
+    }
+
+    @Test
+    public void shouldDrainToConsumerUpToMax() throws Exception {
+        final List<Tick> drained = new ArrayList<>();
+        try (TradingInputStream<Tick> combined = TradingInputStream.combine(List.of(createInputStream(),
+                                                                                  createInputStream()))) {
+            assertThat(combined.drainTo(drained::add, knownCount + 10)).isEqualTo(knownCount + 10);
+            assertThat(combined.drainTo(drained::add, Integer.MAX_VALUE)).isEqualTo(knownCount - 10);
+            assertThat(combined.drainTo(drained::add, 5)).isEqualTo(0);
+        }
+        assertThat(drained).hasSize(knownCount * 2);
+    }
+
+    @Test
+    public void shouldDrainWithDefaultImplementation() throws Exception {
+        final List<Tick> ticks = TickDataLoader.loadTickData("EURUSD/2018/06/05/06h_ticks.bi5").subList(0, 5);
+        final List<Tick> forEach = new ArrayList<>();
+        try (TradingInputStream<Tick> stream = TradingInputStreamMapper.map(TradingInputStreamMapper.streamFrom(ticks),
+                                                                            tick -> tick)) {
+            final Tick[] buffer = new Tick[3];
+            assertThat(stream.drainTo(buffer)).isEqualTo(3);
+            assertThat(buffer).containsExactly(ticks.get(0), ticks.get(1), ticks.get(2));
+            stream.forEach(forEach::add);
+            assertThat(stream.drainTo(buffer)).isEqualTo(0);
+        }
+        assertThat(forEach).containsExactly(ticks.get(3), ticks.get(4));
+    }
+
     private TradingInputStream<Tick> createEmptyStream() {
         return new TradingInputStream<>() {
             @Override
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2011-2024 Lime Mojito Pty Ltd
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.limemojito.trading.model.stream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException;
+import com.limemojito.test.ObjectMapperPrototype;
+import com.limemojito.trading.model.ModelPrototype;
+import com.limemojito.trading.model.TickDataLoader;
+import com.limemojito.trading.model.TradingInputStream;
+import com.limemojito.trading.model.bar.Bar;
+import com.limemojito.trading.model.tick.Tick;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.limemojito.trading.model.StreamData.REALTIME_UUID;
+import static com.limemojito.trading.model.bar.Bar.Period.M5;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TradingJsonModuleTest {
+    private final ObjectMapper beanMapper = ObjectMapperPrototype.buildBootLikeMapper();
+    private final ObjectMapper moduleMapper = ObjectMapperPrototype.buildBootLikeMapper()
+                                                                   .registerModule(new TradingJsonModule());
+    private final List<Tick> ticks;
+    private final List<Bar> bars = ModelPrototype.createBarListDescending(REALTIME_UUID,
+                                                                          "EURUSD",
+                                                                          M5,
+                                                                          1530766800000L,
+                                                                          12);
+
+    public TradingJsonModuleTest() throws IOException {
+        ticks = TickDataLoader.loadTickData("EURUSD/2018/06/05/05h_ticks.bi5");
+    }
+
+    @Test
+    public void shouldWriteSameJsonAsBeanSerialization() throws Exception {
+        assertThat(moduleMapper.writeValueAsString(ticks)).isEqualTo(beanMapper.writeValueAsString(ticks));
+        assertThat(moduleMapper.writeValueAsString(bars)).isEqualTo(beanMapper.writeValueAsString(bars));
+    }
+
+    @Test
+    public void shouldRoundTripThroughJsonStreams() throws Exception {
+        final TradingInputJsonStreams jsonStreams = new TradingInputJsonStreams(moduleMapper);
+        final ByteArrayOutputStream json = new ByteArrayOutputStream();
+        jsonStreams.writeAsJsonArray(ticks, json);
+
+        try (TradingInputStream<Tick> read = jsonStreams.createStream(new ByteArrayInputStream(json.toByteArray()),
+                                                                      Tick.class)) {
+            final List<Tick> restored = read.stream().collect(Collectors.toList());
+            assertThat(restored).isEqualTo(ticks);
+            assertThat(restored).usingRecursiveFieldByFieldElementComparator().isEqualTo(ticks);
+        }
+        final List<Bar> restoredBars = List.of(moduleMapper.readValue(beanMapper.writeValueAsString(bars), Bar[].class));
+        assertThat(restoredBars).usingRecursiveFieldByFieldElementComparator().isEqualTo(bars);
+    }
+
+    @Test
+    public void shouldReadNullsAndFailOnUnknownFields() throws Exception {
+        final Bar bar = moduleMapper.readValue("{\"symbol\":null,\"period\":\"M5\",\"open\":3}", Bar.class);
+        assertThat(bar.getSymbol()).isNull();
+        assertThat(bar.getPeriod()).isEqualTo(M5);
+        assertThat(bar.getOpen()).isEqualTo(3);
+
+        assertThatThrownBy(() -> moduleMapper.readValue("{\"bid\":1,\"spread\":2}", Tick.class))
+                .isInstanceOf(UnrecognizedPropertyException.class);
+    }
+}
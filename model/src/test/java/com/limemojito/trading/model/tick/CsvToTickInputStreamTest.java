@@ -0,0 +1,137 @@
+/*
+ * Copyright 2011-2024 Lime Mojito Pty Ltd
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.limemojito.trading.model.tick;
+
+import com.limemojito.trading.model.TickDataLoader;
+import com.limemojito.trading.model.TradingInputStream;
+import com.limemojito.trading.model.stream.TradingInputStreamMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class CsvToTickInputStreamTest {
+    private static final String TICK_PATH = "EURUSD/2018/06/05/05h_ticks.bi5";
+
+    @Test
+    public void shouldReadBackWrittenCsv() throws Exception {
+        final List<Tick> ticks = TickDataLoader.loadTickData(TICK_PATH);
+
+        try (TradingInputStream<Tick> read = new CsvToTickInputStream(new ByteArrayInputStream(toCsv(ticks)),
+                                                                      "EURUSD")) {
+            assertThat(read.stream().collect(Collectors.toList())).usingRecursiveFieldByFieldElementComparator()
+                                                                  .isEqualTo(ticks);
+        }
+    }
+
+    @Test
+    public void shouldReadCsvResource() throws Exception {
+        final List<Tick> ticks = TickDataLoader.loadTickData(TICK_PATH);
+
+        try (InputStream inputStream = getClass().getResourceAsStream("/EURUSD/2018/06/05/05h_ticks.csv");
+             TradingInputStream<Tick> read = new CsvToTickInputStream(inputStream, "EURUSD")) {
+            assertThat(read.stream().collect(Collectors.toList())).usingRecursiveFieldByFieldElementComparator()
+                                                                  .isEqualTo(ticks);
+        }
+    }
+
+    @Test
+    public void shouldReadAcrossSmallReads() throws Exception {
+        final List<Tick> ticks = TickDataLoader.loadTickData(TICK_PATH);
+        final InputStream trickle = new FilterInputStream(new ByteArrayInputStream(toCsv(ticks))) {
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                return super.read(b, off, Math.min(len, 7));
+            }
+        };
+
+        try (TradingInputStream<Tick> read = new CsvToTickInputStream(trickle, "EURUSD")) {
+            assertThat(read.stream().count()).isEqualTo(ticks.size());
+        }
+    }
+
+    @Test
+    public void shouldReadMappedSplitsInParallel() throws Exception {
+        final List<Tick> ticks = TickDataLoader.loadTickData(TICK_PATH);
+        final Path csv = Files.createTempFile("ticks", ".csv");
+        Files.write(csv, toCsv(ticks));
+        final AtomicInteger visited = new AtomicInteger();
+
+        try (TradingInputStream<Tick> read = CsvToTickInputStream.fromFile(csv,
+                                                                          "EURUSD",
+                                                                          7,
+                                                                          tick -> visited.incrementAndGet())) {
+            assertThat(read.stream().parallel().collect(Collectors.toList()))
+                    .usingRecursiveFieldByFieldElementComparator()
+                    .isEqualTo(ticks);
+        } finally {
+            Files.delete(csv);
+        }
+        assertThat(visited.get()).isEqualTo(ticks.size());
+    }
+
+    @Test
+    public void shouldParseFloatsAsFloatWould() throws Exception {
+        final String csv = "2018-07-05 05:00:00.5,116573,1.0E-5,116568,123456.79\n"
+                + "2018-07-05 05:00:00.05,116573,0.1,116568,-2.5\r\n"
+                + "2018-07-05 05:00:01.005,116573,16777216,116568,3.4028235E38";
+
+        try (TradingInputStream<Tick> read = new CsvToTickInputStream(new ByteArrayInputStream(csv.getBytes(UTF_8)),
+                                                                      "EURUSD")) {
+            final List<Tick> ticks = read.stream().collect(Collectors.toList());
+            assertThat(ticks).extracting(Tick::getMillisecondsUtc)
+                             .containsExactly(1530766800500L, 1530766800050L, 1530766801005L);
+            assertThat(ticks).extracting(Tick::getAskVolume).containsExactly(1.0E-5f, 0.1f, 16777216f);
+            assertThat(ticks).extracting(Tick::getBidVolume).containsExactly(123456.79f, -2.5f, 3.4028235E38f);
+        }
+    }
+
+    @Test
+    public void shouldFailOnMalformedRecord() throws Exception {
+        final String csv = "Epoch Time (UTC),Ask,Ask Volume,Bid,Bid Volume\n2018-07-05 05:00:01.08,1165x3,1.76,116568,4.76\n";
+
+        try (TradingInputStream<Tick> read = new CsvToTickInputStream(new ByteArrayInputStream(csv.getBytes(UTF_8)),
+                                                                      "EURUSD",
+                                                                      TickVisitor.NO_VISITOR)) {
+            assertThatThrownBy(read::hasNext).isInstanceOf(IOException.class)
+                                             .hasMessage("Malformed CSV field '1165x3' in record "
+                                                                 + "'2018-07-05 05:00:01.08,1165x3,1.76,116568,4.76'");
+        }
+    }
+
+    private static byte[] toCsv(List<Tick> ticks) throws IOException {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (TickInputStreamToCsv csv = new TickInputStreamToCsv(TradingInputStreamMapper.streamFrom(ticks),
+                                                                 outputStream)) {
+            csv.convert();
+        }
+        return outputStream.toByteArray();
+    }
+}
@@ -17,6 +17,7 @@
 
 package com.limemojito.trading.model.tick;
 
+import com.limemojito.trading.model.StreamData.StreamSource;
 import com.limemojito.trading.model.TradingInputStream;
 import com.limemojito.trading.model.tick.dukascopy.DukascopyTickInputStream;
 import jakarta.validation.Validator;
@@ -25,7 +26,10 @@ import org.apache.commons.io.IOUtils;
 import org.junit.jupiter.api.Test;
 
 import java.io.*;
+import java.util.List;
 
+import static com.limemojito.trading.model.ModelPrototype.createTick;
+import static com.limemojito.trading.model.stream.TradingInputStreamMapper.streamFrom;
 import static com.limemojito.trading.model.tick.dukascopy.DukascopyUtils.dukascopyClassResourceToTempFile;
 import static com.limemojito.trading.model.tick.dukascopy.DukascopyUtils.setupValidator;
 import static java.nio.charset.StandardCharsets.UTF_8;
@@ -91,6 +95,26 @@ public class TickInputStreamToCsvTest {
         assertOutputOk(csvOutputFile());
     }
 
+    @Test
+    public void shouldUseSubclassFieldsOverFastPath() throws Exception {
+        final StringWriter output = new StringWriter();
+        final Tick tick = createTick("EURUSD", 1528174800000L, 116568, StreamSource.Historical);
+        try (TickInputStreamToCsv csv = new TickInputStreamToCsv(streamFrom(List.of(tick)), output) {
+            @Override
+            protected List<String> getHeader() {
+                return List.of("Symbol", "Bid");
+            }
+
+            @Override
+            protected List<Object> modelToFields(Tick model) {
+                return List.of(model.getSymbol(), model.getBid());
+            }
+        }) {
+            csv.convert();
+        }
+
+        assertThat(output.toString()).startsWith("Symbol,Bid\r\n").endsWith("\r\nEURUSD,116568\r\n");
+    }
 
     private static File csvOutputFile() {
         return new File(System.getProperty("java.io.tmpdir"), "eurusd-2018-06-05-05h.csv");
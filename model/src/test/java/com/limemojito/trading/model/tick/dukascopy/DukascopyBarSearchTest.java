@@ -0,0 +1,140 @@
+/*
+ * Copyright 2011-2024 Lime Mojito Pty Ltd
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.limemojito.trading.model.tick.dukascopy;
+
+import com.limemojito.trading.model.TradingInputStream;
+import com.limemojito.trading.model.bar.Bar;
+import com.limemojito.trading.model.tick.dukascopy.DukascopyCache.BarCache;
+import com.limemojito.trading.model.tick.dukascopy.criteria.BarCriteria;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import static com.limemojito.trading.model.ModelPrototype.createBar;
+import static com.limemojito.trading.model.StreamData.REALTIME_UUID;
+import static com.limemojito.trading.model.bar.Bar.Period.H1;
+import static com.limemojito.trading.model.bar.BarVisitor.NO_VISITOR;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+
+@ExtendWith(MockitoExtension.class)
+public class DukascopyBarSearchTest {
+    private static final int NUM_DAYS = 5;
+    private final Instant start = Instant.parse("2019-06-03T00:00:00Z");
+    private final Instant end = Instant.parse("2019-06-07T23:59:59Z");
+    private final ExecutorService executor = Executors.newFixedThreadPool(NUM_DAYS);
+    private final Set<String> resolvingThreads = ConcurrentHashMap.newKeySet();
+
+    @Mock
+    private BarCache barCache;
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void shouldResolveDaysOnCallerThreadByDefault() throws Exception {
+        whenDaysResolveSlowestFirst();
+        DukascopyBarSearch search = new DukascopyBarSearch(barCache, new DukascopyPathGenerator());
+
+        assertBarsInTimeOrder(search);
+        assertThat(resolvingThreads).containsExactly(Thread.currentThread().getName());
+    }
+
+    @Test
+    public void shouldResolveDaysInParallelAndDeliverInTimeOrder() throws Exception {
+        whenDaysResolveSlowestFirst();
+        DukascopyBarSearch search = new DukascopyBarSearch(barCache, new DukascopyPathGenerator());
+        search.setDayExecutor(executor);
+
+        assertBarsInTimeOrder(search);
+        assertThat(resolvingThreads).doesNotContain(Thread.currentThread().getName())
+                                    .hasSizeGreaterThan(1);
+    }
+
+    @Test
+    public void shouldSurfaceDayFailureFromParallelResolution() throws Exception {
+        doThrow(new IOException("Bad day")).when(barCache).getOneDayOfTicksAsBar(any(), anyList());
+        DukascopyBarSearch search = new DukascopyBarSearch(barCache, new DukascopyPathGenerator());
+        search.setDayExecutor(executor);
+
+        assertThatThrownBy(() -> search.searchForDaysIn("EURUSD", H1, start, end, NO_VISITOR))
+                .isInstanceOf(IOException.class)
+                .hasMessage("Bad day");
+    }
+
+    private void assertBarsInTimeOrder(DukascopyBarSearch search) throws IOException {
+        final List<Bar> bars;
+        try (TradingInputStream<Bar> stream = search.searchForDaysIn("EURUSD", H1, start, end, NO_VISITOR)) {
+            bars = stream.stream().collect(Collectors.toList());
+        }
+        assertThat(bars).hasSize(NUM_DAYS * 24);
+        assertThat(bars.get(0).getStartInstant()).isEqualTo(start);
+        for (int i = 1; i < bars.size(); i++) {
+            assertThat(bars.get(i).getStartMillisecondsUtc()).isGreaterThan(bars.get(i - 1).getStartMillisecondsUtc());
+        }
+    }
+
+    /**
+     * Earlier days take longer to resolve so that parallel completion order is the reverse of time order.
+     */
+    private void whenDaysResolveSlowestFirst() throws IOException {
+        doAnswer(invocation -> {
+            resolvingThreads.add(Thread.currentThread().getName());
+            final BarCriteria criteria = invocation.getArgument(0);
+            final List<String> dayPaths = invocation.getArgument(1);
+            final Instant dayStart = dayStartFrom(dayPaths.get(0));
+            final long dayIndex = (dayStart.toEpochMilli() - start.toEpochMilli()) / Bar.Period.D1.getDurationMilliseconds();
+            Thread.sleep((NUM_DAYS - dayIndex) * 20L);
+            final List<Bar> bars = new ArrayList<>();
+            for (int i = 0; i < 24; i++) {
+                bars.add(createBar(REALTIME_UUID,
+                                   criteria.getSymbol(),
+                                   criteria.getPeriod(),
+                                   dayStart.toEpochMilli() + i * H1.getDurationMilliseconds()));
+            }
+            return bars;
+        }).when(barCache).getOneDayOfTicksAsBar(any(), anyList());
+    }
+
+    private static Instant dayStartFrom(String dukascopyPath) {
+        // EURUSD/2019/05/03/00h_ticks.bi5 - month is zero indexed.
+        final String[] parts = dukascopyPath.split("/");
+        return Instant.parse(String.format("%s-%02d-%sT00:00:00Z",
+                                           parts[1],
+                                           Integer.parseInt(parts[2]) + 1,
+                                           parts[3]));
+    }
+}
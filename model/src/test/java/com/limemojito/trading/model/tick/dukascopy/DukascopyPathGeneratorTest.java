@@ -21,6 +21,8 @@ import org.junit.jupiter.api.Test;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -56,6 +58,19 @@ public class DukascopyPathGeneratorTest {
         assertThat(paths.get((365 * 24) - 1)).isEqualTo("EURUSD/2018/11/31/23h_ticks.bi5");
     }
 
+    @Test
+    public void shouldGenerateSamePathsWhenSharedAcrossThreads() {
+        final List<String> expected = generatePathsFor("2018-01-01T00:00:00Z", "2018-12-31T23:59:59Z");
+
+        final List<List<String>> concurrent = IntStream.range(0, 8)
+                                                       .parallel()
+                                                       .mapToObj(i -> generatePathsFor("2018-01-01T00:00:00Z",
+                                                                                       "2018-12-31T23:59:59Z"))
+                                                       .collect(Collectors.toList());
+
+        assertThat(concurrent).allSatisfy(paths -> assertThat(paths).isEqualTo(expected));
+    }
+
     @Test
     public void shouldGeneratePathsForMultiYearRange() {
         List<String> paths = generatePathsFor("2018-01-01T00:00:00Z", "2021-12-31T23:59:59Z");
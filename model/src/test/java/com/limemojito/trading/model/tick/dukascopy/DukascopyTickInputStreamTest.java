@@ -21,6 +21,7 @@ import com.limemojito.trading.model.StreamData;
 import com.limemojito.trading.model.TickDataLoader;
 import com.limemojito.trading.model.TradingInputStream;
 import com.limemojito.trading.model.tick.Tick;
+import com.limemojito.trading.model.tick.TickVisitor;
 import com.limemojito.trading.model.tick.dukascopy.cache.DirectDukascopyNoCache;
 import org.apache.commons.compress.compressors.lzma.LZMACompressorOutputStream;
 import org.junit.jupiter.api.Test;
@@ -29,6 +30,8 @@ import jakarta.validation.Validator;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -63,6 +66,43 @@ public class DukascopyTickInputStreamTest {
         assertThat(cache.getMissCount()).isEqualTo(1);
     }
 
+    @Test
+    public void shouldDrainInVisitedBatches() throws Exception {
+        final String path = "EURUSD/2018/06/05/06h_ticks.bi5";
+        final List<Tick> expected = TickDataLoader.loadTickData(path);
+        final AtomicInteger batches = new AtomicInteger();
+        final List<Tick> visited = new ArrayList<>();
+        final TickVisitor visitor = new TickVisitor() {
+            @Override
+            public void visit(Tick tick) {
+                visited.add(tick);
+            }
+
+            @Override
+            public void visitBatch(Tick[] ticks, int offset, int length) {
+                batches.incrementAndGet();
+                visited.addAll(Arrays.asList(ticks).subList(offset, offset + length));
+            }
+        };
+        final List<Tick> drained = new ArrayList<>();
+        try (DukascopyTickInputStream input = new DukascopyTickInputStream(VALIDATOR,
+                                                                           path,
+                                                                           getClass().getResourceAsStream("/" + path),
+                                                                           visitor)) {
+            assertThat(input.hasNext()).isTrue();
+            final Tick[] buffer = new Tick[1000];
+            int read;
+            while ((read = input.drainTo(buffer)) > 0) {
+                drained.addAll(Arrays.asList(buffer).subList(0, read));
+            }
+            assertThat(input.hasNext()).isFalse();
+        }
+
+        assertThat(drained).isEqualTo(expected);
+        assertThat(visited).isEqualTo(expected);
+        assertThat(batches.get()).isEqualTo((expected.size() - 1 + 255) / 256 + 1);
+    }
+
     @Test
     public void shouldRunFromCacheNoVisitor() throws Exception {
         DirectDukascopyNoCache cache = new DirectDukascopyNoCache();
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2011-2024 Lime Mojito Pty Ltd
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.limemojito.trading.model.tick.dukascopy;
+
+import com.limemojito.trading.model.TickDataLoader;
+import com.limemojito.trading.model.TradingInputStream;
+import com.limemojito.trading.model.stream.TradingInputStreamMapper;
+import com.limemojito.trading.model.tick.Tick;
+import com.limemojito.trading.model.tick.dukascopy.cache.LocalDukascopyCache;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.limemojito.trading.model.StreamData.REALTIME_UUID;
+import static com.limemojito.trading.model.StreamData.StreamSource.Historical;
+import static com.limemojito.trading.model.tick.dukascopy.DukascopyUtils.setupObjectMapper;
+import static com.limemojito.trading.model.tick.dukascopy.DukascopyUtils.setupValidator;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+public class DukascopyTickOutputStreamTest {
+    private static final String PATH = "EURUSD/2018/06/05/05h_ticks.bi5";
+    private final Validator validator = setupValidator();
+
+    @Test
+    public void shouldEncodeTicksThatDecodeUnchanged() throws Exception {
+        final List<Tick> ticks = TickDataLoader.loadTickData(PATH);
+
+        final byte[] encoded = encode(PATH, ticks);
+
+        assertThat(decode(PATH, encoded)).usingRecursiveFieldByFieldElementComparator().isEqualTo(ticks);
+    }
+
+    @Test
+    public void shouldEncodeEmptyHourAsEmptyFile() throws Exception {
+        final byte[] encoded = encode(PATH, List.of());
+
+        assertThat(encoded).isEmpty();
+        assertThat(decode(PATH, encoded)).isEmpty();
+    }
+
+    @Test
+    public void shouldRejectTicksOutsideOfHour() {
+        final Tick nextHour = createTick("EURUSD", 1530770400000L);
+        final Tick otherSymbol = createTick("AUDUSD", 1530766800000L);
+
+        assertThatThrownBy(() -> encode(PATH, List.of(nextHour))).isInstanceOf(IllegalArgumentException.class)
+                                                                 .hasMessage("Tick EURUSD 2018-07-05T06:00:00Z "
+                                                                                     + "does not follow in " + PATH);
+        assertThatThrownBy(() -> encode(PATH, List.of(otherSymbol))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void shouldRejectTicksOutOfOrder() {
+        final List<Tick> ticks = List.of(createTick("EURUSD", 1530766800100L), createTick("EURUSD", 1530766800000L));
+
+        assertThatThrownBy(() -> encode(PATH, ticks)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void shouldSaveEncodedHourToCacheTier() throws Exception {
+        final List<Tick> ticks = TickDataLoader.loadTickData(PATH).subList(0, 100);
+        final DukascopyCache fallback = mock(DukascopyCache.class);
+        final LocalDukascopyCache cache = new LocalDukascopyCache(setupObjectMapper(),
+                                                                  fallback,
+                                                                  Files.createTempDirectory("bi5-save"));
+
+        DukascopyTickOutputStream.saveToCache(cache, PATH, TradingInputStreamMapper.streamFrom(ticks));
+
+        try (TradingInputStream<Tick> read = new DukascopyTickInputStream(validator, cache, PATH)) {
+            assertThat(read.stream().collect(Collectors.toList())).usingRecursiveFieldByFieldElementComparator()
+                                                                  .isEqualTo(ticks);
+        }
+        assertThat(cache.getHitCount()).isEqualTo(1);
+        verifyNoInteractions(fallback);
+        cache.removeCache();
+    }
+
+    private static Tick createTick(String symbol, long millisecondsUtc) {
+        return Tick.builder()
+                   .streamId(REALTIME_UUID)
+                   .symbol(symbol)
+                   .millisecondsUtc(millisecondsUtc)
+                   .ask(116573)
+                   .bid(116568)
+                   .askVolume(1.76f)
+                   .bidVolume(4.76f)
+                   .source(Historical)
+                   .build();
+    }
+
+    private static byte[] encode(String path, List<Tick> ticks) throws IOException {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (DukascopyTickOutputStream output = new DukascopyTickOutputStream(path, outputStream)) {
+            output.writeAll(TradingInputStreamMapper.streamFrom(ticks));
+        }
+        return outputStream.toByteArray();
+    }
+
+    private List<Tick> decode(String path, byte[] encoded) throws IOException {
+        try (TradingInputStream<Tick> read = new DukascopyTickInputStream(validator,
+                                                                          path,
+                                                                          new ByteArrayInputStream(encoded))) {
+            return read.stream().collect(Collectors.toList());
+        }
+    }
+}
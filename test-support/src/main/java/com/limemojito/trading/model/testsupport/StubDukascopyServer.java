@@ -0,0 +1,198 @@
+/*
+ * Copyright 2011-2024 Lime Mojito Pty Ltd
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.limemojito.trading.model.testsupport;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An embedded HTTP server that serves bi5 data as the Dukascopy data feed does, for tests without internet access.
+ * Point a DirectDukascopyNoCache at {@link #getBaseUrl()}, either with the url constructor or by setting
+ * DirectDukascopyNoCache.PROP_URL before the class is loaded.
+ * <p>
+ * Responses can be slowed with a fixed latency, every nth request can fail with a 500, and chosen paths return a 404
+ * as missing data does.
+ */
+@Slf4j
+public class StubDukascopyServer implements AutoCloseable {
+    private static final String CONTEXT = "/datafeed/";
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final PathSource source;
+    private final Set<String> notFoundPaths = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private final AtomicInteger serverErrorCount = new AtomicInteger();
+    private final AtomicInteger notFoundCount = new AtomicInteger();
+    private volatile Duration latency = Duration.ZERO;
+    private volatile int serverErrorEvery;
+
+    /**
+     * Supplies the bi5 data for a path.
+     */
+    @FunctionalInterface
+    public interface PathSource {
+        /**
+         * @param dukascopyPath A dukascopy path: ie EURUSD/2018/06/05/05h_ticks.bi5
+         * @return the data, or null if not present.
+         * @throws IOException on a read failure.
+         */
+        byte[] read(String dukascopyPath) throws IOException;
+    }
+
+    /**
+     * Starts a server on a free local port.
+     *
+     * @param source data to serve.
+     * @throws IOException if the server can not be started.
+     */
+    public StubDukascopyServer(PathSource source) throws IOException {
+        this.source = source;
+        this.executor = Executors.newCachedThreadPool();
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        this.server.createContext(CONTEXT, this::handle);
+        this.server.setExecutor(executor);
+        this.server.start();
+        log.info("Stub Dukascopy server started at {}", getBaseUrl());
+    }
+
+    /**
+     * Serve a bi5 tree from a directory, such as one written by {@link SyntheticTickGenerator#writeTree}.
+     *
+     * @param directory root of the tree.
+     * @return a started server.
+     * @throws IOException if the server can not be started.
+     */
+    public static StubDukascopyServer forDirectory(Path directory) throws IOException {
+        final Path root = directory.toAbsolutePath().normalize();
+        return new StubDukascopyServer(path -> {
+            final Path file = root.resolve(path).normalize();
+            return file.startsWith(root) && Files.isRegularFile(file) ? Files.readAllBytes(file) : null;
+        });
+    }
+
+    /**
+     * Serve hours generated on request, so no tree needs to be written.
+     *
+     * @param generator generator to encode hours with.
+     * @return a started server.
+     * @throws IOException if the server can not be started.
+     */
+    public static StubDukascopyServer forGenerator(SyntheticTickGenerator generator) throws IOException {
+        return new StubDukascopyServer(generator::encodeHour);
+    }
+
+    /**
+     * @return the feed url, ending in a slash, to prefix dukascopy paths with.
+     */
+    public String getBaseUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + CONTEXT;
+    }
+
+    /**
+     * @param latency delay before each response.
+     */
+    public void setLatency(Duration latency) {
+        this.latency = latency;
+    }
+
+    /**
+     * @param serverErrorEvery answer every nth request with a 500, or 0 to never fail.
+     */
+    public void setServerErrorEvery(int serverErrorEvery) {
+        this.serverErrorEvery = serverErrorEvery;
+    }
+
+    /**
+     * @param dukascopyPath path to answer with a 404 even if the source has data.
+     */
+    public void addNotFound(String dukascopyPath) {
+        notFoundPaths.add(dukascopyPath);
+    }
+
+    public int getRequestCount() {
+        return requestCount.get();
+    }
+
+    public int getServerErrorCount() {
+        return serverErrorCount.get();
+    }
+
+    public int getNotFoundCount() {
+        return notFoundCount.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+        log.info("Stub Dukascopy server stopped after {} request(s)", getRequestCount());
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            final int request = requestCount.incrementAndGet();
+            final String path = exchange.getRequestURI().getPath().substring(CONTEXT.length());
+            pause();
+            final int every = serverErrorEvery;
+            if (every > 0 && request % every == 0) {
+                serverErrorCount.incrementAndGet();
+                log.debug("Stub 500 for {}", path);
+                exchange.sendResponseHeaders(HttpURLConnection.HTTP_INTERNAL_ERROR, -1);
+                return;
+            }
+            final byte[] data = notFoundPaths.contains(path) ? null : source.read(path);
+            if (data == null) {
+                notFoundCount.incrementAndGet();
+                log.debug("Stub 404 for {}", path);
+                exchange.sendResponseHeaders(HttpURLConnection.HTTP_NOT_FOUND, -1);
+                return;
+            }
+            exchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, data.length == 0 ? -1 : data.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(data);
+            }
+        }
+    }
+
+    private void pause() throws IOException {
+        final Duration delay = latency;
+        if (!delay.isZero()) {
+            try {
+                Thread.sleep(delay.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while delaying response", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2011-2024 Lime Mojito Pty Ltd
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.limemojito.trading.model.testsupport;
+
+import com.limemojito.trading.model.stream.TradingInputStreamMapper;
+import com.limemojito.trading.model.tick.Tick;
+import com.limemojito.trading.model.tick.dukascopy.DukascopyPathGenerator;
+import com.limemojito.trading.model.tick.dukascopy.DukascopyTickOutputStream;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static com.limemojito.trading.model.StreamData.REALTIME_UUID;
+import static com.limemojito.trading.model.StreamData.StreamSource.Historical;
+import static java.time.ZoneOffset.UTC;
+
+/**
+ * Generates deterministic synthetic ticks in the Dukascopy bi5 layout.  Every hour is derived from the seed and its
+ * path alone, so hours may be generated in any order or on any thread and are identical between runs.  Prices follow
+ * a slow per symbol cycle with a random walk inside each hour, and weekend hours are empty as they are in Dukascopy
+ * data.
+ */
+@Slf4j
+public class SyntheticTickGenerator {
+    /**
+     * Note that the month is ZERO INDEXED for the dukascopy format.
+     */
+    private static final Pattern PATH_PATTERN = Pattern.compile("^([^/]+)/(\\d{4})/(\\d{2})/(\\d{2})/(\\d{2})h_ticks\\.bi5$");
+    private static final long MILLIS_PER_HOUR = 3_600_000L;
+    private static final int BASE_PRICE = 100_000;
+    private static final int PRICE_RANGE = 50_000;
+    private static final double CYCLE_HOURS = 500.0;
+    private static final double CYCLE_AMPLITUDE = 0.05;
+    private static final int MAX_SPREAD = 20;
+    private static final int MAX_STEP = 3;
+    private static final double VOLUME_SCALE = 100.0;
+    private final long seed;
+    private final int meanTicksPerHour;
+    private final DukascopyPathGenerator pathGenerator = new DukascopyPathGenerator();
+
+    /**
+     * @param seed             seed for all generated data.
+     * @param meanTicksPerHour average ticks in a trading hour, varying by up to half either way.
+     */
+    public SyntheticTickGenerator(long seed, int meanTicksPerHour) {
+        if (meanTicksPerHour < 1) {
+            throw new IllegalArgumentException("Mean ticks per hour must be positive");
+        }
+        this.seed = seed;
+        this.meanTicksPerHour = meanTicksPerHour;
+    }
+
+    /**
+     * Generate the ticks for one hour.
+     *
+     * @param dukascopyPath A valid dukascopy path: ie EURUSD/2018/06/05/05h_ticks.bi5
+     * @return ticks in time order, empty at weekends.
+     */
+    public List<Tick> generateHour(String dukascopyPath) {
+        final Matcher matcher = PATH_PATTERN.matcher(dukascopyPath);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Can not parse path " + dukascopyPath);
+        }
+        final String symbol = matcher.group(1);
+        final LocalDateTime hour = LocalDateTime.of(intAt(matcher, 2),
+                                                    intAt(matcher, 3) + 1,
+                                                    intAt(matcher, 4),
+                                                    intAt(matcher, 5),
+                                                    0);
+        if (isWeekend(hour)) {
+            return List.of();
+        }
+        final long hourStart = hour.toInstant(UTC).toEpochMilli();
+        final SplittableRandom random = new SplittableRandom(seed * 31 + dukascopyPath.hashCode());
+        final int count = meanTicksPerHour / 2 + random.nextInt(meanTicksPerHour + 1);
+        final long[] times = new long[count];
+        for (int i = 0; i < count; i++) {
+            times[i] = hourStart + random.nextLong(MILLIS_PER_HOUR);
+        }
+        Arrays.sort(times);
+        int bid = hourOpen(symbol, hourStart);
+        final List<Tick> ticks = new ArrayList<>(count);
+        for (long time : times) {
+            bid = Math.max(1, bid + random.nextInt(-MAX_STEP, MAX_STEP + 1));
+            ticks.add(Tick.builder()
+                          .streamId(REALTIME_UUID)
+                          .symbol(symbol)
+                          .millisecondsUtc(time)
+                          .bid(bid)
+                          .ask(bid + 1 + random.nextInt(MAX_SPREAD))
+                          .bidVolume(volume(random))
+                          .askVolume(volume(random))
+                          .source(Historical)
+                          .build());
+        }
+        return ticks;
+    }
+
+    /**
+     * Generate one hour encoded as bi5.
+     *
+     * @param dukascopyPath A valid dukascopy path: ie EURUSD/2018/06/05/05h_ticks.bi5
+     * @return the encoded hour, empty at weekends.
+     * @throws IOException on an encoding failure.
+     */
+    public byte[] encodeHour(String dukascopyPath) throws IOException {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        writeHour(dukascopyPath, outputStream);
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * Write a bi5 tree for the symbols and time range, laid out as Dukascopy paths under the directory.
+     *
+     * @param directory root of the tree.
+     * @param symbols   symbols to generate.
+     * @param start     first hour to generate.
+     * @param end       last hour to generate.
+     * @return the number of hour files written.
+     * @throws IOException on a write failure.
+     */
+    public int writeTree(Path directory, Collection<String> symbols, Instant start, Instant end) throws IOException {
+        int files = 0;
+        for (String symbol : symbols) {
+            for (String path : pathGenerator.generatePaths(symbol, start, end)) {
+                final Path file = directory.resolve(path);
+                Files.createDirectories(file.getParent());
+                try (OutputStream outputStream = Files.newOutputStream(file)) {
+                    writeHour(path, outputStream);
+                }
+                files++;
+            }
+        }
+        log.info("Generated {} hours of {} under {}", files, symbols, directory);
+        return files;
+    }
+
+    private void writeHour(String dukascopyPath, OutputStream outputStream) throws IOException {
+        try (DukascopyTickOutputStream output = new DukascopyTickOutputStream(dukascopyPath, outputStream)) {
+            output.writeAll(TradingInputStreamMapper.streamFrom(generateHour(dukascopyPath)));
+        }
+    }
+
+    private int hourOpen(String symbol, long hourStart) {
+        final int symbolBase = BASE_PRICE + Math.floorMod(symbol.hashCode(), PRICE_RANGE);
+        final double cycle = Math.sin((hourStart / MILLIS_PER_HOUR) / CYCLE_HOURS);
+        return (int) (symbolBase * (1.0 + CYCLE_AMPLITUDE * cycle));
+    }
+
+    private static float volume(SplittableRandom random) {
+        return (float) (Math.round(random.nextDouble(0.01, 10.0) * VOLUME_SCALE) / VOLUME_SCALE);
+    }
+
+    private static boolean isWeekend(LocalDateTime hour) {
+        final DayOfWeek day = hour.getDayOfWeek();
+        return day == DayOfWeek.SATURDAY || day == DayOfWeek.SUNDAY;
+    }
+
+    private static int intAt(Matcher matcher, int index) {
+        return Integer.parseInt(matcher.group(index));
+    }
+}
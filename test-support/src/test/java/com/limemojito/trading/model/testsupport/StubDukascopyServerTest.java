@@ -0,0 +1,108 @@
+/*
+ * Copyright 2011-2024 Lime Mojito Pty Ltd
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.limemojito.trading.model.testsupport;
+
+import com.limemojito.trading.model.TradingInputStream;
+import com.limemojito.trading.model.tick.Tick;
+import com.limemojito.trading.model.tick.dukascopy.DukascopyTickInputStream;
+import com.limemojito.trading.model.tick.dukascopy.cache.DirectDukascopyNoCache;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.limemojito.trading.model.tick.dukascopy.DukascopyUtils.setupValidator;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StubDukascopyServerTest {
+    private static final String PATH = "EURUSD/2018/06/05/05h_ticks.bi5";
+    private final SyntheticTickGenerator generator = new SyntheticTickGenerator(7L, 200);
+
+    @Test
+    public void shouldServeGeneratedHours() throws Exception {
+        try (StubDukascopyServer server = StubDukascopyServer.forGenerator(generator)) {
+            final DirectDukascopyNoCache direct = new DirectDukascopyNoCache(server.getBaseUrl());
+
+            try (TradingInputStream<Tick> ticks = new DukascopyTickInputStream(setupValidator(), direct, PATH)) {
+                assertThat(ticks.stream().collect(Collectors.toList())).usingRecursiveFieldByFieldElementComparator()
+                                                                       .isEqualTo(generator.generateHour(PATH));
+            }
+            assertThat(server.getRequestCount()).isEqualTo(1);
+            assertThat(server.getBaseUrl()).startsWith("http://").endsWith("/datafeed/");
+        }
+    }
+
+    @Test
+    public void shouldServeDirectoryWithNotFounds() throws Exception {
+        final Path directory = Files.createTempDirectory("stub");
+        generator.writeTree(directory,
+                            List.of("EURUSD"),
+                            Instant.parse("2018-07-05T05:00:00Z"),
+                            Instant.parse("2018-07-05T06:59:59Z"));
+        try (StubDukascopyServer server = StubDukascopyServer.forDirectory(directory)) {
+            final DirectDukascopyNoCache direct = new DirectDukascopyNoCache(server.getBaseUrl());
+            server.addNotFound("EURUSD/2018/06/05/06h_ticks.bi5");
+
+            assertThat(read(direct, PATH)).isEqualTo(generator.encodeHour(PATH));
+            assertThat(read(direct, "EURUSD/2018/06/05/06h_ticks.bi5")).isEmpty();
+            assertThat(read(direct, "EURUSD/2018/06/05/07h_ticks.bi5")).isEmpty();
+            assertThat(read(direct, "../escape.bi5")).isEmpty();
+            assertThat(server.getNotFoundCount()).isEqualTo(3);
+        }
+    }
+
+    @Test
+    public void shouldFailEveryNthRequestSoClientRetries() throws Exception {
+        try (StubDukascopyServer server = StubDukascopyServer.forGenerator(generator)) {
+            final DirectDukascopyNoCache direct = new DirectDukascopyNoCache(server.getBaseUrl());
+            server.setServerErrorEvery(2);
+
+            assertThat(read(direct, PATH)).isEqualTo(generator.encodeHour(PATH));
+            assertThat(read(direct, PATH)).isEqualTo(generator.encodeHour(PATH));
+
+            assertThat(server.getServerErrorCount()).isEqualTo(1);
+            assertThat(direct.getRetryCount()).isEqualTo(1);
+            assertThat(server.getRequestCount()).isEqualTo(3);
+        }
+    }
+
+    @Test
+    public void shouldDelayResponses() throws Exception {
+        try (StubDukascopyServer server = StubDukascopyServer.forGenerator(generator)) {
+            final DirectDukascopyNoCache direct = new DirectDukascopyNoCache(server.getBaseUrl());
+            server.setLatency(Duration.ofMillis(250));
+
+            final long start = System.nanoTime();
+            read(direct, PATH);
+
+            assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(250));
+        }
+    }
+
+    private static byte[] read(DirectDukascopyNoCache direct, String path) throws IOException {
+        try (InputStream inputStream = direct.stream(path)) {
+            return inputStream.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2011-2024 Lime Mojito Pty Ltd
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ */
+
+package com.limemojito.trading.model.testsupport;
+
+import com.limemojito.trading.model.TradingInputStream;
+import com.limemojito.trading.model.tick.Tick;
+import com.limemojito.trading.model.tick.dukascopy.DukascopyTickInputStream;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.limemojito.trading.model.tick.dukascopy.DukascopyUtils.setupValidator;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class SyntheticTickGeneratorTest {
+    private static final String WEEKDAY_PATH = "EURUSD/2018/06/05/05h_ticks.bi5";
+    private final SyntheticTickGenerator generator = new SyntheticTickGenerator(42L, 1000);
+
+    @Test
+    public void shouldGenerateSameHourForSameSeed() {
+        final List<Tick> ticks = generator.generateHour(WEEKDAY_PATH);
+
+        assertThat(new SyntheticTickGenerator(42L, 1000).generateHour(WEEKDAY_PATH)).isEqualTo(ticks);
+        assertThat(new SyntheticTickGenerator(43L, 1000).generateHour(WEEKDAY_PATH)).isNotEqualTo(ticks);
+    }
+
+    @Test
+    public void shouldGenerateOrderedTicksInTheHour() {
+        final List<Tick> ticks = generator.generateHour(WEEKDAY_PATH);
+
+        assertThat(ticks).hasSizeBetween(500, 1500);
+        assertThat(ticks).isSortedAccordingTo((a, b) -> Long.compare(a.getMillisecondsUtc(), b.getMillisecondsUtc()));
+        assertThat(ticks).allSatisfy(tick -> {
+            assertThat(tick.getSymbol()).isEqualTo("EURUSD");
+            assertThat(tick.getInstant()).isBetween(Instant.parse("2018-07-05T05:00:00Z"),
+                                                    Instant.parse("2018-07-05T05:59:59.999Z"));
+            assertThat(tick.getAsk()).isGreaterThan(tick.getBid());
+            assertThat(tick.getBidVolume()).isPositive();
+        });
+    }
+
+    @Test
+    public void shouldGenerateEmptyWeekendHours() throws Exception {
+        final String saturday = "EURUSD/2018/06/07/05h_ticks.bi5";
+
+        assertThat(generator.generateHour(saturday)).isEmpty();
+        assertThat(generator.encodeHour(saturday)).isEmpty();
+    }
+
+    @Test
+    public void shouldEncodeHourAsBi5() throws Exception {
+        final byte[] encoded = generator.encodeHour(WEEKDAY_PATH);
+
+        try (TradingInputStream<Tick> ticks = new DukascopyTickInputStream(setupValidator(),
+                                                                           WEEKDAY_PATH,
+                                                                           new ByteArrayInputStream(encoded))) {
+            assertThat(ticks.stream().collect(Collectors.toList())).usingRecursiveFieldByFieldElementComparator()
+                                                                   .isEqualTo(generator.generateHour(WEEKDAY_PATH));
+        }
+    }
+
+    @Test
+    public void shouldWriteTreeOfHours() throws Exception {
+        final Path directory = Files.createTempDirectory("synthetic");
+
+        final int files = generator.writeTree(directory,
+                                              List.of("EURUSD", "AUDUSD"),
+                                              Instant.parse("2018-07-05T00:00:00Z"),
+                                              Instant.parse("2018-07-05T23:59:59Z"));
+
+        assertThat(files).isEqualTo(48);
+        assertThat(directory.resolve(WEEKDAY_PATH)).hasBinaryContent(generator.encodeHour(WEEKDAY_PATH));
+        assertThat(directory.resolve("AUDUSD/2018/06/05/23h_ticks.bi5")).isRegularFile();
+    }
+
+    @Test
+    public void shouldRejectInvalidArguments() {
+        assertThatThrownBy(() -> generator.generateHour("EURUSD/2018/06/05")).isInstanceOf(IllegalArgumentException.class)
+                                                                             .hasMessage("Can not parse path EURUSD/2018/06/05");
+        assertThatThrownBy(() -> new SyntheticTickGenerator(1L, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}